@@ -0,0 +1,25 @@
+package kg.santechmarket.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация кэширования каталога
+ * <p>
+ * Кэшируются редко меняющиеся и часто запрашиваемые данные главной страницы:
+ * дерево категорий, рекомендуемые товары, бренды и метаданные фильтров.
+ * В кэше хранятся только неизменяемые DTO, а не сущности JPA.
+ * Сервисы не используют @CacheEvict: они публикуют CatalogChangedEvent,
+ * и CatalogCacheEvictor очищает кэши после коммита транзакции.
+ * Провайдер (Caffeine) и время жизни записей задаются в spring.cache.caffeine.spec,
+ * чтобы на нескольких нодах устаревшие данные жили не дольше TTL.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CATEGORY_TREE = "categoryTree";
+    public static final String FEATURED_PRODUCTS = "featuredProducts";
+    public static final String BRANDS = "brands";
+    public static final String FILTER_METADATA = "filterMetadata";
+}
@@ -0,0 +1,34 @@
+package kg.santechmarket.config;
+
+import kg.santechmarket.event.CatalogChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Очистка кэшей каталога после коммита изменений
+ * <p>
+ * При откате транзакции кэш не трогается. Вне транзакции событие обрабатывается сразу.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogCacheEvictor {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        for (String name : event.cacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.invalidate();
+            }
+        }
+        log.debug("Очищены кэши каталога: {}", event.cacheNames());
+    }
+}
@@ -0,0 +1,12 @@
+package kg.santechmarket.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включение фоновых задач по расписанию (пакет kg.santechmarket.scheduler)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,6 @@
 package kg.santechmarket.config;
 
+import jakarta.servlet.DispatcherType;
 import kg.santechmarket.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -49,6 +50,10 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Завершение SSE-потока (/notifications/stream) идёт async-диспетчеризацией без JWT:
+                        // доступ к самому потоку уже проверен при его открытии
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Публичные endpoints
                         .requestMatchers("/auth/login", "/auth/register", "/auth/refresh", "/auth/forgot-password", "/auth/reset-password").permitAll()
                         .requestMatchers("/categories/**").permitAll()
@@ -0,0 +1,49 @@
+package kg.santechmarket.config;
+
+import org.hibernate.boot.model.naming.Identifier;
+import org.hibernate.boot.model.relational.QualifiedName;
+import org.hibernate.boot.model.relational.QualifiedNameParser;
+import org.hibernate.boot.model.relational.QualifiedSequenceName;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.ImplicitDatabaseObjectNamingStrategy;
+import org.hibernate.id.enhanced.StandardNamingStrategy;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+
+import java.util.Map;
+
+/**
+ * Имена последовательностей для @GeneratedValue(strategy = SEQUENCE): {@code <таблица>_seq}
+ * <p>
+ * Стандартная стратегия Hibernate строит имя от имени сущности (cartitem_seq),
+ * а схема БД использует имена таблиц (cart_items_seq, см. changelog 38).
+ * Подключается через hibernate.id.db_structure_naming_strategy.
+ */
+public class TableSequenceNamingStrategy implements ImplicitDatabaseObjectNamingStrategy {
+
+    private static final String SUFFIX = "_seq";
+
+    private final StandardNamingStrategy standard = new StandardNamingStrategy();
+
+    @Override
+    public QualifiedName determineSequenceName(Identifier catalogName, Identifier schemaName,
+                                               Map<?, ?> configValues, ServiceRegistry serviceRegistry) {
+        String table = ConfigurationHelper.getString(PersistentIdentifierGenerator.TABLE, configValues);
+        if (table == null) {
+            return standard.determineSequenceName(catalogName, schemaName, configValues, serviceRegistry);
+        }
+
+        QualifiedNameParser.NameParts tableName = QualifiedNameParser.INSTANCE.parse(table);
+        return new QualifiedSequenceName(
+                catalogName,
+                schemaName,
+                Identifier.toIdentifier(tableName.getObjectName().getText() + SUFFIX)
+        );
+    }
+
+    @Override
+    public QualifiedName determineTableName(Identifier catalogName, Identifier schemaName,
+                                            Map<?, ?> configValues, ServiceRegistry serviceRegistry) {
+        return standard.determineTableName(catalogName, schemaName, configValues, serviceRegistry);
+    }
+}
@@ -0,0 +1,150 @@
+package kg.santechmarket.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.UserRole;
+import kg.santechmarket.service.CategoryService;
+import kg.santechmarket.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Прогрев приложения перед приёмом трафика
+ * <p>
+ * ApplicationRunner выполняется до перехода приложения в состояние ACCEPTING_TRAFFIC,
+ * поэтому readiness-проба станет зелёной только после прогрева:
+ * - пул соединений Hikari заполняется до максимального размера;
+ * - кэши каталога (дерево категорий, рекомендуемые товары, бренды, фильтры) заполняются заранее;
+ * - горячие пути (выпуск/проверка JWT, сериализация Jackson, постраничный запрос товаров)
+ * прогоняются заданное число раз, чтобы JIT успел их скомпилировать.
+ * Длительность прогрева публикуется метрикой santech.warmup.duration.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WarmupRunner implements ApplicationRunner {
+
+    private final DataSource dataSource;
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final JwtService jwtService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.warmup.iterations:200}")
+    private int iterations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            log.debug("Прогрев приложения отключён");
+            return;
+        }
+
+        log.info("Начало прогрева приложения ({} итераций горячих путей)", iterations);
+        long start = System.nanoTime();
+
+        warmUpConnectionPool();
+        warmUpCaches();
+        warmUpHotPaths();
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("santech.warmup.duration")
+                .description("Длительность прогрева приложения перед приёмом трафика")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        log.info("Прогрев приложения завершён за {} мс", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Открытие всех соединений пула, чтобы первые запросы не ждали установки TCP/TLS
+     */
+    private void warmUpConnectionPool() {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+
+        int poolSize = hikari.getMaximumPoolSize();
+        List<Connection> connections = new ArrayList<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                Connection connection = hikari.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+            log.debug("Пул соединений заполнен: {} соединений", connections.size());
+        } catch (Exception e) {
+            log.warn("Не удалось полностью заполнить пул соединений: {}", e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (Exception ignored) {
+                    // Соединение просто возвращается в пул
+                }
+            }
+        }
+    }
+
+    /**
+     * Заполнение кэшей каталога
+     */
+    private void warmUpCaches() {
+        try {
+            categoryService.getCategoryTree();
+            productService.getFeaturedProducts();
+            productService.getAllBrands();
+            productService.getFilterMetadata();
+            log.debug("Кэши каталога заполнены");
+        } catch (Exception e) {
+            log.warn("Ошибка при заполнении кэшей каталога: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Многократный прогон горячих путей для JIT-компиляции
+     */
+    private void warmUpHotPaths() {
+        User user = new User();
+        user.setId(-1L);
+        user.setUsername("warmup");
+        user.setFullName("Warmup");
+        user.setRole(UserRole.CLIENT);
+
+        try {
+            for (int i = 0; i < iterations; i++) {
+                String token = jwtService.generateToken(user);
+                jwtService.validateToken(token);
+                jwtService.getUsernameFromToken(token);
+
+                objectMapper.writeValueAsBytes(productService.getFeaturedProducts());
+                objectMapper.writeValueAsBytes(productService.getFilterMetadata());
+                objectMapper.writeValueAsBytes(categoryService.getCategoryTree());
+
+                if (i % 20 == 0) {
+                    productService.findAllActiveProducts(PageRequest.of(0, 20));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Ошибка при прогреве горячих путей: {}", e.getMessage());
+        }
+    }
+}
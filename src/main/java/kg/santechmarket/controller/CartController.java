@@ -5,9 +5,11 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import kg.santechmarket.dto.CartBatchItemRequestDTO;
 import kg.santechmarket.dto.CartResponseDTO;
 import kg.santechmarket.dto.MessageResponse;
-import kg.santechmarket.entity.Cart;
 import kg.santechmarket.entity.User;
 import kg.santechmarket.service.CartService;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +18,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/cart")
@@ -24,21 +27,32 @@ import java.math.BigDecimal;
 @SecurityRequirement(name = "JWT")
 public class CartController {
 
+    /**
+     * Все операции пакета выполняются в одной транзакции (с повторами при конфликте)
+     */
+    private static final int MAX_BATCH_OPERATIONS = 100;
+
     private final CartService cartService;
 
     @GetMapping
     @Operation(
             summary = "Получить корзину пользователя",
-            description = "Возвращает текущую корзину авторизованного пользователя со всеми товарами, количеством и общей стоимостью"
+            description = """
+                    Возвращает текущую корзину авторизованного пользователя со всеми товарами, количеством и общей стоимостью.
+                    По умолчанию позиции содержат только поля для экрана корзины;
+                    expand=details добавляет описание, характеристики и дополнительные изображения товаров.
+                    """
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Корзина успешно получена"),
             @ApiResponse(responseCode = "401", description = "Не авторизован")
     })
-    public ResponseEntity<CartResponseDTO> getUserCart(Authentication authentication) {
+    public ResponseEntity<CartResponseDTO> getUserCart(
+            @Parameter(description = "Дополнительные поля товаров: details", example = "details")
+            @RequestParam(required = false) String expand,
+            Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        Cart cart = cartService.getOrCreateUserCart(user.getId());
-        CartResponseDTO response = cartService.toCartResponseDTO(cart);
+        CartResponseDTO response = cartService.getCartView(user.getId(), "details".equalsIgnoreCase(expand));
         return ResponseEntity.ok(response);
     }
 
@@ -69,6 +83,35 @@ public class CartController {
         return ResponseEntity.ok(true);
     }
 
+    @PostMapping("/items/batch")
+    @Operation(
+            summary = "Пакетное изменение корзины",
+            description = """
+                    Применяет список операций к корзине в одной транзакции и возвращает итоговую корзину.
+                    Каждая операция: {productId, quantity, mode}, где mode:
+                    - add - добавить quantity к текущему количеству (по умолчанию)
+                    - set - установить количество (0 - удалить товар)
+                    - remove - удалить товар из корзины
+                    Если хотя бы одна операция некорректна, корзина не изменяется.
+                    В одном запросе не больше 100 операций.
+                    """
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Операции применены, возвращена корзина"),
+            @ApiResponse(responseCode = "400", description = "Неверные параметры или товар недоступен"),
+            @ApiResponse(responseCode = "401", description = "Не авторизован")
+    })
+    public ResponseEntity<CartResponseDTO> applyBatch(
+            @Valid @Size(min = 1, max = MAX_BATCH_OPERATIONS, message = "Количество операций должно быть от {min} до {max}")
+            @RequestBody List<CartBatchItemRequestDTO> operations,
+            @Parameter(description = "Дополнительные поля товаров: details", example = "details")
+            @RequestParam(required = false) String expand,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        cartService.applyBatch(user.getId(), operations);
+        return ResponseEntity.ok(cartService.getCartView(user.getId(), "details".equalsIgnoreCase(expand)));
+    }
+
     @PutMapping("/items/{productId}")
     @Operation(summary = "Обновить количество товара", description = "Обновляет количество указанного товара в корзине")
     public ResponseEntity<Boolean> updateItemQuantity(
@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import kg.santechmarket.dto.CategoryDto;
+import kg.santechmarket.dto.CategoryTreeDTO;
 import kg.santechmarket.entity.Category;
 import kg.santechmarket.service.CategoryService;
 import lombok.RequiredArgsConstructor;
@@ -162,8 +163,8 @@ public class CategoryController {
 
     @GetMapping("/tree")
     @Operation(summary = "Получить дерево категорий", description = "Возвращает полное дерево категорий с подкатегориями")
-    public ResponseEntity<List<Category>> getCategoryTree() {
-        List<Category> tree = categoryService.getCategoryTree();
+    public ResponseEntity<List<CategoryTreeDTO>> getCategoryTree() {
+        List<CategoryTreeDTO> tree = categoryService.getCategoryTree();
         return ResponseEntity.ok(tree);
     }
 
@@ -5,20 +5,26 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import kg.santechmarket.dto.BroadcastProgressDTO;
+import kg.santechmarket.dto.BroadcastRequestDTO;
+import kg.santechmarket.dto.KeysetPageDTO;
 import kg.santechmarket.dto.NotificationResponseDTO;
 import kg.santechmarket.entity.User;
+import kg.santechmarket.service.NotificationBroadcastService;
 import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.NotificationStreamService;
 import lombok.RequiredArgsConstructor;
-import org.springdoc.core.annotations.ParameterObject;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/notifications")
@@ -28,32 +34,47 @@ import java.util.stream.Collectors;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationBroadcastService notificationBroadcastService;
+    private final NotificationStreamService notificationStreamService;
 
     @GetMapping
     @Operation(
             summary = "Получить мои уведомления",
-            description = "Возвращает список уведомлений текущего пользователя. " +
-                    "Параметры пагинации передаются как query параметры: ?page=0&size=10&sort=createdAt,desc"
+            description = "Возвращает страницу ленты текущего пользователя: личные уведомления и рассылки всем, новые первыми. " +
+                    "Следующая страница запрашивается по nextCursor: ?cursor=...&limit=20"
     )
     @ApiResponse(responseCode = "200", description = "Успешно получен список уведомлений")
-    public ResponseEntity<Page<NotificationResponseDTO>> getMyNotifications(
-            @ParameterObject @PageableDefault(size = 20, sort = "createdAt") Pageable pageable,
+    public ResponseEntity<KeysetPageDTO<NotificationResponseDTO>> getMyNotifications(
+            @Parameter(description = "Курсор из предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 100)") @RequestParam(defaultValue = "20") int limit,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        Page<NotificationResponseDTO> notifications = notificationService.getUserNotifications(user.getId(), pageable)
-                .map(notificationService::toNotificationResponseDTO);
-        return ResponseEntity.ok(notifications);
+        return ResponseEntity.ok(notificationService.getUserNotifications(user.getId(), cursor, limit));
     }
 
     @GetMapping("/unread")
-    @Operation(summary = "Получить непрочитанные уведомления", description = "Возвращает список непрочитанных уведомлений")
-    public ResponseEntity<List<NotificationResponseDTO>> getUnreadNotifications(Authentication authentication) {
+    @Operation(summary = "Получить непрочитанные уведомления", description = "Возвращает страницу непрочитанных уведомлений " +
+            "и рассылок, новые первыми. Следующая страница запрашивается по nextCursor")
+    public ResponseEntity<KeysetPageDTO<NotificationResponseDTO>> getUnreadNotifications(
+            @Parameter(description = "Курсор из предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 100)") @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        List<NotificationResponseDTO> notifications = notificationService.getUnreadNotifications(user.getId())
-                .stream()
-                .map(notificationService::toNotificationResponseDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(notifications);
+        return ResponseEntity.ok(notificationService.getUnreadNotifications(user.getId(), cursor, limit));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток событий", description = "SSE-поток вместо опроса: события notification (новое уведомление) " +
+            "order-status (смена статуса заказа) и broadcast (новые уведомления рассылки: перечитать счетчик и ленту). При переподключении заголовок Last-Event-ID досылает пропущенные события; " +
+            "событие resync означает, что их уже нет в буфере и данные нужно перечитать. Каждые 20 секунд приходит heartbeat-комментарий")
+    public SseEmitter stream(
+            @Parameter(description = "ID последнего полученного события") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            Authentication authentication,
+            HttpServletResponse response) {
+        User user = (User) authentication.getPrincipal();
+        // Запрещаем буферизацию ответа на nginx, иначе события приходят пачками
+        response.setHeader("X-Accel-Buffering", "no");
+        return notificationStreamService.subscribe(user.getId(), lastEventId);
     }
 
     @GetMapping("/unread-count")
@@ -65,12 +86,15 @@ public class NotificationController {
     }
 
     @PatchMapping("/{id}/read")
-    @Operation(summary = "Отметить как прочитанное", description = "Отмечает уведомление как прочитанное")
+    @Operation(summary = "Отметить как прочитанное", description = "Отмечает уведомление как прочитанное. " +
+            "С createdAt из ленты поиск читает одну месячную секцию")
     public ResponseEntity<Void> markAsRead(
             @Parameter(description = "ID уведомления") @PathVariable Long id,
+            @Parameter(description = "Дата создания уведомления (createdAt из ленты)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAt,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        notificationService.markAsRead(id, user.getId());
+        notificationService.markAsRead(id, user.getId(), createdAt);
         return ResponseEntity.ok().build();
     }
 
@@ -82,13 +106,57 @@ public class NotificationController {
         return ResponseEntity.ok().build();
     }
 
+    @PatchMapping("/broadcasts/{id}/read")
+    @Operation(summary = "Отметить рассылку как прочитанную", description = "Отмечает прочитанной рассылку всем пользователям " +
+            "(уведомление ленты с broadcast = true)")
+    public ResponseEntity<Void> markBroadcastAsRead(
+            @Parameter(description = "ID рассылки") @PathVariable Long id,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        notificationBroadcastService.markAsRead(id, user.getId());
+        return ResponseEntity.ok().build();
+    }
+
+    @PatchMapping("/broadcasts/{id}/dismiss")
+    @Operation(summary = "Скрыть рассылку", description = "Убирает рассылку всем пользователям из ленты текущего пользователя")
+    public ResponseEntity<Void> dismissBroadcast(
+            @Parameter(description = "ID рассылки") @PathVariable Long id,
+            Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        notificationBroadcastService.dismiss(id, user.getId());
+        return ResponseEntity.ok().build();
+    }
+
     @DeleteMapping("/{id}")
-    @Operation(summary = "Удалить уведомление", description = "Удаляет уведомление пользователя")
+    @Operation(summary = "Удалить уведомление", description = "Удаляет уведомление пользователя. " +
+            "С createdAt из ленты поиск читает одну месячную секцию")
     public ResponseEntity<Void> deleteNotification(
             @Parameter(description = "ID уведомления") @PathVariable Long id,
+            @Parameter(description = "Дата создания уведомления (createdAt из ленты)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAt,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        notificationService.deleteNotification(id, user.getId());
+        notificationService.deleteNotification(id, user.getId(), createdAt);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/broadcasts")
+    @Operation(summary = "Создать массовую рассылку", description = "Без списка получателей рассылка публикуется всем " +
+            "сразу и подмешивается в ленты при чтении. По списку получателей уведомления создаются в фоне порциями; " +
+            "прогресс доступен по GET /notifications/broadcasts/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BroadcastProgressDTO> createBroadcast(
+            @Parameter(description = "Содержимое и получатели рассылки") @Valid @RequestBody BroadcastRequestDTO request) {
+        Long broadcastId = notificationService.sendBroadcastNotification(request.getType(), request.getTitle(),
+                request.getContent(), request.getUserIds(), request.getMetadata());
+        return ResponseEntity.ok(notificationBroadcastService.getProgress(broadcastId));
+    }
+
+    @GetMapping("/broadcasts/{id}")
+    @Operation(summary = "Прогресс массовой рассылки", description = "Возвращает статус рассылки и количество доставленных уведомлений")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BroadcastProgressDTO> getBroadcastProgress(
+            @Parameter(description = "ID рассылки") @PathVariable Long id) {
+        return ResponseEntity.ok(notificationBroadcastService.getProgress(id));
+    }
 }
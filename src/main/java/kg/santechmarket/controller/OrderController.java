@@ -5,13 +5,23 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import kg.santechmarket.dto.BulkOrderStatusRequestDTO;
+import kg.santechmarket.dto.BulkOrderStatusResultDTO;
 import kg.santechmarket.dto.DirectOrderRequestDTO;
+import kg.santechmarket.dto.KeysetPageDTO;
+import kg.santechmarket.dto.OrderEventDTO;
 import kg.santechmarket.dto.OrderResponseDTO;
+import kg.santechmarket.dto.OrderSummaryDTO;
+import kg.santechmarket.dto.SalesAnalyticsPointDTO;
 import kg.santechmarket.entity.Order;
 import jakarta.validation.Valid;
 import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.AnalyticsDimension;
+import kg.santechmarket.enums.AnalyticsGranularity;
 import kg.santechmarket.enums.OrderStatus;
+import kg.santechmarket.service.IdempotencyService;
 import kg.santechmarket.service.OrderService;
+import kg.santechmarket.service.SalesAnalyticsService;
 import kg.santechmarket.service.impl.OrderServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
@@ -35,26 +45,55 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
+    private final SalesAnalyticsService salesAnalyticsService;
 
     @PostMapping
-    @Operation(summary = "Создать заказ", description = "Создает новый заказ из корзины пользователя")
-    @ApiResponse(responseCode = "200", description = "Заказ успешно создан")
-    public ResponseEntity<Boolean> createOrder(
+    @Operation(summary = "Создать заказ", description = "Создает новый заказ из корзины пользователя. " +
+            "С заголовком Idempotency-Key повтор запроса не создаёт второй заказ и возвращает исходный заказ")
+    @ApiResponse(responseCode = "200", description = "Заказ успешно создан, в ответе созданный заказ")
+    public ResponseEntity<OrderResponseDTO> createOrder(
             @Parameter(description = "Комментарий клиента") @RequestParam(required = false) String customerComment,
             @Parameter(description = "Контактная информация") @RequestParam(required = false) String contactInfo,
+            @Parameter(description = "Уникальный ключ запроса для безопасного повтора")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        orderService.createOrderFromCart(user.getId(), customerComment, contactInfo);
-        return ResponseEntity.ok(true);
+        if (idempotencyKey != null) {
+            OrderResponseDTO orderDTO = idempotencyService.execute(user.getId(), idempotencyKey, "POST /orders",
+                    customerComment + "\n" + contactInfo,
+                    () -> createOrderFromCart(user, customerComment, contactInfo));
+            return ResponseEntity.ok(orderDTO);
+        }
+        return ResponseEntity.ok(createOrderFromCart(user, customerComment, contactInfo));
+    }
+
+    private OrderResponseDTO createOrderFromCart(User user, String customerComment, String contactInfo) {
+        return orderService.toOrderResponseDTO(
+                orderService.createOrderFromCart(user.getId(), customerComment, contactInfo));
     }
 
     @PostMapping("/direct")
-    @Operation(summary = "Оформить заказ сразу", description = "Создает заказ напрямую без добавления в корзину (функция 'Оформить сейчас')")
-    @ApiResponse(responseCode = "200", description = "Заказ успешно создан")
+    @Operation(summary = "Оформить заказ сразу", description = "Создает заказ напрямую без добавления в корзину (функция 'Оформить сейчас'). " +
+            "С заголовком Idempotency-Key повтор запроса возвращает исходный заказ")
+    @ApiResponse(responseCode = "200", description = "Заказ успешно создан, в ответе созданный заказ")
     public ResponseEntity<OrderResponseDTO> createDirectOrder(
             @Parameter(description = "Данные для прямого заказа") @Valid @RequestBody DirectOrderRequestDTO request,
+            @Parameter(description = "Уникальный ключ запроса для безопасного повтора")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
+        if (idempotencyKey != null) {
+            OrderResponseDTO orderDTO = idempotencyService.execute(user.getId(), idempotencyKey, "POST /orders/direct",
+                    request.getProductId() + "\n" + request.getQuantity() + "\n"
+                            + request.getCustomerComment() + "\n" + request.getContactInfo(),
+                    () -> createDirectOrder(user, request));
+            return ResponseEntity.ok(orderDTO);
+        }
+        return ResponseEntity.ok(createDirectOrder(user, request));
+    }
+
+    private OrderResponseDTO createDirectOrder(User user, DirectOrderRequestDTO request) {
         Order order = orderService.createDirectOrder(
                 user.getId(),
                 request.getProductId(),
@@ -62,30 +101,28 @@ public class OrderController {
                 request.getCustomerComment(),
                 request.getContactInfo()
         );
-        OrderResponseDTO orderDTO = orderService.toOrderResponseDTO(order);
-        return ResponseEntity.ok(orderDTO);
+        return orderService.toOrderResponseDTO(order);
     }
 
     @GetMapping("/my")
-    @Operation(summary = "Получить мои заказы", description = "Возвращает заказы текущего пользователя")
+    @Operation(summary = "Получить мои заказы", description = "Возвращает заказы текущего пользователя (новые сначала). " +
+            "Параметр sort допускает только createdAt,desc; другая сортировка отклоняется с ошибкой 400")
     public ResponseEntity<Page<OrderResponseDTO>> getMyOrders(
             @ParameterObject @PageableDefault(size = 10) Pageable pageable,
             Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        Page<Order> orders = orderService.getUserOrders(user.getId(), pageable);
-        Page<OrderResponseDTO> orderDTOs = orders.map(orderService::toOrderResponseDTO);
-        return ResponseEntity.ok(orderDTOs);
+        return ResponseEntity.ok(orderService.getUserOrders(user.getId(), pageable));
     }
 
     @GetMapping("/my/with-items")
-    @Operation(summary = "Получить мои заказы с товарами", description = "Возвращает заказы текущего пользователя с деталями товаров")
-    public ResponseEntity<List<OrderResponseDTO>> getMyOrdersWithItems(Authentication authentication) {
+    @Operation(summary = "Получить мои заказы с товарами", description = "Возвращает страницу заказов текущего пользователя " +
+            "с деталями товаров (новые сначала). Следующая страница запрашивается по nextCursor")
+    public ResponseEntity<KeysetPageDTO<OrderResponseDTO>> getMyOrdersWithItems(
+            @Parameter(description = "Курсор из предыдущей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 50)") @RequestParam(defaultValue = "10") int limit,
+            Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        List<Order> orders = orderService.getUserOrdersWithItems(user.getId());
-        List<OrderResponseDTO> orderDTOs = orders.stream()
-                .map(orderService::toOrderResponseDTO)
-                .toList();
-        return ResponseEntity.ok(orderDTOs);
+        return ResponseEntity.ok(orderService.getUserOrdersWithItems(user.getId(), cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -98,6 +135,14 @@ public class OrderController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/timeline")
+    @Operation(summary = "Хронология заказа", description = "Возвращает журнал заказа: оформление, смены статуса, " +
+            "комментарии менеджеров и причину отмены с указанием исполнителя")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or @orderService.isOrderOwner(#id, authentication.principal.id)")
+    public ResponseEntity<List<OrderEventDTO>> getOrderTimeline(@Parameter(description = "ID заказа") @PathVariable Long id) {
+        return ResponseEntity.ok(orderService.getOrderTimeline(id));
+    }
+
     @GetMapping("/number/{orderNumber}")
     @Operation(summary = "Получить заказ по номеру", description = "Возвращает детали заказа по его номеру")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or @orderService.isOrderOwnerByNumber(#orderNumber, authentication.principal.id)")
@@ -109,25 +154,34 @@ public class OrderController {
     }
 
     @GetMapping("/status/{status}")
-    @Operation(summary = "Получить заказы по статусу", description = "Возвращает заказы с указанным статусом")
+    @Operation(summary = "Получить заказы по статусу", description = "Возвращает заказы с указанным статусом (новые сначала). " +
+            "Параметр sort допускает только createdAt,desc; другая сортировка отклоняется с ошибкой 400")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
     public ResponseEntity<Page<OrderResponseDTO>> getOrdersByStatus(
             @Parameter(description = "Статус заказа") @PathVariable OrderStatus status,
             @ParameterObject @PageableDefault(size = 20) Pageable pageable) {
-        Page<Order> orders = orderService.getOrdersByStatus(status, pageable);
-        Page<OrderResponseDTO> orderDTOs = orders.map(orderService::toOrderResponseDTO);
-        return ResponseEntity.ok(orderDTOs);
+        return ResponseEntity.ok(orderService.getOrdersByStatus(status, pageable));
     }
 
     @GetMapping("/search")
-    @Operation(summary = "Поиск заказов", description = "Поиск заказов по различным критериям")
+    @Operation(summary = "Поиск заказов", description = "Поиск по номеру заказа (полному, префиксу ORD-... или фрагменту), " +
+            "имени или телефону клиента. Новые заказы сначала; следующая страница запрашивается по nextCursor")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
-    public ResponseEntity<Page<OrderResponseDTO>> searchOrders(
-            @Parameter(description = "Поисковый запрос") @RequestParam String query,
-            @ParameterObject @PageableDefault(size = 20) Pageable pageable) {
-        Page<Order> orders = orderService.searchOrders(query, pageable);
-        Page<OrderResponseDTO> orderDTOs = orders.map(orderService::toOrderResponseDTO);
-        return ResponseEntity.ok(orderDTOs);
+    public ResponseEntity<KeysetPageDTO<OrderSummaryDTO>> searchOrders(
+            @Parameter(description = "Поисковый запрос (от 3 символов, кроме префикса ORD)") @RequestParam String query,
+            @Parameter(description = "Курсор следующей страницы") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы (до 100)") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(orderService.searchOrders(query, cursor, limit));
+    }
+
+    @PatchMapping("/status/bulk")
+    @Operation(summary = "Массово обновить статус заказов", description = "Переводит набор заказов в новый статус одной операцией. " +
+            "Заказы с недопустимым переходом пропускаются; результат содержит исход по каждому заказу")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<BulkOrderStatusResultDTO> bulkUpdateStatus(
+            @Parameter(description = "Заказы, новый статус и комментарий") @Valid @RequestBody BulkOrderStatusRequestDTO request) {
+        return ResponseEntity.ok(orderService.bulkUpdateStatus(
+                request.getOrderIds(), request.getStatus(), request.getManagerComment()));
     }
 
     @PatchMapping("/{id}/status")
@@ -197,11 +251,7 @@ public class OrderController {
     public ResponseEntity<List<OrderResponseDTO>> getOrdersByDateRange(
             @Parameter(description = "Начальная дата") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @Parameter(description = "Конечная дата") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<Order> orders = orderService.getOrdersByDateRange(startDate, endDate);
-        List<OrderResponseDTO> orderDTOs = orders.stream()
-                .map(orderService::toOrderResponseDTO)
-                .toList();
-        return ResponseEntity.ok(orderDTOs);
+        return ResponseEntity.ok(orderService.getOrdersByDateRange(startDate, endDate));
     }
 
     @GetMapping("/overdue")
@@ -209,11 +259,7 @@ public class OrderController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
     public ResponseEntity<List<OrderResponseDTO>> getOverdueOrders(
             @Parameter(description = "Пороговое количество часов") @RequestParam(defaultValue = "24") int hoursThreshold) {
-        List<Order> orders = orderService.getOverdueOrders(hoursThreshold);
-        List<OrderResponseDTO> orderDTOs = orders.stream()
-                .map(orderService::toOrderResponseDTO)
-                .toList();
-        return ResponseEntity.ok(orderDTOs);
+        return ResponseEntity.ok(orderService.getOverdueOrders(hoursThreshold));
     }
 
     @GetMapping("/stats")
@@ -224,6 +270,19 @@ public class OrderController {
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/analytics")
+    @Operation(summary = "Аналитика продаж", description = "Выручка, количество заказов и средний чек по часам, дням, " +
+            "неделям или месяцам в разрезе итога, категорий или брендов. Отменённые заказы не учитываются. " +
+            "Часовые данные хранятся ограниченное время (app.analytics.hourly-retention-days)")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<List<SalesAnalyticsPointDTO>> getSalesAnalytics(
+            @Parameter(description = "Начало периода (включительно)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Конец периода (не включительно)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Шаг: HOUR, DAY, WEEK, MONTH") @RequestParam(defaultValue = "DAY") AnalyticsGranularity granularity,
+            @Parameter(description = "Разрез: TOTAL, CATEGORY, BRAND") @RequestParam(defaultValue = "TOTAL") AnalyticsDimension dimension) {
+        return ResponseEntity.ok(salesAnalyticsService.getAnalytics(from, to, granularity, dimension));
+    }
+
     @GetMapping("/my/count")
     @Operation(summary = "Получить количество моих заказов", description = "Возвращает количество заказов текущего пользователя")
     public ResponseEntity<Long> getMyOrderCount(Authentication authentication) {
@@ -6,9 +6,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import kg.santechmarket.dto.FeaturedProductDTO;
 import kg.santechmarket.dto.ProductImageDto;
 import kg.santechmarket.entity.Product;
 import kg.santechmarket.entity.ProductImage;
+import kg.santechmarket.entity.ProductStock;
+import kg.santechmarket.service.InventoryService;
 import kg.santechmarket.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springdoc.core.annotations.ParameterObject;
@@ -31,6 +34,7 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final ProductService productService;
+    private final InventoryService inventoryService;
 
     @GetMapping
     @Operation(
@@ -101,8 +105,8 @@ public class ProductController {
 
     @GetMapping("/featured")
     @Operation(summary = "Получить рекомендуемые товары", description = "Возвращает список рекомендуемых товаров для главной страницы")
-    public ResponseEntity<List<Product>> getFeaturedProducts() {
-        List<Product> products = productService.getFeaturedProducts();
+    public ResponseEntity<List<FeaturedProductDTO>> getFeaturedProducts() {
+        List<FeaturedProductDTO> products = productService.getFeaturedProducts();
         return ResponseEntity.ok(products);
     }
 
@@ -336,6 +340,26 @@ public class ProductController {
         return ResponseEntity.ok().build();
     }
 
+    @GetMapping("/{id}/stock")
+    @Operation(summary = "Получить складской остаток товара", description = "Возвращает остаток, резерв и доступное количество. 404 - учёт остатков по товару не ведётся")
+    @SecurityRequirement(name = "JWT")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<ProductStock> getProductStock(@Parameter(description = "ID товара") @PathVariable Long id) {
+        return inventoryService.getStock(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/stock")
+    @Operation(summary = "Установить складской остаток товара", description = "Устанавливает физический остаток. Остаток не может быть меньше зарезервированного под заказы количества")
+    @SecurityRequirement(name = "JWT")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<ProductStock> setProductStock(
+            @Parameter(description = "ID товара") @PathVariable Long id,
+            @Parameter(description = "Физический остаток на складе", example = "100") @RequestParam Integer onHand) {
+        return ResponseEntity.ok(inventoryService.setOnHand(id, onHand));
+    }
+
     @GetMapping("/stats/total-count")
     @Operation(summary = "Получить общее количество товаров", description = "Возвращает общее количество товаров")
     @SecurityRequirement(name = "JWT")
@@ -0,0 +1,31 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import kg.santechmarket.enums.BroadcastStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO прогресса массовой рассылки
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Прогресс массовой рассылки")
+public class BroadcastProgressDTO {
+
+    @Schema(description = "ID рассылки", example = "1")
+    private Long id;
+
+    @Schema(description = "Статус рассылки", example = "RUNNING")
+    private BroadcastStatus status;
+
+    @Schema(description = "Количество получателей", example = "12000")
+    private Integer totalRecipients;
+
+    @Schema(description = "Количество созданных уведомлений", example = "5000")
+    private Integer deliveredCount;
+}
@@ -0,0 +1,53 @@
+package kg.santechmarket.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import kg.santechmarket.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO создания массовой рассылки
+ * Например: {"type": "PROMOTION", "title": "Распродажа", "content": "Скидки до 30%"}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BroadcastRequestDTO {
+
+    /**
+     * Тип уведомления
+     */
+    @NotNull(message = "Тип уведомления не может быть пустым")
+    private NotificationType type;
+
+    /**
+     * Заголовок уведомления
+     */
+    @NotBlank(message = "Заголовок уведомления не может быть пустым")
+    @Size(max = 200, message = "Заголовок не может превышать 200 символов")
+    private String title;
+
+    /**
+     * Содержимое уведомления
+     */
+    @NotBlank(message = "Содержимое уведомления не может быть пустым")
+    @Size(max = 1000, message = "Содержимое не может превышать 1000 символов")
+    private String content;
+
+    /**
+     * Дополнительные данные уведомления (JSON)
+     */
+    private String metadata;
+
+    /**
+     * ID получателей (если не указаны - все активные одобренные пользователи)
+     */
+    private List<@NotNull Long> userIds;
+}
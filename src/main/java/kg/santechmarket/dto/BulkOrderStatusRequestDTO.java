@@ -0,0 +1,42 @@
+package kg.santechmarket.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import kg.santechmarket.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO массовой смены статуса заказов
+ * Например: {"orderIds": [101, 102, 103], "status": "READY", "managerComment": "Собраны на складе"}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequestDTO {
+
+    /**
+     * ID заказов
+     */
+    @NotEmpty(message = "Список заказов не может быть пустым")
+    @Size(max = 200, message = "За один запрос можно изменить не более 200 заказов")
+    private List<@NotNull Long> orderIds;
+
+    /**
+     * Новый статус
+     */
+    @NotNull(message = "Статус не может быть пустым")
+    private OrderStatus status;
+
+    /**
+     * Комментарий менеджера (записывается в журнал каждого изменённого заказа)
+     */
+    @Size(max = 1000, message = "Комментарий не может превышать 1000 символов")
+    private String managerComment;
+}
@@ -0,0 +1,61 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import kg.santechmarket.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO результата массовой смены статуса заказов
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Результат массовой смены статуса заказов")
+public class BulkOrderStatusResultDTO {
+
+    @Schema(description = "Количество изменённых заказов", example = "18")
+    private int updated;
+
+    @Schema(description = "Количество отклонённых заказов", example = "2")
+    private int rejected;
+
+    @Builder.Default
+    @Schema(description = "Результат по каждому заказу в порядке запроса")
+    private List<Outcome> results = new ArrayList<>();
+
+    /**
+     * Результат по одному заказу
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Результат смены статуса одного заказа")
+    public static class Outcome {
+
+        @Schema(description = "ID заказа", example = "101")
+        private Long orderId;
+
+        @Schema(description = "Номер заказа (null - заказ не найден)", example = "ORD-20251020-00000101")
+        private String orderNumber;
+
+        @Schema(description = "Статус до операции", example = "PROCESSING")
+        private OrderStatus previousStatus;
+
+        @Schema(description = "Статус после операции", example = "READY")
+        private OrderStatus status;
+
+        @Schema(description = "Статус изменён", example = "true")
+        private boolean success;
+
+        @Schema(description = "Причина отказа", example = "Недопустимый переход статуса с PENDING на READY")
+        private String error;
+    }
+}
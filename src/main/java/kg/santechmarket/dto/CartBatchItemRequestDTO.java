@@ -0,0 +1,39 @@
+package kg.santechmarket.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import kg.santechmarket.enums.CartOperationMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO одной операции пакетного изменения корзины
+ * Например: {"productId": 5, "quantity": 10, "mode": "add"}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchItemRequestDTO {
+
+    /**
+     * ID товара
+     */
+    @NotNull(message = "ID товара не может быть пустым")
+    private Long productId;
+
+    /**
+     * Количество (для add - сколько добавить, для set - итоговое количество, для remove не требуется)
+     */
+    @Min(value = 0, message = "Количество не может быть отрицательным")
+    private Integer quantity;
+
+    /**
+     * Режим операции: add, set или remove (по умолчанию add)
+     */
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)
+    private CartOperationMode mode;
+}
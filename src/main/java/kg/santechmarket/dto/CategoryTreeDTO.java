@@ -0,0 +1,73 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import kg.santechmarket.entity.Category;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Узел дерева категорий
+ * <p>
+ * Неизменяемый снимок категории для кэша: повторяет JSON сущности Category,
+ * но не связан с сессией Hibernate и не может быть изменен вызывающим кодом.
+ */
+@Schema(description = "Категория в дереве категорий")
+public record CategoryTreeDTO(
+        @Schema(description = "ID категории", example = "1")
+        Long id,
+
+        @Schema(description = "Дата создания")
+        LocalDateTime createdAt,
+
+        @Schema(description = "Дата последнего обновления")
+        LocalDateTime updatedAt,
+
+        @Schema(description = "Название категории", example = "Трубы")
+        String name,
+
+        @Schema(description = "Описание категории")
+        String description,
+
+        @Schema(description = "URL изображения категории")
+        String imageUrl,
+
+        @Schema(description = "Порядок отображения", example = "1")
+        Integer displayOrder,
+
+        @Schema(description = "Активна ли категория", example = "true")
+        Boolean isActive,
+
+        @Schema(description = "Является ли категория корневой", example = "true")
+        boolean rootCategory,
+
+        @Schema(description = "Уровень вложенности (0 - корневая)", example = "0")
+        int level,
+
+        @Schema(description = "Подкатегории")
+        List<CategoryTreeDTO> subcategories
+) {
+
+    public CategoryTreeDTO {
+        subcategories = List.copyOf(subcategories);
+    }
+
+    /**
+     * Построить узел вместе со всеми подкатегориями (вызывать внутри транзакции)
+     */
+    public static CategoryTreeDTO from(Category category) {
+        return new CategoryTreeDTO(
+                category.getId(),
+                category.getCreatedAt(),
+                category.getUpdatedAt(),
+                category.getName(),
+                category.getDescription(),
+                category.getImageUrl(),
+                category.getDisplayOrder(),
+                category.getIsActive(),
+                category.isRootCategory(),
+                category.getLevel(),
+                category.getSubcategories().stream().map(CategoryTreeDTO::from).toList()
+        );
+    }
+}
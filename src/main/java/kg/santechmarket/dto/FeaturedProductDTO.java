@@ -0,0 +1,123 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.entity.ProductImage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Рекомендуемый товар для главной страницы
+ * <p>
+ * Неизменяемый снимок товара для кэша: повторяет JSON сущности Product,
+ * но не связан с сессией Hibernate и не может быть изменен вызывающим кодом.
+ */
+@Schema(description = "Рекомендуемый товар")
+public record FeaturedProductDTO(
+        @Schema(description = "ID товара", example = "1")
+        Long id,
+
+        @Schema(description = "Дата создания")
+        LocalDateTime createdAt,
+
+        @Schema(description = "Дата последнего обновления")
+        LocalDateTime updatedAt,
+
+        @Schema(description = "Название товара", example = "Труба полипропиленовая 20мм")
+        String name,
+
+        @Schema(description = "Описание товара")
+        String description,
+
+        @Schema(description = "Цена в сомах", example = "150.00")
+        BigDecimal price,
+
+        @Schema(description = "Старая цена в сомах (для отображения скидки)", example = "180.00")
+        BigDecimal oldPrice,
+
+        @Schema(description = "Бренд", example = "Valtec")
+        String brand,
+
+        @Schema(description = "Артикул", example = "VT-PP-20")
+        String sku,
+
+        @Schema(description = "URL основного изображения")
+        String imageUrl,
+
+        @Schema(description = "Дополнительные изображения")
+        List<Image> additionalImages,
+
+        @Schema(description = "Характеристики товара (JSON объект)", example = "{\"diameter\": \"20 мм\"}")
+        String specifications,
+
+        @Schema(description = "Активен ли товар", example = "true")
+        Boolean isActive,
+
+        @Schema(description = "Рекомендуемый ли товар", example = "true")
+        Boolean isFeatured
+) {
+
+    public FeaturedProductDTO {
+        additionalImages = List.copyOf(additionalImages);
+    }
+
+    /**
+     * Построить снимок товара вместе с изображениями (вызывать внутри транзакции)
+     */
+    public static FeaturedProductDTO from(Product product) {
+        return new FeaturedProductDTO(
+                product.getId(),
+                product.getCreatedAt(),
+                product.getUpdatedAt(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getOldPrice(),
+                product.getBrand(),
+                product.getSku(),
+                product.getImageUrl(),
+                product.getAdditionalImages().stream().map(Image::from).toList(),
+                product.getSpecifications(),
+                product.getIsActive(),
+                product.getIsFeatured()
+        );
+    }
+
+    /**
+     * Дополнительное изображение товара
+     */
+    @Schema(description = "Изображение товара")
+    public record Image(
+            @Schema(description = "ID изображения", example = "1")
+            Long id,
+
+            @Schema(description = "Дата создания")
+            LocalDateTime createdAt,
+
+            @Schema(description = "Дата последнего обновления")
+            LocalDateTime updatedAt,
+
+            @Schema(description = "URL изображения", example = "https://example.com/images/product1.jpg")
+            String imageUrl,
+
+            @Schema(description = "Порядок отображения", example = "1")
+            Integer displayOrder,
+
+            @Schema(description = "Альтернативный текст", example = "Труба полипропиленовая диаметр 20мм")
+            String altText
+    ) {
+
+        static Image from(ProductImage image) {
+            return new Image(
+                    image.getId(),
+                    image.getCreatedAt(),
+                    image.getUpdatedAt(),
+                    image.getImageUrl(),
+                    image.getDisplayOrder(),
+                    image.getAltText()
+            );
+        }
+    }
+}
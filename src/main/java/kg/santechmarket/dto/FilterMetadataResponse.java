@@ -1,67 +1,62 @@
 package kg.santechmarket.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * DTO для метаданных фильтров товаров
- * Содержит списки всех доступных значений для фильтрации
+ * Содержит списки всех доступных значений для фильтрации.
+ * Неизменяемый: ответ хранится в кэше и отдается всем вызывающим.
  */
-@Data
 @Builder
-@NoArgsConstructor
-@AllArgsConstructor
 @Schema(description = "Метаданные для фильтров товаров")
-public class FilterMetadataResponse {
+public record FilterMetadataResponse(
+        @Schema(description = "Список всех доступных фильтров")
+        List<FilterItem> filters,
 
-    @Builder.Default
-    @Schema(description = "Список всех доступных фильтров")
-    private List<FilterItem> filters = new ArrayList<>();
+        @Schema(description = "Диапазон цен")
+        PriceRange priceRange
+) {
 
-    @Schema(description = "Диапазон цен")
-    private PriceRange priceRange;
+    public FilterMetadataResponse {
+        filters = filters != null ? List.copyOf(filters) : List.of();
+    }
 
     /**
      * DTO для элемента фильтра
      */
-    @Data
     @Builder
-    @NoArgsConstructor
-    @AllArgsConstructor
     @Schema(description = "Элемент фильтра с ключом, названием и списком значений")
-    public static class FilterItem {
+    public record FilterItem(
+            @Schema(description = "Ключ фильтра (используется в запросах)", example = "brand")
+            String key,
 
-        @Schema(description = "Ключ фильтра (используется в запросах)", example = "brand")
-        private String key;
+            @Schema(description = "Название фильтра (отображается пользователю)", example = "Бренд")
+            String label,
 
-        @Schema(description = "Название фильтра (отображается пользователю)", example = "Бренд")
-        private String label;
+            @Schema(description = "Список доступных значений", example = "[\"Lammin\", \"PRO AQUA\", \"VALTEC\"]")
+            List<String> list
+    ) {
 
-        @Schema(description = "Список доступных значений", example = "[\"Lammin\", \"PRO AQUA\", \"VALTEC\"]")
-        private List<String> list;
+        public FilterItem {
+            list = list != null ? List.copyOf(list) : List.of();
+        }
     }
 
     /**
      * DTO для диапазона цен
      */
-    @Data
     @Builder
-    @NoArgsConstructor
-    @AllArgsConstructor
     @Schema(description = "Диапазон цен в каталоге")
-    public static class PriceRange {
-
-        @Schema(description = "Минимальная цена в сомах", example = "40.00")
-        private BigDecimal min;
+    public record PriceRange(
+            @Schema(description = "Минимальная цена в сомах", example = "40.00")
+            BigDecimal min,
 
-        @Schema(description = "Максимальная цена в сомах", example = "50000.00")
-        private BigDecimal max;
+            @Schema(description = "Максимальная цена в сомах", example = "50000.00")
+            BigDecimal max
+    ) {
     }
 }
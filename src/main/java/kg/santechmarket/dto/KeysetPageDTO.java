@@ -0,0 +1,26 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница keyset-пагинации
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Страница результатов с курсором следующей страницы")
+public class KeysetPageDTO<T> {
+
+    @Schema(description = "Элементы страницы")
+    private List<T> items;
+
+    @Schema(description = "Курсор следующей страницы (null - страниц больше нет)", example = "MjAyNS0xMC0yMFQxMjowMDo1NXwxMjM")
+    private String nextCursor;
+}
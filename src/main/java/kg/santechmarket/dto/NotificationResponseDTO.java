@@ -22,6 +22,9 @@ public class NotificationResponseDTO {
     @Schema(description = "ID уведомления", example = "1")
     private Long id;
 
+    @Schema(description = "Рассылка всем пользователям (отмечается через /notifications/broadcasts/{id})", example = "false")
+    private Boolean broadcast;
+
     @Schema(description = "Тип уведомления", example = "ORDER_UPDATE")
     private NotificationType type;
 
@@ -0,0 +1,46 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import kg.santechmarket.enums.OrderEventType;
+import kg.santechmarket.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO события в хронологии заказа
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Событие в хронологии заказа")
+public class OrderEventDTO {
+
+    @Schema(description = "ID события", example = "101")
+    private Long id;
+
+    @Schema(description = "Тип события", example = "STATUS_CHANGED")
+    private OrderEventType type;
+
+    @Schema(description = "Статус до события", example = "PENDING")
+    private OrderStatus fromStatus;
+
+    @Schema(description = "Статус после события", example = "CONFIRMED")
+    private OrderStatus toStatus;
+
+    @Schema(description = "Комментарий менеджера или причина отмены", example = "Заказ подтвержден, готовится к отправке")
+    private String comment;
+
+    @Schema(description = "ID пользователя, выполнившего действие (null - система)", example = "2")
+    private Long actorId;
+
+    @Schema(description = "Имя пользователя, выполнившего действие", example = "Менеджер Петров")
+    private String actorName;
+
+    @Schema(description = "Время события", example = "2025-10-20T13:00:00")
+    private LocalDateTime createdAt;
+}
@@ -35,4 +35,7 @@ public class OrderItemDTO {
 
     @Schema(description = "Общая стоимость (цена × количество)", example = "90000.00")
     private BigDecimal totalPrice;
+
+    @Schema(description = "URL главного изображения товара", example = "https://example.com/images/product1.jpg")
+    private String productImageUrl;
 }
@@ -46,7 +46,8 @@ public class OrderResponseDTO {
     @Schema(description = "Комментарий клиента", example = "Доставка до 18:00")
     private String customerComment;
 
-    @Schema(description = "Комментарий менеджера", example = "Заказ подтвержден, готовится к отправке")
+    @Schema(description = "Комментарии менеджера (через перевод строки, в порядке добавления); " +
+            "подробная история - в GET /orders/{id}/timeline", example = "Заказ подтвержден, готовится к отправке")
     private String managerComment;
 
     @Schema(description = "Контактная информация", example = "{\"phone\":\"+996555123456\",\"address\":\"г. Бишкек, ул. Манаса 123\"}")
@@ -0,0 +1,49 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import kg.santechmarket.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO краткой информации о заказе (без позиций) для списков и поиска
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Краткая информация о заказе")
+public class OrderSummaryDTO {
+
+    @Schema(description = "ID заказа", example = "1")
+    private Long id;
+
+    @Schema(description = "Номер заказа", example = "ORD-20251020-00000101")
+    private String orderNumber;
+
+    @Schema(description = "Статус заказа", example = "PENDING")
+    private OrderStatus status;
+
+    @Schema(description = "Общая сумма заказа в сомах", example = "135000.00")
+    private BigDecimal totalAmount;
+
+    @Schema(description = "Общее количество товаров", example = "3")
+    private Integer totalItems;
+
+    @Schema(description = "Дата создания заказа")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "ID клиента", example = "1")
+    private Long userId;
+
+    @Schema(description = "Имя клиента", example = "Иван Иванов")
+    private String customerName;
+
+    @Schema(description = "Телефон клиента", example = "+996555123456")
+    private String customerPhone;
+}
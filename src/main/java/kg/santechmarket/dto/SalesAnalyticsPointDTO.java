@@ -0,0 +1,42 @@
+package kg.santechmarket.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO точки аналитики продаж
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Продажи за интервал в разрезе итога, категории или бренда")
+public class SalesAnalyticsPointDTO {
+
+    @Schema(description = "Начало интервала", example = "2025-10-20T00:00:00")
+    private LocalDateTime bucketStart;
+
+    @Schema(description = "Ключ разреза: пусто для TOTAL, ID категории, название бренда", example = "3")
+    private String dimensionKey;
+
+    @Schema(description = "Название разреза (категория или бренд)", example = "Смесители")
+    private String dimensionName;
+
+    @Schema(description = "Количество заказов", example = "42")
+    private Long orderCount;
+
+    @Schema(description = "Выручка в сомах", example = "1250000.00")
+    private BigDecimal revenue;
+
+    @Schema(description = "Количество проданных единиц товара", example = "310")
+    private Long quantity;
+
+    @Schema(description = "Средний чек (выручка / заказы) в сомах", example = "29761.90")
+    private BigDecimal averageBasket;
+}
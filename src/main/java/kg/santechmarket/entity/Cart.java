@@ -45,6 +45,13 @@ public class Cart extends BaseEntity {
     @Column(name = "total_items")
     private Integer totalItems = 0;
 
+    /**
+     * Версия для оптимистичной блокировки (параллельные изменения корзины)
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Добавить товар в корзину
      *
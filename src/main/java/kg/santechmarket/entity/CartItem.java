@@ -54,6 +54,13 @@ public class CartItem extends BaseEntity {
     @Column(name = "price", nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
 
+    /**
+     * Версия для оптимистичной блокировки
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Получить общую стоимость этого элемента (цена * количество)
      */
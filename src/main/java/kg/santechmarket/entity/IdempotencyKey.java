@@ -0,0 +1,67 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ключ идемпотентности запроса создания заказа
+ * <p>
+ * Хранит результат первого выполнения, чтобы повтор запроса с тем же заголовком
+ * Idempotency-Key вернул исходный заказ без повторного оформления.
+ */
+@Entity
+@Table(name = "idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "idempotency_key"})
+})
+@Getter
+@Setter
+public class IdempotencyKey extends BaseEntity {
+
+    /**
+     * Пользователь, отправивший запрос
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Значение заголовка Idempotency-Key
+     */
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    /**
+     * Эндпоинт, для которого использован ключ
+     */
+    @Column(name = "endpoint", nullable = false, length = 50)
+    private String endpoint;
+
+    /**
+     * SHA-256 параметров запроса
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    /**
+     * Созданный заказ
+     */
+    @Column(name = "order_id")
+    private Long orderId;
+
+    /**
+     * Сохранённый ответ (JSON)
+     */
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    /**
+     * Время истечения ключа
+     */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
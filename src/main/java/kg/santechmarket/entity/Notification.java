@@ -15,9 +15,8 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "notifications", indexes = {
-        @Index(name = "idx_notification_user", columnList = "user_id"),
-        @Index(name = "idx_notification_read", columnList = "is_read"),
-        @Index(name = "idx_notification_type", columnList = "type")
+        @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at DESC, id DESC"),
+        @Index(name = "idx_notifications_type", columnList = "type")
 })
 @Getter
 @Setter
@@ -0,0 +1,99 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import kg.santechmarket.enums.BroadcastStatus;
+import kg.santechmarket.enums.NotificationType;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Массовая рассылка уведомлений
+ * <p>
+ * Рассылка всем пользователям (fanOutOnRead) хранится одной строкой и подмешивается
+ * в ленту каждого пользователя при чтении. Рассылка по списку получателей доставляется
+ * воркером порциями по возрастанию ID получателя; каждая порция коммитится вместе с last_user_id,
+ * поэтому после падения ноды доставка продолжается с места остановки без дублей.
+ */
+@Entity
+@Table(name = "notification_broadcasts")
+@Getter
+@Setter
+public class NotificationBroadcast extends BaseEntity {
+
+    /**
+     * Тип уведомления
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20)
+    private NotificationType type;
+
+    /**
+     * Заголовок уведомления
+     */
+    @Column(name = "title", nullable = false, length = 200)
+    private String title;
+
+    /**
+     * Содержимое уведомления
+     */
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    /**
+     * Дополнительные данные уведомления (JSON)
+     */
+    @Column(name = "metadata", columnDefinition = "TEXT")
+    private String metadata;
+
+    /**
+     * Явный список получателей (null - все активные одобренные пользователи)
+     */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "recipient_ids", columnDefinition = "BIGINT[]")
+    private Long[] recipientIds;
+
+    /**
+     * Рассылка всем: уведомления не копируются получателям, а читаются из этой строки
+     */
+    @Column(name = "fan_out_on_read", nullable = false)
+    private Boolean fanOutOnRead = false;
+
+    /**
+     * Статус доставки
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BroadcastStatus status = BroadcastStatus.PENDING;
+
+    /**
+     * Количество получателей на момент создания рассылки
+     */
+    @Column(name = "total_recipients", nullable = false)
+    private Integer totalRecipients = 0;
+
+    /**
+     * Количество созданных уведомлений
+     */
+    @Column(name = "delivered_count", nullable = false)
+    private Integer deliveredCount = 0;
+
+    /**
+     * ID последнего получателя доставленной порции
+     */
+    @Column(name = "last_user_id", nullable = false)
+    private Long lastUserId = 0L;
+
+    /**
+     * Время завершения доставки
+     */
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,29 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Счётчик непрочитанных личных уведомлений пользователя
+ * <p>
+ * Изменяется только дельтами в той же транзакции, что и создание, прочтение
+ * или удаление уведомления (см. NotificationUnreadCounterRepository),
+ * поэтому бейдж непрочитанных читается по первичному ключу без COUNT.
+ */
+@Entity
+@Table(name = "notification_unread_counters")
+@Getter
+@Setter
+public class NotificationUnreadCounter {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount = 0;
+}
@@ -14,7 +14,6 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Сущность заказа
@@ -31,7 +30,7 @@ import java.util.UUID;
 public class Order extends BaseEntity {
 
     /**
-     * Уникальный номер заказа (генерируется автоматически)
+     * Уникальный номер заказа (выдаётся OrderNumberGenerator)
      */
     @NotBlank(message = "Номер заказа не может быть пустым")
     @Column(name = "order_number", nullable = false, unique = true)
@@ -73,13 +72,6 @@ public class Order extends BaseEntity {
     @Column(name = "customer_comment", columnDefinition = "TEXT")
     private String customerComment;
 
-    /**
-     * Комментарий менеджера (внутренний)
-     */
-    @Size(max = 1000, message = "Комментарий не может превышать 1000 символов")
-    @Column(name = "manager_comment", columnDefinition = "TEXT")
-    private String managerComment;
-
     /**
      * Контактная информация для заказа (JSON)
      * Например: {"phone": "+996555123456", "address": "г. Бишкек, ул. Манаса 123"}
@@ -106,19 +98,6 @@ public class Order extends BaseEntity {
     @JsonIgnoreProperties({"order"})
     private List<OrderItem> items = new ArrayList<>();
 
-    /**
-     * Генерация уникального номера заказа
-     */
-    @PrePersist
-    private void generateOrderNumber() {
-        if (orderNumber == null) {
-            // Формат: ORD-YYYYMMDD-XXXX (где XXXX - случайные символы)
-            String datePart = java.time.LocalDate.now().toString().replace("-", "");
-            String randomPart = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            orderNumber = "ORD-" + datePart + "-" + randomPart;
-        }
-    }
-
     /**
      * Создать заказ из корзины
      *
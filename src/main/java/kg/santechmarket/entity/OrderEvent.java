@@ -0,0 +1,81 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.*;
+import kg.santechmarket.enums.OrderEventType;
+import kg.santechmarket.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие в журнале заказа
+ * <p>
+ * Журнал только дополняется: история статусов и комментариев хранится отдельными строками,
+ * а строка orders остаётся узкой и не переписывается при добавлении комментария.
+ */
+@Entity
+@Table(name = "order_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    /**
+     * ID заказа
+     */
+    @Column(name = "order_id", nullable = false, updatable = false)
+    private Long orderId;
+
+    /**
+     * Тип события
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, updatable = false, length = 30)
+    private OrderEventType eventType;
+
+    /**
+     * Статус до события
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", updatable = false, length = 20)
+    private OrderStatus fromStatus;
+
+    /**
+     * Статус после события
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", updatable = false, length = 20)
+    private OrderStatus toStatus;
+
+    /**
+     * Комментарий менеджера или причина отмены
+     */
+    @Column(name = "comment", updatable = false, columnDefinition = "TEXT")
+    private String comment;
+
+    /**
+     * Пользователь, выполнивший действие (null - система)
+     */
+    @Column(name = "actor_id", updatable = false)
+    private Long actorId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
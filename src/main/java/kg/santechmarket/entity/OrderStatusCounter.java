@@ -0,0 +1,54 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import kg.santechmarket.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Полоса счётчика заказов по статусу
+ * <p>
+ * Количество заказов в статусе равно сумме order_count по всем полосам.
+ * Изменяется только дельтами (см. OrderStatusCounterRepository).
+ */
+@Entity
+@Table(name = "order_status_counters")
+@IdClass(OrderStatusCounter.Key.class)
+@Getter
+@Setter
+public class OrderStatusCounter {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OrderStatus status;
+
+    @Id
+    @Column(name = "stripe", nullable = false)
+    private Short stripe;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    /**
+     * Составной ключ: статус и номер полосы
+     */
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private OrderStatus status;
+        private Short stripe;
+    }
+}
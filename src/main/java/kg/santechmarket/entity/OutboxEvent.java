@@ -0,0 +1,70 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import kg.santechmarket.enums.OutboxEventType;
+import kg.santechmarket.enums.OutboxStatus;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие transactional outbox
+ * <p>
+ * Записывается в той же транзакции, что и бизнес-изменение, и доставляется
+ * диспетчером уже после коммита, поэтому запрос не ждёт SMTP/SMS-провайдера.
+ */
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+public class OutboxEvent extends BaseEntity {
+
+    /**
+     * Тип события
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 50)
+    private OutboxEventType eventType;
+
+    /**
+     * Параметры события (JSON)
+     */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /**
+     * Статус доставки
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    /**
+     * Количество выполненных попыток
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    /**
+     * Время следующей попытки
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Ошибка последней попытки
+     */
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    /**
+     * Время успешной доставки
+     */
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
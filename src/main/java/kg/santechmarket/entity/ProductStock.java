@@ -0,0 +1,54 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Складской остаток товара
+ * <p>
+ * Хранится отдельно от Product: резервирование под заказы часто обновляет строку остатка
+ * и не должно затрагивать строки каталога. Для товара без записи учёт остатков не ведётся.
+ */
+@Entity
+@Table(name = "product_stocks")
+@Getter
+@Setter
+public class ProductStock {
+
+    /**
+     * ID товара (первичный ключ)
+     */
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    /**
+     * Физический остаток на складе
+     */
+    @Column(name = "on_hand", nullable = false)
+    private Integer onHand = 0;
+
+    /**
+     * Зарезервировано под незавершённые заказы
+     */
+    @Column(name = "reserved", nullable = false)
+    private Integer reserved = 0;
+
+    /**
+     * Дата последнего обновления
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Доступно для заказа
+     */
+    public int getAvailable() {
+        return onHand - reserved;
+    }
+}
@@ -0,0 +1,67 @@
+package kg.santechmarket.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Агрегат продаж за час или день в разрезе итога, категории или бренда
+ * <p>
+ * Изменяется только дельтами и пересчётом (см. SalesRollupRepository).
+ */
+@Entity
+@Table(name = "sales_rollups")
+@IdClass(SalesRollup.Key.class)
+@Getter
+@Setter
+public class SalesRollup {
+
+    @Id
+    @Column(name = "granularity", nullable = false, length = 10)
+    private String granularity;
+
+    @Id
+    @Column(name = "dimension", nullable = false, length = 20)
+    private String dimension;
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    /**
+     * Составной ключ агрегата
+     */
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String granularity;
+        private String dimension;
+        private LocalDateTime bucketStart;
+        private String dimensionKey;
+    }
+}
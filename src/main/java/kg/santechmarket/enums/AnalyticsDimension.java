@@ -0,0 +1,21 @@
+package kg.santechmarket.enums;
+
+/**
+ * Разрез аналитики продаж
+ */
+public enum AnalyticsDimension {
+    /**
+     * Итог по всем заказам
+     */
+    TOTAL,
+
+    /**
+     * По категориям товаров
+     */
+    CATEGORY,
+
+    /**
+     * По брендам
+     */
+    BRAND
+}
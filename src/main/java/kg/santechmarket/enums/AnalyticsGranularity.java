@@ -0,0 +1,39 @@
+package kg.santechmarket.enums;
+
+/**
+ * Шаг временных интервалов аналитики продаж
+ */
+public enum AnalyticsGranularity {
+    /**
+     * По часам (из часовых агрегатов, доступны за ограниченный период)
+     */
+    HOUR("hour"),
+
+    /**
+     * По дням
+     */
+    DAY("day"),
+
+    /**
+     * По неделям (начало недели - понедельник)
+     */
+    WEEK("week"),
+
+    /**
+     * По месяцам
+     */
+    MONTH("month");
+
+    private final String truncUnit;
+
+    AnalyticsGranularity(String truncUnit) {
+        this.truncUnit = truncUnit;
+    }
+
+    /**
+     * Единица для date_trunc в PostgreSQL
+     */
+    public String getTruncUnit() {
+        return truncUnit;
+    }
+}
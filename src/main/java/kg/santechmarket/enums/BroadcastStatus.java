@@ -0,0 +1,21 @@
+package kg.santechmarket.enums;
+
+/**
+ * Статус массовой рассылки уведомлений
+ */
+public enum BroadcastStatus {
+    /**
+     * Создана, доставка ещё не начиналась
+     */
+    PENDING,
+
+    /**
+     * Доставлена часть порций
+     */
+    RUNNING,
+
+    /**
+     * Уведомления созданы для всех получателей
+     */
+    COMPLETED
+}
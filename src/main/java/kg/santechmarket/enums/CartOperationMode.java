@@ -0,0 +1,21 @@
+package kg.santechmarket.enums;
+
+/**
+ * Режимы операции над позицией корзины в пакетном запросе
+ */
+public enum CartOperationMode {
+    /**
+     * Добавить количество к текущему (или создать позицию)
+     */
+    ADD,
+
+    /**
+     * Установить точное количество (0 - удалить позицию)
+     */
+    SET,
+
+    /**
+     * Удалить позицию из корзины
+     */
+    REMOVE
+}
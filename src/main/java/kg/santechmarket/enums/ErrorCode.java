@@ -47,6 +47,7 @@ public enum ErrorCode {
     // Validation
     VALIDATION_ERROR("VALIDATION_ERROR"),
     INVALID_REQUEST("INVALID_REQUEST"),
+    CONCURRENT_MODIFICATION("CONCURRENT_MODIFICATION"),
 
     // Server
     INTERNAL_SERVER_ERROR("INTERNAL_SERVER_ERROR");
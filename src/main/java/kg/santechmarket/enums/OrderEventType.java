@@ -0,0 +1,21 @@
+package kg.santechmarket.enums;
+
+/**
+ * Типы событий в журнале заказа
+ */
+public enum OrderEventType {
+    /**
+     * Заказ оформлен
+     */
+    CREATED,
+
+    /**
+     * Изменён статус заказа (с необязательным комментарием)
+     */
+    STATUS_CHANGED,
+
+    /**
+     * Комментарий менеджера без смены статуса
+     */
+    COMMENT
+}
@@ -0,0 +1,31 @@
+package kg.santechmarket.enums;
+
+/**
+ * Типы событий transactional outbox
+ */
+public enum OutboxEventType {
+    /**
+     * Внутреннее уведомление пользователю
+     */
+    NOTIFICATION,
+
+    /**
+     * Письмо с кодом подтверждения смены email
+     */
+    EMAIL_CHANGE_CODE,
+
+    /**
+     * Письмо с кодом подтверждения смены телефона
+     */
+    PHONE_CHANGE_CODE,
+
+    /**
+     * Письмо с кодом сброса пароля
+     */
+    PASSWORD_RESET_CODE,
+
+    /**
+     * SMS с кодом сброса пароля (при недоступности SMS - внутреннее уведомление)
+     */
+    PASSWORD_RESET_SMS
+}
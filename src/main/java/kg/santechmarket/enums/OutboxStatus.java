@@ -0,0 +1,21 @@
+package kg.santechmarket.enums;
+
+/**
+ * Статус события transactional outbox
+ */
+public enum OutboxStatus {
+    /**
+     * Ожидает доставки (или захвачено диспетчером до next_attempt_at)
+     */
+    PENDING,
+
+    /**
+     * Доставлено
+     */
+    SENT,
+
+    /**
+     * Исчерпаны попытки доставки
+     */
+    FAILED
+}
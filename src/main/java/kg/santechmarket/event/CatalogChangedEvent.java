@@ -0,0 +1,28 @@
+package kg.santechmarket.event;
+
+import kg.santechmarket.config.CacheConfig;
+
+import java.util.Set;
+
+/**
+ * Изменился каталог: данные в перечисленных кэшах устарели
+ * <p>
+ * Публикуется внутри транзакции изменения, кэши очищаются после её коммита,
+ * чтобы параллельное чтение не вернуло в кэш ещё не зафиксированные старые данные.
+ *
+ * @param cacheNames имена кэшей из CacheConfig
+ */
+public record CatalogChangedEvent(Set<String> cacheNames) {
+
+    public static CatalogChangedEvent categories() {
+        return new CatalogChangedEvent(Set.of(CacheConfig.CATEGORY_TREE));
+    }
+
+    public static CatalogChangedEvent products() {
+        return new CatalogChangedEvent(Set.of(CacheConfig.FEATURED_PRODUCTS, CacheConfig.BRANDS, CacheConfig.FILTER_METADATA));
+    }
+
+    public static CatalogChangedEvent featuredProducts() {
+        return new CatalogChangedEvent(Set.of(CacheConfig.FEATURED_PRODUCTS));
+    }
+}
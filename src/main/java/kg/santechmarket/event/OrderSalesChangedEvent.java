@@ -0,0 +1,22 @@
+package kg.santechmarket.event;
+
+import java.util.Collection;
+
+/**
+ * Заказы добавлены в продажи (создание) или исключены из них (отмена)
+ * <p>
+ * Публикуется внутри транзакции заказа, обрабатывается после её коммита.
+ *
+ * @param orderIds ID заказов
+ * @param sign     1 - добавить в агрегаты продаж, -1 - вычесть
+ */
+public record OrderSalesChangedEvent(Collection<Long> orderIds, int sign) {
+
+    public static OrderSalesChangedEvent created(Collection<Long> orderIds) {
+        return new OrderSalesChangedEvent(orderIds, 1);
+    }
+
+    public static OrderSalesChangedEvent cancelled(Collection<Long> orderIds) {
+        return new OrderSalesChangedEvent(orderIds, -1);
+    }
+}
@@ -0,0 +1,41 @@
+package kg.santechmarket.event;
+
+import kg.santechmarket.dto.NotificationResponseDTO;
+import kg.santechmarket.service.NotificationService.OrderStatusChange;
+
+import java.util.Map;
+
+/**
+ * Событие для SSE-потока пользователя (/notifications/stream)
+ * <p>
+ * Публикуется внутри транзакции, после её коммита рассылается всем нодам через
+ * Postgres NOTIFY и отправляется открытым потокам пользователя.
+ *
+ * @param userId  получатель (null - все открытые потоки)
+ * @param type    имя SSE-события
+ * @param payload данные события (сериализуются в JSON)
+ */
+public record UserStreamEvent(Long userId, String type, Object payload) {
+
+    public static final String NOTIFICATION = "notification";
+    public static final String ORDER_STATUS = "order-status";
+    public static final String BROADCAST = "broadcast";
+
+    public static UserStreamEvent notification(Long userId, NotificationResponseDTO notification) {
+        return new UserStreamEvent(userId, NOTIFICATION, notification);
+    }
+
+    public static UserStreamEvent orderStatus(OrderStatusChange change) {
+        return new UserStreamEvent(change.userId(), ORDER_STATUS, change);
+    }
+
+    /**
+     * Появились уведомления рассылки: клиент перечитывает счетчик и ленту
+     * <p>
+     * Событие общее для всех потоков: рассылка всем не копируется по пользователям,
+     * а порция рассылки по списку может содержать тысячи получателей.
+     */
+    public static UserStreamEvent broadcast(Long broadcastId) {
+        return new UserStreamEvent(null, BROADCAST, Map.of("broadcastId", broadcastId));
+    }
+}
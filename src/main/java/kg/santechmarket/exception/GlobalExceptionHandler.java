@@ -3,6 +3,7 @@ package kg.santechmarket.exception;
 import kg.santechmarket.dto.ErrorResponse;
 import kg.santechmarket.enums.ErrorCode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -12,6 +13,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.HashMap;
@@ -82,6 +84,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * Обработка ошибок валидации параметров метода (ограничения на списки в теле запроса)
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleMethodValidationErrors(HandlerMethodValidationException ex) {
+        String errorMessage = ex.getParameterValidationResults().stream()
+                .flatMap(result -> result.getResolvableErrors().stream()
+                        .map(error -> (result.getContainerIndex() != null ? "[" + result.getContainerIndex() + "] " : "")
+                                + (error instanceof FieldError fieldError ? fieldError.getField() + ": " : "")
+                                + error.getDefaultMessage()))
+                .collect(Collectors.joining(", "));
+
+        log.warn("Ошибка валидации: {}", errorMessage);
+
+        ErrorResponse error = new ErrorResponse(
+                "Ошибка валидации: " + errorMessage,
+                ErrorCode.VALIDATION_ERROR.getCode()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     /**
      * Обработка ошибки превышения размера файла
      */
@@ -121,6 +144,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    /**
+     * Обработка нехватки товара на складе
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStock(InsufficientStockException ex) {
+        log.warn("Недостаточно товара {}: {}", ex.getProductId(), ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                ex.getMessage(),
+                ErrorCode.PRODUCT_OUT_OF_STOCK.getCode()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Обработка конфликтов оптимистичной блокировки (данные изменены параллельным запросом)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLocking(OptimisticLockingFailureException ex) {
+        log.warn("Конфликт параллельного изменения: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                "Данные были изменены параллельным запросом, повторите попытку",
+                ErrorCode.CONCURRENT_MODIFICATION.getCode()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     /**
      * Обработка всех остальных исключений
      */
@@ -0,0 +1,17 @@
+package kg.santechmarket.exception;
+
+import lombok.Getter;
+
+/**
+ * Недостаточно товара на складе для резервирования под заказ
+ */
+@Getter
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+
+    public InsufficientStockException(Long productId, String message) {
+        super(message);
+        this.productId = productId;
+    }
+}
@@ -2,11 +2,132 @@ package kg.santechmarket.repository;
 
 import kg.santechmarket.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Optional;
 
 /**
  * Репозиторий для работы с элементами корзины
+ * <p>
+ * Методы изменения количества выполняются одним SQL-оператором: строка cart_items
+ * меняется в CTE, а итоги корзины корректируются на дельту в том же запросе.
+ * Корзина целиком при этом не загружается. Каждый оператор увеличивает версии строк,
+ * чтобы параллельные изменения через сущности получили конфликт оптимистичной блокировки.
  */
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    /**
+     * Итоги корзины после изменения
+     */
+    interface CartTotalsView {
+        Integer getTotalItems();
+
+        BigDecimal getTotalAmount();
+    }
+
+    /**
+     * Добавить товар в корзину пользователя или увеличить его количество
+     * (INSERT ... ON CONFLICT DO UPDATE: параллельные добавления не теряются и не нарушают уникальность)
+     */
+    @Transactional
+    @Query(value = "WITH item AS (" +
+            "    INSERT INTO cart_items (cart_id, product_id, quantity, price, version, created_at, updated_at) " +
+            "    SELECT c.id, :productId, :quantity, :price, 0, NOW(), NOW() FROM carts c WHERE c.user_id = :userId " +
+            "    ON CONFLICT (cart_id, product_id) DO UPDATE " +
+            "    SET quantity = cart_items.quantity + EXCLUDED.quantity, " +
+            "        version = cart_items.version + 1, updated_at = NOW() " +
+            "    RETURNING cart_id, price" +
+            ") " +
+            "UPDATE carts c SET total_items = COALESCE(c.total_items, 0) + :quantity, " +
+            "    total_amount = COALESCE(c.total_amount, 0) + item.price * :quantity, " +
+            "    version = c.version + 1, updated_at = NOW() " +
+            "FROM item WHERE c.id = item.cart_id " +
+            "RETURNING c.total_items AS \"totalItems\", c.total_amount AS \"totalAmount\"",
+            nativeQuery = true)
+    Optional<CartTotalsView> upsertItem(@Param("userId") Long userId,
+                                        @Param("productId") Long productId,
+                                        @Param("quantity") int quantity,
+                                        @Param("price") BigDecimal price);
+
+    /**
+     * Увеличить количество товара в корзине пользователя на 1
+     */
+    @Transactional
+    @Query(value = "WITH item AS (" +
+            "    UPDATE cart_items ci SET quantity = ci.quantity + 1, version = ci.version + 1, updated_at = NOW() " +
+            "    FROM carts c " +
+            "    WHERE ci.cart_id = c.id AND c.user_id = :userId AND ci.product_id = :productId " +
+            "    RETURNING ci.cart_id, ci.price" +
+            ") " +
+            "UPDATE carts c SET total_items = COALESCE(c.total_items, 0) + 1, " +
+            "    total_amount = COALESCE(c.total_amount, 0) + item.price, version = c.version + 1, updated_at = NOW() " +
+            "FROM item WHERE c.id = item.cart_id " +
+            "RETURNING c.total_items AS \"totalItems\", c.total_amount AS \"totalAmount\"",
+            nativeQuery = true)
+    Optional<CartTotalsView> incrementQuantity(@Param("userId") Long userId,
+                                               @Param("productId") Long productId);
+
+    /**
+     * Уменьшить количество товара на 1, если после этого останется хотя бы одна единица
+     */
+    @Transactional
+    @Query(value = "WITH item AS (" +
+            "    UPDATE cart_items ci SET quantity = ci.quantity - 1, version = ci.version + 1, updated_at = NOW() " +
+            "    FROM carts c " +
+            "    WHERE ci.cart_id = c.id AND c.user_id = :userId AND ci.product_id = :productId " +
+            "      AND ci.quantity > 1 " +
+            "    RETURNING ci.cart_id, ci.price" +
+            ") " +
+            "UPDATE carts c SET total_items = COALESCE(c.total_items, 0) - 1, " +
+            "    total_amount = COALESCE(c.total_amount, 0) - item.price, version = c.version + 1, updated_at = NOW() " +
+            "FROM item WHERE c.id = item.cart_id " +
+            "RETURNING c.total_items AS \"totalItems\", c.total_amount AS \"totalAmount\"",
+            nativeQuery = true)
+    Optional<CartTotalsView> decrementQuantity(@Param("userId") Long userId,
+                                               @Param("productId") Long productId);
+
+    /**
+     * Установить количество товара (строка блокируется, чтобы дельта считалась от актуального значения)
+     */
+    @Transactional
+    @Query(value = "WITH old AS (" +
+            "    SELECT ci.id, ci.quantity FROM cart_items ci " +
+            "    JOIN carts c ON c.id = ci.cart_id " +
+            "    WHERE c.user_id = :userId AND ci.product_id = :productId " +
+            "    FOR UPDATE OF ci" +
+            "), item AS (" +
+            "    UPDATE cart_items ci SET quantity = :quantity, version = ci.version + 1, updated_at = NOW() " +
+            "    FROM old WHERE ci.id = old.id " +
+            "    RETURNING ci.cart_id, ci.price, :quantity - old.quantity AS delta" +
+            ") " +
+            "UPDATE carts c SET total_items = COALESCE(c.total_items, 0) + item.delta, " +
+            "    total_amount = COALESCE(c.total_amount, 0) + item.price * item.delta, version = c.version + 1, updated_at = NOW() " +
+            "FROM item WHERE c.id = item.cart_id " +
+            "RETURNING c.total_items AS \"totalItems\", c.total_amount AS \"totalAmount\"",
+            nativeQuery = true)
+    Optional<CartTotalsView> setQuantity(@Param("userId") Long userId,
+                                         @Param("productId") Long productId,
+                                         @Param("quantity") int quantity);
+
+    /**
+     * Удалить товар из корзины пользователя
+     */
+    @Transactional
+    @Query(value = "WITH item AS (" +
+            "    DELETE FROM cart_items ci USING carts c " +
+            "    WHERE ci.cart_id = c.id AND c.user_id = :userId AND ci.product_id = :productId " +
+            "    RETURNING ci.cart_id, ci.price, ci.quantity" +
+            ") " +
+            "UPDATE carts c SET total_items = COALESCE(c.total_items, 0) - item.quantity, " +
+            "    total_amount = COALESCE(c.total_amount, 0) - item.price * item.quantity, version = c.version + 1, updated_at = NOW() " +
+            "FROM item WHERE c.id = item.cart_id " +
+            "RETURNING c.total_items AS \"totalItems\", c.total_amount AS \"totalAmount\"",
+            nativeQuery = true)
+    Optional<CartTotalsView> deleteItem(@Param("userId") Long userId,
+                                        @Param("productId") Long productId);
 }
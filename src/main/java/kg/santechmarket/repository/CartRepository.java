@@ -3,10 +3,15 @@ package kg.santechmarket.repository;
 import kg.santechmarket.entity.Cart;
 import kg.santechmarket.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,6 +20,56 @@ import java.util.Optional;
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
+    /**
+     * Строка корзины для экрана корзины: поля корзины + одна позиция
+     * (для пустой корзины - одна строка с пустыми полями позиции)
+     */
+    interface CartLineView {
+        Long getCartId();
+
+        BigDecimal getCartTotalAmount();
+
+        Integer getCartTotalItems();
+
+        LocalDateTime getCartCreatedAt();
+
+        LocalDateTime getCartUpdatedAt();
+
+        Long getProductId();
+
+        String getName();
+
+        String getBrand();
+
+        String getSku();
+
+        String getImageUrl();
+
+        BigDecimal getOldPrice();
+
+        Boolean getIsActive();
+
+        Integer getQuantity();
+
+        BigDecimal getPrice();
+
+        // Поля ниже заполняются только при details = true
+        String getDescription();
+
+        String getSpecifications();
+
+        Boolean getIsFeatured();
+
+        LocalDateTime getProductCreatedAt();
+
+        LocalDateTime getProductUpdatedAt();
+
+        /**
+         * URL дополнительных изображений, разделённые переводом строки
+         */
+        String getAdditionalImages();
+    }
+
     /**
      * Найти корзину пользователя
      */
@@ -30,6 +85,17 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
      */
     boolean existsByUserId(Long userId);
 
+    /**
+     * Создать пустую корзину, если у пользователя её ещё нет
+     * (ON CONFLICT исключает гонку параллельных запросов на уникальном user_id)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO carts (user_id, total_amount, total_items, version, created_at, updated_at) " +
+            "VALUES (:userId, 0, 0, 0, NOW(), NOW()) " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
     /**
      * Получить корзину с товарами для пользователя
      * (Fetch Join для избежания N+1 проблемы)
@@ -41,6 +107,40 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
             "WHERE c.user.id = :userId")
     Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
 
+    /**
+     * Получить корзину с позициями для оформления заказа
+     * (товары не подгружаются - они загружаются отдельным запросом с блокировкой)
+     */
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.user.id = :userId")
+    Optional<Cart> findByUserIdWithItemsForCheckout(@Param("userId") Long userId);
+
+    /**
+     * Получить корзину для отображения одним запросом: позиции, товары и агрегированные изображения
+     * Тяжёлые поля (описание, характеристики, изображения) выбираются только при details = true
+     */
+    @Query(value = "SELECT c.id AS \"cartId\", c.total_amount AS \"cartTotalAmount\", " +
+            "    c.total_items AS \"cartTotalItems\", c.created_at AS \"cartCreatedAt\", " +
+            "    c.updated_at AS \"cartUpdatedAt\", " +
+            "    p.id AS \"productId\", p.name AS \"name\", p.brand AS \"brand\", p.sku AS \"sku\", " +
+            "    p.image_url AS \"imageUrl\", p.old_price AS \"oldPrice\", p.is_active AS \"isActive\", " +
+            "    ci.quantity AS \"quantity\", ci.price AS \"price\", " +
+            "    CASE WHEN :details THEN p.description END AS \"description\", " +
+            "    CASE WHEN :details THEN p.specifications END AS \"specifications\", " +
+            "    CASE WHEN :details THEN p.is_featured END AS \"isFeatured\", " +
+            "    CASE WHEN :details THEN p.created_at END AS \"productCreatedAt\", " +
+            "    CASE WHEN :details THEN p.updated_at END AS \"productUpdatedAt\", " +
+            "    img.urls AS \"additionalImages\" " +
+            "FROM carts c " +
+            "LEFT JOIN cart_items ci ON ci.cart_id = c.id " +
+            "LEFT JOIN products p ON p.id = ci.product_id " +
+            "LEFT JOIN LATERAL (" +
+            "    SELECT string_agg(pi.image_url, E'\\n' ORDER BY pi.display_order) AS urls " +
+            "    FROM product_images pi WHERE pi.product_id = p.id AND :details" +
+            ") img ON TRUE " +
+            "WHERE c.user_id = :userId " +
+            "ORDER BY ci.id", nativeQuery = true)
+    List<CartLineView> findCartView(@Param("userId") Long userId, @Param("details") boolean details);
+
     /**
      * Удалить корзину пользователя
      */
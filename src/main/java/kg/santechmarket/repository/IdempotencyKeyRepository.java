@@ -0,0 +1,63 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Репозиторий ключей идемпотентности
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    /**
+     * Найти ключ пользователя
+     */
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    /**
+     * Захватить ключ. Если такой ключ вставлен незакоммиченной транзакцией,
+     * оператор ждёт её завершения (уникальный индекс), поэтому параллельные дубли
+     * не выполняются повторно, а получают результат первого запроса.
+     *
+     * @return 1 - ключ захвачен этим запросом, 0 - ключ уже существует
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_keys " +
+            "(user_id, idempotency_key, endpoint, request_hash, expires_at, created_at, updated_at) " +
+            "VALUES (:userId, :key, :endpoint, :requestHash, :expiresAt, NOW(), NOW()) " +
+            "ON CONFLICT (user_id, idempotency_key) DO NOTHING", nativeQuery = true)
+    int tryAcquire(@Param("userId") Long userId,
+                   @Param("key") String key,
+                   @Param("endpoint") String endpoint,
+                   @Param("requestHash") String requestHash,
+                   @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Сохранить результат выполнения запроса
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.orderId = :orderId, k.responseBody = :responseBody, " +
+            "k.updatedAt = CURRENT_TIMESTAMP WHERE k.userId = :userId AND k.idempotencyKey = :key")
+    int complete(@Param("userId") Long userId,
+                 @Param("key") String key,
+                 @Param("orderId") Long orderId,
+                 @Param("responseBody") String responseBody);
+
+    /**
+     * Удалить истёкшие ключи
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,268 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.NotificationBroadcast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Репозиторий массовых рассылок уведомлений
+ */
+@Repository
+public interface NotificationBroadcastRepository extends JpaRepository<NotificationBroadcast, Long> {
+
+    /**
+     * Условие попадания пользователя в рассылку: явный список получателей
+     * или все активные одобренные пользователи
+     */
+    String RECIPIENT_FILTER = "((b.recipient_ids IS NULL AND u.is_active = true AND u.status = 'APPROVED') " +
+            "    OR u.id = ANY (b.recipient_ids)) ";
+
+    /**
+     * Рассылки всем, видимые пользователю: созданные после его регистрации и не скрытые им.
+     * Рассылка прочитана, если её ID не больше водяного знака или есть отметка о прочтении
+     */
+    String FEED_FROM = "FROM users u " +
+            "JOIN notification_broadcasts b ON b.fan_out_on_read = true AND b.created_at >= u.created_at " +
+            "LEFT JOIN broadcast_receipts r ON r.user_id = u.id AND r.broadcast_id = b.id " +
+            "WHERE u.id = :userId AND r.dismissed_at IS NULL ";
+
+    /**
+     * Непрочитанные рассылки: выше водяного знака и без отметки
+     */
+    String UNREAD_FILTER = "AND b.id > u.last_seen_broadcast_id AND r.broadcast_id IS NULL ";
+
+    /**
+     * Keyset-пагинация ленты рассылок: строго после курсора в порядке (created_at DESC, id DESC)
+     */
+    String FEED_PAGE = "AND (b.created_at, b.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY b.created_at DESC, b.id DESC LIMIT :limit";
+
+    /**
+     * Колонки рассылки в ленте
+     */
+    String FEED_SELECT = "SELECT b.id AS \"id\", b.type AS \"type\", b.title AS \"title\", b.content AS \"content\", " +
+            "b.metadata AS \"metadata\", b.created_at AS \"createdAt\", " +
+            "(b.id <= u.last_seen_broadcast_id OR r.broadcast_id IS NOT NULL) AS \"isRead\", r.read_at AS \"readAt\" ";
+
+    /**
+     * Рассылка в ленте пользователя
+     */
+    interface BroadcastFeedView {
+        Long getId();
+
+        String getType();
+
+        String getTitle();
+
+        String getContent();
+
+        String getMetadata();
+
+        LocalDateTime getCreatedAt();
+
+        Boolean getIsRead();
+
+        LocalDateTime getReadAt();
+    }
+
+    /**
+     * Прогресс доставки рассылки
+     */
+    interface BroadcastProgressView {
+        Long getId();
+
+        String getStatus();
+
+        Integer getTotalRecipients();
+
+        Integer getDeliveredCount();
+    }
+
+    /**
+     * Зафиксировать число получателей рассылки
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE notification_broadcasts b SET total_recipients = " +
+            "    (SELECT count(*) FROM users u WHERE " + RECIPIENT_FILTER + ") " +
+            "WHERE b.id = :id", nativeQuery = true)
+    int countRecipients(@Param("id") Long id);
+
+    /**
+     * Доставить следующую порцию рассылки одним оператором
+     * <p>
+     * Кандидаты берутся по возрастанию ID после last_user_id из unnest(recipient_ids), а не обходом
+     * users: порция читает из users только своих получателей по первичному ключу. Рассылки
+     * без списка (созданные до рассылок при чтении) по-прежнему обходят активных пользователей.
+     * Уведомления создаются INSERT ... SELECT, а точка возобновления, счётчик рассылки и счётчики
+     * непрочитанных получателей сдвигаются в том же операторе,
+     * поэтому порция либо доставлена и учтена целиком, либо не доставлена вовсе.
+     * Точка возобновления - последний кандидат порции, даже если такого пользователя уже нет.
+     * Строка рассылки берётся FOR UPDATE SKIP LOCKED: если порцию уже доставляет другая нода,
+     * результат пустой. Неполная порция кандидатов означает, что получатели закончились.
+     */
+    @Transactional
+    @Query(value = "WITH b AS (" +
+            "    SELECT id, type, title, content, metadata, recipient_ids, last_user_id " +
+            "    FROM notification_broadcasts " +
+            "    WHERE id = :id AND status IN ('PENDING', 'RUNNING') " +
+            "    FOR UPDATE SKIP LOCKED" +
+            "), candidates AS (" +
+            "    SELECT r.id FROM b CROSS JOIN LATERAL unnest(b.recipient_ids) AS r(id) " +
+            "    WHERE r.id > b.last_user_id " +
+            "    UNION ALL " +
+            "    SELECT u.id FROM b JOIN users u ON u.id > b.last_user_id " +
+            "    WHERE b.recipient_ids IS NULL AND u.is_active = true AND u.status = 'APPROVED' " +
+            "    ORDER BY id " +
+            "    LIMIT :chunkSize" +
+            "), recipients AS (" +
+            "    SELECT u.id FROM candidates c JOIN users u ON u.id = c.id" +
+            "), inserted AS (" +
+            "    INSERT INTO notifications (created_at, updated_at, user_id, type, title, content, is_read, metadata) " +
+            "    SELECT NOW(), NOW(), r.id, b.type, b.title, b.content, false, b.metadata " +
+            "    FROM recipients r CROSS JOIN b " +
+            "    RETURNING user_id" +
+            "), counters AS (" +
+            "    INSERT INTO notification_unread_counters (user_id, unread_count) " +
+            "    SELECT user_id, 1 FROM inserted " +
+            "    ON CONFLICT (user_id) DO UPDATE SET unread_count = notification_unread_counters.unread_count + 1" +
+            "), chunk AS (" +
+            "    SELECT (SELECT count(*) FROM inserted) AS delivered, " +
+            "        (SELECT count(*) FROM candidates) AS scanned, " +
+            "        (SELECT max(id) FROM candidates) AS last_user_id" +
+            ") " +
+            "UPDATE notification_broadcasts nb SET " +
+            "    delivered_count = nb.delivered_count + chunk.delivered, " +
+            "    last_user_id = COALESCE(chunk.last_user_id, nb.last_user_id), " +
+            "    status = CASE WHEN chunk.scanned < :chunkSize THEN 'COMPLETED' ELSE 'RUNNING' END, " +
+            "    completed_at = CASE WHEN chunk.scanned < :chunkSize THEN NOW() END, " +
+            "    updated_at = NOW() " +
+            "FROM b, chunk WHERE nb.id = b.id " +
+            "RETURNING nb.id AS \"id\", nb.status AS \"status\", " +
+            "    nb.total_recipients AS \"totalRecipients\", nb.delivered_count AS \"deliveredCount\"",
+            nativeQuery = true)
+    Optional<BroadcastProgressView> deliverChunk(@Param("id") Long id, @Param("chunkSize") int chunkSize);
+
+    /**
+     * Прогресс доставки рассылки
+     */
+    @Query(value = "SELECT id AS \"id\", status AS \"status\", total_recipients AS \"totalRecipients\", " +
+            "delivered_count AS \"deliveredCount\" FROM notification_broadcasts WHERE id = :id",
+            nativeQuery = true)
+    Optional<BroadcastProgressView> findProgress(@Param("id") Long id);
+
+    /**
+     * ID незавершённых рассылок в порядке создания
+     */
+    @Query(value = "SELECT id FROM notification_broadcasts WHERE status IN ('PENDING', 'RUNNING') ORDER BY id",
+            nativeQuery = true)
+    List<Long> findActiveIds();
+
+    /**
+     * Опубликовать рассылку всем активным одобренным пользователям
+     * <p>
+     * ID берётся напрямую из последовательности, а не из блока pooled-lo ноды.
+     * nextval сам по себе выдаёт ID в порядке выделения, а не фиксации: рассылка с меньшим ID
+     * могла бы зафиксироваться после того, как водяной знак пользователя ушёл дальше, и так и
+     * не показаться непрочитанной. Поэтому ID выделяется под транзакционной advisory-блокировкой,
+     * которая держится до фиксации: публикации идут строго по одной, и ID становится
+     * видимым в порядке возрастания. Вызывать нужно в той же транзакции, что и фиксация.
+     */
+    @Transactional
+    @Query(value = "WITH publication_lock AS (" +
+            "    SELECT 1 FROM pg_advisory_xact_lock(hashtext('notification_broadcasts_publish'))) " +
+            "INSERT INTO notification_broadcasts (id, created_at, updated_at, type, title, content, metadata, " +
+            "    fan_out_on_read, status, total_recipients, delivered_count, last_user_id, completed_at) " +
+            "SELECT nextval('notification_broadcasts_seq'), NOW(), NOW(), :type, :title, :content, :metadata, " +
+            "    true, 'COMPLETED', c.total, c.total, 0, NOW() " +
+            "FROM publication_lock, " +
+            "    (SELECT count(*) AS total FROM users u WHERE u.is_active = true AND u.status = 'APPROVED') c " +
+            "RETURNING id", nativeQuery = true)
+    Long publishToAll(@Param("type") String type,
+                      @Param("title") String title,
+                      @Param("content") String content,
+                      @Param("metadata") String metadata);
+
+    /**
+     * Страница рассылок в ленте пользователя, новые первыми
+     */
+    @Query(value = FEED_SELECT + FEED_FROM + FEED_PAGE, nativeQuery = true)
+    List<BroadcastFeedView> findFeed(@Param("userId") Long userId,
+                                     @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                     @Param("afterId") Long afterId,
+                                     @Param("limit") int limit);
+
+    /**
+     * Страница непрочитанных рассылок пользователя, новые первыми
+     */
+    @Query(value = FEED_SELECT + FEED_FROM + UNREAD_FILTER + FEED_PAGE, nativeQuery = true)
+    List<BroadcastFeedView> findUnreadFeed(@Param("userId") Long userId,
+                                           @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                           @Param("afterId") Long afterId,
+                                           @Param("limit") int limit);
+
+    @Query(value = "SELECT count(*) " + FEED_FROM + UNREAD_FILTER, nativeQuery = true)
+    long countUnreadFeed(@Param("userId") Long userId);
+
+    /**
+     * Видна ли рассылка пользователю (без учёта скрытия)
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users u " +
+            "JOIN notification_broadcasts b ON b.id = :broadcastId AND b.fan_out_on_read = true " +
+            "    AND b.created_at >= u.created_at " +
+            "WHERE u.id = :userId)", nativeQuery = true)
+    boolean isVisibleTo(@Param("broadcastId") Long broadcastId, @Param("userId") Long userId);
+
+    /**
+     * Отметить рассылку прочитанной; ниже водяного знака отметка не нужна
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO broadcast_receipts (user_id, broadcast_id, read_at) " +
+            "SELECT u.id, :broadcastId, NOW() FROM users u " +
+            "WHERE u.id = :userId AND :broadcastId > u.last_seen_broadcast_id " +
+            "ON CONFLICT (user_id, broadcast_id) DO NOTHING", nativeQuery = true)
+    int markRead(@Param("broadcastId") Long broadcastId, @Param("userId") Long userId);
+
+    /**
+     * Скрыть рассылку из ленты пользователя (скрытая считается прочитанной)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO broadcast_receipts (user_id, broadcast_id, read_at, dismissed_at) " +
+            "VALUES (:userId, :broadcastId, NOW(), NOW()) " +
+            "ON CONFLICT (user_id, broadcast_id) DO UPDATE SET dismissed_at = EXCLUDED.dismissed_at " +
+            "WHERE broadcast_receipts.dismissed_at IS NULL", nativeQuery = true)
+    int dismiss(@Param("broadcastId") Long broadcastId, @Param("userId") Long userId);
+
+    /**
+     * Сдвинуть водяной знак пользователя на последнюю опубликованную рассылку
+     * <p>
+     * Безопасно, пока ID рассылок фиксируются по возрастанию (см. publishToAll):
+     * ещё не зафиксированная рассылка получит ID больше любого видимого здесь.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users u SET last_seen_broadcast_id = latest.id " +
+            "FROM (SELECT max(id) AS id FROM notification_broadcasts WHERE fan_out_on_read = true) latest " +
+            "WHERE u.id = :userId AND latest.id > u.last_seen_broadcast_id", nativeQuery = true)
+    int advanceWatermark(@Param("userId") Long userId);
+
+    /**
+     * Удалить отметки о прочтении, которые покрыты водяным знаком (отметки скрытия остаются)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM broadcast_receipts r USING users u " +
+            "WHERE r.user_id = :userId AND u.id = r.user_id " +
+            "AND r.dismissed_at IS NULL AND r.broadcast_id <= u.last_seen_broadcast_id", nativeQuery = true)
+    int deleteReceiptsBelowWatermark(@Param("userId") Long userId);
+}
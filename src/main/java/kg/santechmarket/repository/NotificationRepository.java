@@ -2,16 +2,16 @@ package kg.santechmarket.repository;
 
 import kg.santechmarket.entity.Notification;
 import kg.santechmarket.enums.NotificationType;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий для работы с уведомлениями
@@ -20,19 +20,71 @@ import java.util.List;
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     /**
-     * Получить уведомления пользователя, отсортированные по дате создания
+     * Keyset-пагинация ленты: строго после курсора в порядке (created_at DESC, id DESC).
+     * Условие created_at &lt;= курсора избыточно для результата, но по нему планировщик
+     * отсекает более новые секции таблицы
      */
-    Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    String FEED_PAGE = " AND n.created_at <= :afterCreatedAt AND (n.created_at, n.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY n.created_at DESC, n.id DESC LIMIT :limit";
 
     /**
-     * Получить непрочитанные уведомления пользователя
+     * Страница ленты пользователя (индекс idx_notifications_user_created)
      */
-    List<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(Long userId);
+    String USER_FEED = "SELECT n.* FROM notifications n WHERE n.user_id = :userId" + FEED_PAGE;
 
     /**
-     * Получить непрочитанные уведомления пользователя (только ID для подсчета)
+     * Страница непрочитанных уведомлений пользователя (частичный индекс idx_notifications_user_unread)
      */
-    List<Notification> findByUserIdAndIsReadFalse(Long userId);
+    String UNREAD_FEED = "SELECT n.* FROM notifications n WHERE n.user_id = :userId AND n.is_read = false" + FEED_PAGE;
+
+    /**
+     * Уведомление пользователя по ID. Без created_at поиск проверяет индекс первичного ключа
+     * каждой секции; с ним планировщик оставляет одну секцию
+     */
+    String OWN_NOTIFICATION = "WHERE id = :id AND user_id = :userId ";
+    String IN_PARTITION = "AND created_at = :createdAt ";
+
+    /**
+     * Отметить прочитанным (CTE changed отдаёт was_unread по каждой изменённой строке)
+     */
+    String MARK_READ = "WITH changed AS (" +
+            "    UPDATE notifications SET is_read = true, read_at = NOW(), updated_at = NOW() " +
+            OWN_NOTIFICATION + "AND is_read = false ";
+
+    /**
+     * Удалить (CTE changed отдаёт was_unread по каждой удалённой строке)
+     */
+    String DELETE_OWN = "WITH changed AS (" +
+            "    DELETE FROM notifications " +
+            OWN_NOTIFICATION;
+
+    /**
+     * Уменьшить счётчик непрочитанных на изменённые непрочитанные строки в том же операторе
+     */
+    String DECREMENT_UNREAD = "), counter AS (" +
+            "    UPDATE notification_unread_counters " +
+            "    SET unread_count = GREATEST(unread_count - (SELECT count(*) FROM changed WHERE was_unread), 0) " +
+            "    WHERE user_id = :userId" +
+            ") " +
+            "SELECT count(*) FROM changed";
+
+    /**
+     * Страница уведомлений пользователя, новые первыми
+     */
+    @Query(value = USER_FEED, nativeQuery = true)
+    List<Notification> findUserFeedPage(@Param("userId") Long userId,
+                                        @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                        @Param("afterId") Long afterId,
+                                        @Param("limit") int limit);
+
+    /**
+     * Страница непрочитанных уведомлений пользователя, новые первыми
+     */
+    @Query(value = UNREAD_FEED, nativeQuery = true)
+    List<Notification> findUnreadFeedPage(@Param("userId") Long userId,
+                                          @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                          @Param("afterId") Long afterId,
+                                          @Param("limit") int limit);
 
     /**
      * Получить уведомления пользователя по типу
@@ -44,6 +96,72 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
      */
     long countByUserIdAndIsReadFalse(Long userId);
 
+    /**
+     * Отметить все уведомления пользователя прочитанными одним оператором
+     * <p>
+     * Счётчик непрочитанных уменьшается на число реально изменённых строк в том же операторе,
+     * поэтому уведомление, созданное параллельно, не теряется из счётчика.
+     *
+     * @return количество отмеченных уведомлений
+     */
+    @Transactional
+    @Query(value = "WITH updated AS (" +
+            "    UPDATE notifications SET is_read = true, read_at = NOW(), updated_at = NOW() " +
+            "    WHERE user_id = :userId AND is_read = false " +
+            "    RETURNING id" +
+            "), counter AS (" +
+            "    UPDATE notification_unread_counters " +
+            "    SET unread_count = GREATEST(unread_count - (SELECT count(*) FROM updated), 0) " +
+            "    WHERE user_id = :userId" +
+            ") " +
+            "SELECT count(*) FROM updated", nativeQuery = true)
+    long markAllAsRead(@Param("userId") Long userId);
+
+    /**
+     * Отметить уведомление пользователя прочитанным
+     *
+     * @return 1, если уведомление было непрочитанным
+     */
+    @Transactional
+    @Query(value = MARK_READ + "RETURNING true AS was_unread" + DECREMENT_UNREAD, nativeQuery = true)
+    long markAsRead(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Отметить уведомление пользователя прочитанным, читая только секцию его created_at
+     *
+     * @return 1, если уведомление было непрочитанным
+     */
+    @Transactional
+    @Query(value = MARK_READ + IN_PARTITION + "RETURNING true AS was_unread" + DECREMENT_UNREAD, nativeQuery = true)
+    long markAsReadInPartition(@Param("id") Long id,
+                               @Param("userId") Long userId,
+                               @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Удалить уведомление пользователя
+     *
+     * @return 1, если уведомление удалено
+     */
+    @Transactional
+    @Query(value = DELETE_OWN + "RETURNING NOT is_read AS was_unread" + DECREMENT_UNREAD, nativeQuery = true)
+    long deleteOwned(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Удалить уведомление пользователя, читая только секцию его created_at
+     *
+     * @return 1, если уведомление удалено
+     */
+    @Transactional
+    @Query(value = DELETE_OWN + IN_PARTITION + "RETURNING NOT is_read AS was_unread" + DECREMENT_UNREAD,
+            nativeQuery = true)
+    long deleteOwnedInPartition(@Param("id") Long id,
+                                @Param("userId") Long userId,
+                                @Param("createdAt") LocalDateTime createdAt);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    boolean existsByIdAndUserIdAndCreatedAt(Long id, Long userId, LocalDateTime createdAt);
+
     /**
      * Подсчитать общее количество уведомлений пользователя
      */
@@ -61,21 +179,10 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
                                               @Param("endDate") LocalDateTime endDate);
 
     /**
-     * Удалить старые уведомления (старше N дней)
-     */
-    @Modifying
-    @Query("DELETE FROM Notification n WHERE n.createdAt < :cutoffDate")
-    int deleteOldNotifications(@Param("cutoffDate") LocalDateTime cutoffDate);
-
-    /**
-     * Удалить старые уведомления с помощью количества дней
+     * Дата создания самого старого уведомления
      */
-    @Modifying
-    @Query("DELETE FROM Notification n WHERE n.createdAt < :cutoffDate")
-    default int deleteOldNotifications(int daysThreshold) {
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(daysThreshold);
-        return deleteOldNotifications(cutoffDate);
-    }
+    @Query("SELECT MIN(n.createdAt) FROM Notification n")
+    Optional<LocalDateTime> findOldestCreatedAt();
 
     /**
      * Получить статистику уведомлений по типам
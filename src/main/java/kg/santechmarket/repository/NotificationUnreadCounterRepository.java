@@ -0,0 +1,28 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.NotificationUnreadCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Репозиторий счётчиков непрочитанных уведомлений
+ */
+@Repository
+public interface NotificationUnreadCounterRepository extends JpaRepository<NotificationUnreadCounter, Long> {
+
+    /**
+     * Добавить дельту к счётчику пользователя
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO notification_unread_counters (user_id, unread_count) " +
+            "VALUES (:userId, GREATEST(:delta, 0)) " +
+            "ON CONFLICT (user_id) DO UPDATE " +
+            "SET unread_count = GREATEST(notification_unread_counters.unread_count + :delta, 0)",
+            nativeQuery = true)
+    int addDelta(@Param("userId") Long userId, @Param("delta") int delta);
+}
@@ -0,0 +1,64 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.OrderEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий журнала событий заказов
+ * <p>
+ * Запись - только вставками (saveAll пакетами JDBC), чтение - хронология одного заказа.
+ */
+@Repository
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    /**
+     * Комментарии менеджеров к заказу одной строкой, как раньше в orders.manager_comment
+     * (подзапрос по idx_order_events_order_created)
+     */
+    String MANAGER_COMMENT = "(SELECT string_agg(e.comment, E'\\n' ORDER BY e.created_at, e.id) FROM order_events e " +
+            "WHERE e.order_id = o.id AND e.comment IS NOT NULL)";
+
+    /**
+     * Событие хронологии с именем исполнителя
+     */
+    interface TimelineEntryView {
+        Long getId();
+
+        String getEventType();
+
+        String getFromStatus();
+
+        String getToStatus();
+
+        String getComment();
+
+        Long getActorId();
+
+        String getActorName();
+
+        LocalDateTime getCreatedAt();
+    }
+
+    /**
+     * Хронология заказа в порядке появления событий
+     */
+    @Query(value = "SELECT e.id AS \"id\", e.event_type AS \"eventType\", e.from_status AS \"fromStatus\", " +
+            "    e.to_status AS \"toStatus\", e.comment AS \"comment\", e.actor_id AS \"actorId\", " +
+            "    u.full_name AS \"actorName\", e.created_at AS \"createdAt\" " +
+            "FROM order_events e LEFT JOIN users u ON u.id = e.actor_id " +
+            "WHERE e.order_id = :orderId " +
+            "ORDER BY e.created_at, e.id", nativeQuery = true)
+    List<TimelineEntryView> findTimeline(@Param("orderId") Long orderId);
+
+    /**
+     * Комментарии менеджеров к заказу (null - комментариев нет)
+     */
+    @Query(value = "SELECT " + MANAGER_COMMENT + " FROM orders o WHERE o.id = :orderId", nativeQuery = true)
+    String findManagerComment(@Param("orderId") Long orderId);
+}
@@ -4,12 +4,17 @@ import kg.santechmarket.entity.Order;
 import kg.santechmarket.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,14 +25,132 @@ import java.util.Optional;
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     /**
-     * Найти заказ по номеру
+     * Поля краткой информации о заказе с клиентом (без загрузки сущностей)
      */
+    String SUMMARY_SELECT = "SELECT o.id AS \"id\", o.order_number AS \"orderNumber\", o.status AS \"status\", " +
+            "    o.total_amount AS \"totalAmount\", o.total_items AS \"totalItems\", o.created_at AS \"createdAt\", " +
+            "    u.id AS \"userId\", u.full_name AS \"customerName\", u.phone_number AS \"customerPhone\" " +
+            "FROM orders o JOIN users u ON u.id = o.user_id ";
+
+    /**
+     * Keyset-пагинация: строго после курсора в порядке (created_at DESC, id DESC)
+     */
+    String KEYSET_PAGE = " AND (o.created_at, o.id) < (:afterCreatedAt, :afterId) " +
+            "ORDER BY o.created_at DESC, o.id DESC LIMIT :limit";
+
+    /**
+     * Поля заголовка заказа с именем клиента (товары загружаются отдельным запросом по id страницы)
+     */
+    String HEADER_SELECT = "SELECT o.id AS \"id\", o.order_number AS \"orderNumber\", o.status AS \"status\", " +
+            "    o.total_amount AS \"totalAmount\", o.total_items AS \"totalItems\", " +
+            "    o.customer_comment AS \"customerComment\", " +
+            "    o.contact_info AS \"contactInfo\", o.created_at AS \"createdAt\", o.updated_at AS \"updatedAt\", " +
+            "    o.confirmed_at AS \"confirmedAt\", o.completed_at AS \"completedAt\", " +
+            "    u.id AS \"userId\", u.full_name AS \"userName\", " +
+            "    " + OrderEventRepository.MANAGER_COMMENT + " AS \"managerComment\" " +
+            "FROM orders o JOIN users u ON u.id = o.user_id ";
+
+    /**
+     * Краткая информация о заказе
+     */
+    interface OrderSummaryView {
+        Long getId();
+
+        String getOrderNumber();
+
+        String getStatus();
+
+        BigDecimal getTotalAmount();
+
+        Integer getTotalItems();
+
+        LocalDateTime getCreatedAt();
+
+        Long getUserId();
+
+        String getCustomerName();
+
+        String getCustomerPhone();
+    }
+
+    /**
+     * Заголовок заказа без товаров
+     */
+    interface OrderHeaderView {
+        Long getId();
+
+        String getOrderNumber();
+
+        String getStatus();
+
+        BigDecimal getTotalAmount();
+
+        Integer getTotalItems();
+
+        String getCustomerComment();
+
+        String getContactInfo();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        LocalDateTime getConfirmedAt();
+
+        LocalDateTime getCompletedAt();
+
+        Long getUserId();
+
+        String getUserName();
+
+        String getManagerComment();
+    }
+
+    /**
+     * Товар заказа с минимальными данными продукта
+     */
+    interface OrderItemView {
+        Long getOrderId();
+
+        Long getId();
+
+        Long getProductId();
+
+        String getProductName();
+
+        Integer getQuantity();
+
+        BigDecimal getPrice();
+
+        String getProductImageUrl();
+    }
+
+    /**
+     * Текущее состояние заказа для проверки перехода статуса
+     */
+    interface OrderStateView {
+        Long getId();
+
+        String getOrderNumber();
+
+        String getStatus();
+
+        Long getUserId();
+    }
+
+    /**
+     * Найти заказ по номеру (клиент и товары загружаются сразу)
+     */
+    @EntityGraph(attributePaths = {"user", "items"})
     Optional<Order> findByOrderNumber(String orderNumber);
 
     /**
-     * Получить заказы пользователя, отсортированные по дате создания (новые сначала)
+     * Страница заголовков заказов пользователя (новые сначала)
      */
-    Page<Order> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
+    @Query(value = HEADER_SELECT + "WHERE o.user_id = :userId ORDER BY o.created_at DESC, o.id DESC",
+            countQuery = "SELECT count(*) FROM orders WHERE user_id = :userId",
+            nativeQuery = true)
+    Page<OrderHeaderView> findHeadersByUserId(@Param("userId") Long userId, Pageable pageable);
 
     /**
      * Получить заказы пользователя по статусу
@@ -35,47 +158,110 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserIdAndStatus(Long userId, OrderStatus status);
 
     /**
-     * Получить все заказы по статусу
+     * Страница заголовков заказов по статусу (новые сначала)
      */
-    Page<Order> findByStatusOrderByCreatedAtDesc(OrderStatus status, Pageable pageable);
+    @Query(value = HEADER_SELECT + "WHERE o.status = :status ORDER BY o.created_at DESC, o.id DESC",
+            countQuery = "SELECT count(*) FROM orders WHERE status = :status",
+            nativeQuery = true)
+    Page<OrderHeaderView> findHeadersByStatus(@Param("status") String status, Pageable pageable);
 
     /**
-     * Получить заказы за определенный период
+     * Заголовки заказов за период (новые сначала)
      */
-    @Query("SELECT o FROM Order o WHERE " +
-            "o.createdAt BETWEEN :startDate AND :endDate " +
-            "ORDER BY o.createdAt DESC")
-    List<Order> findOrdersByDateRange(@Param("startDate") LocalDateTime startDate,
-                                      @Param("endDate") LocalDateTime endDate);
+    @Query(value = HEADER_SELECT + "WHERE o.created_at BETWEEN :startDate AND :endDate " +
+            "ORDER BY o.created_at DESC, o.id DESC", nativeQuery = true)
+    List<OrderHeaderView> findHeadersByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                 @Param("endDate") LocalDateTime endDate);
 
     /**
-     * Получить заказ с товарами (Fetch Join для избежания N+1)
+     * Получить заказ с клиентом и товарами (Fetch Join для избежания N+1)
      */
     @Query("SELECT o FROM Order o " +
+            "JOIN FETCH o.user " +
             "LEFT JOIN FETCH o.items oi " +
             "LEFT JOIN FETCH oi.product p " +
             "WHERE o.id = :orderId")
     Optional<Order> findByIdWithItems(@Param("orderId") Long orderId);
 
     /**
-     * Получить заказы пользователя с товарами
+     * Страница заказов пользователя без товаров (первая фаза истории заказов, индекс idx_orders_user_created)
      */
-    @Query("SELECT o FROM Order o " +
-            "LEFT JOIN FETCH o.items oi " +
-            "LEFT JOIN FETCH oi.product p " +
-            "WHERE o.user.id = :userId " +
-            "ORDER BY o.createdAt DESC")
-    List<Order> findByUserIdWithItems(@Param("userId") Long userId);
+    @Query(value = HEADER_SELECT + "WHERE o.user_id = :userId" + KEYSET_PAGE, nativeQuery = true)
+    List<OrderHeaderView> findUserOrderPage(@Param("userId") Long userId,
+                                            @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                            @Param("afterId") Long afterId,
+                                            @Param("limit") int limit);
 
     /**
-     * Поиск заказов по номеру или имени клиента
+     * Товары страницы заказов одним запросом (вторая фаза истории заказов)
      */
-    @Query("SELECT o FROM Order o " +
-            "JOIN o.user u WHERE " +
-            "(LOWER(o.orderNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-            "ORDER BY o.createdAt DESC")
-    Page<Order> searchOrders(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query(value = "SELECT oi.order_id AS \"orderId\", oi.id AS \"id\", oi.product_id AS \"productId\", " +
+            "    oi.product_name AS \"productName\", oi.quantity AS \"quantity\", oi.price AS \"price\", " +
+            "    p.image_url AS \"productImageUrl\" " +
+            "FROM order_items oi JOIN products p ON p.id = oi.product_id " +
+            "WHERE oi.order_id IN (:orderIds) " +
+            "ORDER BY oi.order_id, oi.id", nativeQuery = true)
+    List<OrderItemView> findItemViewsByOrderIds(@Param("orderIds") List<Long> orderIds);
+
+    /**
+     * Состояние заказов с блокировкой строк до конца транзакции (порядок по id исключает взаимоблокировки)
+     */
+    @Query(value = "SELECT o.id AS \"id\", o.order_number AS \"orderNumber\", o.status AS \"status\", " +
+            "    o.user_id AS \"userId\" " +
+            "FROM orders o WHERE o.id IN (:orderIds) ORDER BY o.id FOR UPDATE", nativeQuery = true)
+    List<OrderStateView> lockOrderStates(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Сменить статус заказов одним оператором (переходы проверены вызывающим кодом)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE orders SET status = :status, updated_at = :now, " +
+            "    confirmed_at = CASE WHEN :status = 'CONFIRMED' THEN :now ELSE confirmed_at END, " +
+            "    completed_at = CASE WHEN :status = 'COMPLETED' THEN :now ELSE completed_at END " +
+            "WHERE id IN (:orderIds)", nativeQuery = true)
+    int updateStatuses(@Param("orderIds") Collection<Long> orderIds,
+                       @Param("status") String status,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Поиск по префиксу номера: диапазон [from, to) по индексу order_number COLLATE "C"
+     */
+    @Query(value = SUMMARY_SELECT +
+            "WHERE o.order_number COLLATE \"C\" >= :from AND o.order_number COLLATE \"C\" < :to" + KEYSET_PAGE,
+            nativeQuery = true)
+    List<OrderSummaryView> searchByOrderNumberRange(@Param("from") String from,
+                                                    @Param("to") String to,
+                                                    @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                    @Param("afterId") Long afterId,
+                                                    @Param("limit") int limit);
+
+    /**
+     * Поиск по фрагменту номера (триграммный индекс)
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE o.order_number LIKE :pattern" + KEYSET_PAGE, nativeQuery = true)
+    List<OrderSummaryView> searchByOrderNumberFragment(@Param("pattern") String pattern,
+                                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                       @Param("afterId") Long afterId,
+                                                       @Param("limit") int limit);
+
+    /**
+     * Поиск по имени клиента (триграммный индекс по lower(full_name))
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE lower(u.full_name) LIKE :pattern" + KEYSET_PAGE, nativeQuery = true)
+    List<OrderSummaryView> searchByCustomerName(@Param("pattern") String pattern,
+                                                @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                @Param("afterId") Long afterId,
+                                                @Param("limit") int limit);
+
+    /**
+     * Поиск по цифрам телефона клиента (триграммный индекс по phone_number)
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE u.phone_number LIKE :pattern" + KEYSET_PAGE, nativeQuery = true)
+    List<OrderSummaryView> searchByCustomerPhone(@Param("pattern") String pattern,
+                                                 @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                 @Param("afterId") Long afterId,
+                                                 @Param("limit") int limit);
 
     /**
      * Получить количество заказов по статусу
@@ -88,19 +274,11 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     long countByUserId(Long userId);
 
     /**
-     * Получить заказы, ожидающие обработки (старше определенного времени)
-     */
-    @Query("SELECT o FROM Order o WHERE " +
-            "o.status = 'PENDING' " +
-            "AND o.createdAt < :cutoffTime " +
-            "ORDER BY o.createdAt")
-    List<Order> findPendingOrdersOlderThan(@Param("cutoffTime") LocalDateTime cutoffTime);
-
-    /**
-     * Статистика заказов по статусам
+     * Заголовки заказов, ожидающих обработки дольше указанного времени (старые сначала)
      */
-    @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
-    List<Object[]> getOrderStatusStatistics();
+    @Query(value = HEADER_SELECT + "WHERE o.status = 'PENDING' AND o.created_at < :cutoffTime " +
+            "ORDER BY o.created_at, o.id", nativeQuery = true)
+    List<OrderHeaderView> findPendingHeadersOlderThan(@Param("cutoffTime") LocalDateTime cutoffTime);
 
     /**
      * Проверить существование заказа с номером
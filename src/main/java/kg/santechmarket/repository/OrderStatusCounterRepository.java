@@ -0,0 +1,115 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.OrderStatusCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Репозиторий счётчиков заказов по статусам
+ * <p>
+ * Дельта пишется в случайную полосу (INSERT ... ON CONFLICT DO UPDATE), поэтому параллельные
+ * транзакции блокируют разные строки. Чтение суммирует не более (статусов x полос) строк.
+ */
+@Repository
+public interface OrderStatusCounterRepository extends JpaRepository<OrderStatusCounter, OrderStatusCounter.Key> {
+
+    /**
+     * Количество заказов в статусе
+     */
+    interface StatusCountView {
+        String getStatus();
+
+        Long getOrderCount();
+    }
+
+    /**
+     * Расхождение счётчика с таблицей заказов
+     */
+    interface StatusDriftView {
+        String getStatus();
+
+        Long getActual();
+
+        Long getCounted();
+    }
+
+    /**
+     * Добавить дельту к счётчику статуса
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO order_status_counters (status, stripe, order_count) " +
+            "VALUES (:status, :stripe, :delta) " +
+            "ON CONFLICT (status, stripe) DO UPDATE " +
+            "SET order_count = order_status_counters.order_count + EXCLUDED.order_count",
+            nativeQuery = true)
+    int addDelta(@Param("status") String status,
+                 @Param("stripe") int stripe,
+                 @Param("delta") long delta);
+
+    /**
+     * Перенести заказ из одного статуса в другой одним оператором
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO order_status_counters (status, stripe, order_count) " +
+            "VALUES (:fromStatus, :stripe, -1), (:toStatus, :stripe, 1) " +
+            "ON CONFLICT (status, stripe) DO UPDATE " +
+            "SET order_count = order_status_counters.order_count + EXCLUDED.order_count",
+            nativeQuery = true)
+    int transfer(@Param("fromStatus") String fromStatus,
+                 @Param("toStatus") String toStatus,
+                 @Param("stripe") int stripe);
+
+    /**
+     * Количество заказов по статусам
+     */
+    @Query(value = "SELECT status AS \"status\", SUM(order_count)::bigint AS \"orderCount\" " +
+            "FROM order_status_counters GROUP BY status",
+            nativeQuery = true)
+    List<StatusCountView> sumByStatus();
+
+    /**
+     * Статусы, по которым счётчики расходятся с таблицей заказов (один снимок данных)
+     */
+    @Query(value = "SELECT COALESCE(a.status, c.status) AS \"status\", " +
+            "    COALESCE(a.cnt, 0) AS \"actual\", COALESCE(c.cnt, 0) AS \"counted\" " +
+            "FROM (SELECT status, COUNT(*)::bigint AS cnt FROM orders GROUP BY status) a " +
+            "FULL JOIN (SELECT status, SUM(order_count)::bigint AS cnt " +
+            "    FROM order_status_counters GROUP BY status) c ON c.status = a.status " +
+            "WHERE COALESCE(a.cnt, 0) <> COALESCE(c.cnt, 0)",
+            nativeQuery = true)
+    List<StatusDriftView> findDrift();
+
+    /**
+     * Заблокировать счётчики от изменений до конца транзакции (на время пересчёта)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "LOCK TABLE order_status_counters IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockCounters();
+
+    /**
+     * Удалить все полосы счётчиков
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM order_status_counters", nativeQuery = true)
+    int deleteAllCounters();
+
+    /**
+     * Пересчитать счётчики по таблице заказов
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO order_status_counters (status, stripe, order_count) " +
+            "SELECT status, 0, COUNT(*) FROM orders GROUP BY status",
+            nativeQuery = true)
+    int insertFromOrders();
+}
@@ -0,0 +1,102 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий событий transactional outbox
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Захваченное диспетчером событие
+     */
+    interface ClaimedEventView {
+        Long getId();
+
+        String getEventType();
+
+        String getPayload();
+
+        Integer getAttempts();
+    }
+
+    /**
+     * Захватить пачку готовых к доставке событий
+     * <p>
+     * FOR UPDATE SKIP LOCKED позволяет нескольким нодам выбирать события параллельно,
+     * не блокируя друг друга. Захват - это аренда: next_attempt_at сдвигается на leaseSeconds,
+     * поэтому транзакция захвата короткая, а события упавшей ноды вернутся в выборку сами.
+     */
+    @Transactional
+    @Query(value = "WITH claimed AS (" +
+            "    SELECT id FROM outbox_events " +
+            "    WHERE status = 'PENDING' AND next_attempt_at <= NOW() " +
+            "    ORDER BY next_attempt_at, id " +
+            "    LIMIT :batchSize " +
+            "    FOR UPDATE SKIP LOCKED" +
+            ") " +
+            "UPDATE outbox_events e SET attempts = e.attempts + 1, " +
+            "    next_attempt_at = NOW() + make_interval(secs => :leaseSeconds), updated_at = NOW() " +
+            "FROM claimed WHERE e.id = claimed.id " +
+            "RETURNING e.id AS \"id\", e.event_type AS \"eventType\", e.payload AS \"payload\", " +
+            "    e.attempts AS \"attempts\"",
+            nativeQuery = true)
+    List<ClaimedEventView> claimBatch(@Param("batchSize") int batchSize,
+                                      @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Отметить события доставленными
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET status = 'SENT', processed_at = NOW(), updated_at = NOW(), " +
+            "last_error = NULL WHERE id IN (:ids)", nativeQuery = true)
+    int markSent(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Отметить событие доставленным, если его ещё никто не доставил
+     * <p>
+     * Вызывается в транзакции обработчика: строка события остаётся заблокированной до фиксации.
+     *
+     * @return 1, если событие отмечено; 0, если оно уже доставлено или закрыто
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET status = 'SENT', processed_at = NOW(), updated_at = NOW(), " +
+            "last_error = NULL WHERE id = :id AND status = 'PENDING'", nativeQuery = true)
+    int markSentIfPending(@Param("id") Long id);
+
+    /**
+     * Запланировать повторную попытку или перевести событие в FAILED, если попытки исчерпаны
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET " +
+            "status = CASE WHEN attempts >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END, " +
+            "next_attempt_at = NOW() + make_interval(secs => :delaySeconds), " +
+            "last_error = :error, updated_at = NOW() " +
+            "WHERE id = :id", nativeQuery = true)
+    int reschedule(@Param("id") Long id,
+                   @Param("maxAttempts") int maxAttempts,
+                   @Param("delaySeconds") long delaySeconds,
+                   @Param("error") String error);
+
+    /**
+     * Удалить доставленные события старше указанной даты
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_events WHERE status = 'SENT' AND processed_at < :before", nativeQuery = true)
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -1,15 +1,18 @@
 package kg.santechmarket.repository;
 
+import jakarta.persistence.LockModeType;
 import kg.santechmarket.entity.Category;
 import kg.santechmarket.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +27,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Optional<Product> findBySku(String sku);
 
+    /**
+     * Получить товары по списку ID с блокировкой FOR SHARE
+     * (цена и доступность не изменятся до конца транзакции оформления заказа)
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findAllByIdForShare(@Param("ids") Collection<Long> ids);
+
     /**
      * Получить все активные товары
      */
@@ -0,0 +1,96 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.ProductStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий складских остатков и резервов
+ * <p>
+ * Резервирование и списание выполняются условными UPDATE без чтения строки в память:
+ * под нагрузкой на одном товаре транзакции лишь ждут блокировку строки, а условие
+ * on_hand - reserved >= q перепроверяется на актуальной версии.
+ */
+@Repository
+public interface ProductStockRepository extends JpaRepository<ProductStock, Long> {
+
+    /**
+     * Снятый резерв: товар и количество
+     */
+    interface ReservationView {
+        Long getProductId();
+
+        Integer getQuantity();
+    }
+
+    /**
+     * Зарезервировать количество товара под заказ
+     *
+     * @return 1 - зарезервировано, 0 - недостаточно остатка, -1 - учёт остатков по товару не ведётся
+     */
+    @Transactional
+    @Query(value = "WITH upd AS (" +
+            "    UPDATE product_stocks SET reserved = reserved + :quantity, updated_at = NOW() " +
+            "    WHERE product_id = :productId AND on_hand - reserved >= :quantity " +
+            "    RETURNING product_id" +
+            "), ins AS (" +
+            "    INSERT INTO stock_reservations (order_id, product_id, quantity, created_at) " +
+            "    SELECT :orderId, product_id, :quantity, NOW() FROM upd " +
+            "    RETURNING product_id" +
+            ") " +
+            "SELECT CASE " +
+            "    WHEN EXISTS (SELECT 1 FROM ins) THEN 1 " +
+            "    WHEN EXISTS (SELECT 1 FROM product_stocks WHERE product_id = :productId) THEN 0 " +
+            "    ELSE -1 END",
+            nativeQuery = true)
+    int reserve(@Param("orderId") Long orderId,
+                @Param("productId") Long productId,
+                @Param("quantity") int quantity);
+
+    /**
+     * Удалить резервы заказов и вернуть их
+     * (DELETE ... RETURNING: повторная отмена того же заказа ничего не получит)
+     */
+    @Transactional
+    @Query(value = "DELETE FROM stock_reservations WHERE order_id IN (:orderIds) " +
+            "RETURNING product_id AS \"productId\", quantity AS \"quantity\"",
+            nativeQuery = true)
+    List<ReservationView> deleteReservations(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Снять резерв (заказ отменён)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE product_stocks SET reserved = reserved - :quantity, updated_at = NOW() " +
+            "WHERE product_id = :productId", nativeQuery = true)
+    int release(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Списать резерв со склада (заказ завершён)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE product_stocks SET on_hand = on_hand - :quantity, " +
+            "reserved = reserved - :quantity, updated_at = NOW() " +
+            "WHERE product_id = :productId", nativeQuery = true)
+    int consume(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    /**
+     * Установить физический остаток (не меньше текущего резерва)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO product_stocks (product_id, on_hand, reserved, updated_at) " +
+            "VALUES (:productId, :onHand, 0, NOW()) " +
+            "ON CONFLICT (product_id) DO UPDATE SET on_hand = EXCLUDED.on_hand, updated_at = NOW() " +
+            "WHERE product_stocks.reserved <= EXCLUDED.on_hand", nativeQuery = true)
+    int setOnHand(@Param("productId") Long productId, @Param("onHand") int onHand);
+}
@@ -5,8 +5,10 @@ import kg.santechmarket.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Optional;
 
 @Repository
@@ -18,7 +20,20 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
     void deleteByUser(User user);
 
+    /**
+     * Удалить порцию истекших токенов (самые старые первыми, индекс idx_refresh_tokens_expiry_date)
+     *
+     * @return количество удалённых токенов
+     */
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < CURRENT_TIMESTAMP")
-    void deleteExpiredTokens();
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (" +
+            "    SELECT id FROM refresh_tokens WHERE expiry_date < :now " +
+            "    ORDER BY expiry_date LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Срок самого старого истекшего токена, который ещё не удалён
+     */
+    @Query("SELECT MIN(rt.expiryDate) FROM RefreshToken rt WHERE rt.expiryDate < :now")
+    Optional<Instant> findOldestExpiryBefore(@Param("now") Instant now);
 }
@@ -0,0 +1,139 @@
+package kg.santechmarket.repository;
+
+import kg.santechmarket.entity.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий агрегатов продаж
+ * <p>
+ * Позиции заказов разворачиваются в три разреза (итог, категория, бренд) и сворачиваются
+ * сразу в часовые и дневные интервалы одним оператором INSERT ... ON CONFLICT DO UPDATE.
+ */
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, SalesRollup.Key> {
+
+    /**
+     * Позиции заказов в трёх разрезах; требует CTE items(order_id, created_at, quantity, revenue, category_id, brand)
+     */
+    String LINES = "lines AS (" +
+            "    SELECT order_id, created_at, 'TOTAL' AS dimension, '' AS dimension_key, quantity, revenue FROM items " +
+            "    UNION ALL " +
+            "    SELECT order_id, created_at, 'CATEGORY', category_id::text, quantity, revenue FROM items " +
+            "    UNION ALL " +
+            "    SELECT order_id, created_at, 'BRAND', brand, quantity, revenue FROM items" +
+            ") ";
+
+    String ITEMS_SELECT = "SELECT o.id AS order_id, o.created_at, oi.quantity, oi.price * oi.quantity AS revenue, " +
+            "    p.category_id, COALESCE(p.brand, '') AS brand " +
+            "FROM orders o " +
+            "JOIN order_items oi ON oi.order_id = o.id " +
+            "JOIN products p ON p.id = oi.product_id ";
+
+    String INSERT_ROLLUPS = "INSERT INTO sales_rollups " +
+            "(granularity, dimension, bucket_start, dimension_key, order_count, revenue, quantity) " +
+            "SELECT g.granularity, l.dimension, date_trunc(g.unit, l.created_at), l.dimension_key, " +
+            "    :sign * COUNT(DISTINCT l.order_id), :sign * SUM(l.revenue), :sign * SUM(l.quantity) " +
+            "FROM lines l " +
+            "CROSS JOIN (VALUES ('HOUR', 'hour'), ('DAY', 'day')) AS g (granularity, unit) " +
+            "GROUP BY g.granularity, l.dimension, date_trunc(g.unit, l.created_at), l.dimension_key " +
+            "ON CONFLICT (granularity, dimension, bucket_start, dimension_key) DO UPDATE SET " +
+            "    order_count = sales_rollups.order_count + EXCLUDED.order_count, " +
+            "    revenue = sales_rollups.revenue + EXCLUDED.revenue, " +
+            "    quantity = sales_rollups.quantity + EXCLUDED.quantity";
+
+    /**
+     * Точка аналитики
+     */
+    interface RollupPointView {
+        LocalDateTime getBucketStart();
+
+        String getDimensionKey();
+
+        Long getOrderCount();
+
+        BigDecimal getRevenue();
+
+        Long getQuantity();
+    }
+
+    /**
+     * Добавить (sign = 1) или вычесть (sign = -1) заказы из агрегатов
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH items AS (" + ITEMS_SELECT + "WHERE o.id IN (:orderIds)), " + LINES + INSERT_ROLLUPS,
+            nativeQuery = true)
+    int applyOrders(@Param("orderIds") Collection<Long> orderIds,
+                    @Param("sign") int sign);
+
+    /**
+     * Заполнить агрегаты по неотменённым заказам, созданным в [from, to)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH items AS (" + ITEMS_SELECT +
+            "WHERE o.created_at >= :from AND o.created_at < :to AND o.status <> 'CANCELLED'), " +
+            LINES + INSERT_ROLLUPS,
+            nativeQuery = true)
+    int insertFromOrders(@Param("from") LocalDateTime from,
+                         @Param("to") LocalDateTime to,
+                         @Param("sign") int sign);
+
+    /**
+     * Удалить агрегаты интервалов, начинающихся в [from, to)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM sales_rollups WHERE bucket_start >= :from AND bucket_start < :to",
+            nativeQuery = true)
+    int deleteRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Удалить часовые агрегаты старше указанной даты
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM sales_rollups WHERE granularity = 'HOUR' AND bucket_start < :before",
+            nativeQuery = true)
+    int deleteHourlyBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Заблокировать агрегаты от изменений до конца транзакции (на время пересчёта)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "LOCK TABLE sales_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockRollups();
+
+    /**
+     * Агрегаты за период, свёрнутые до нужного шага
+     *
+     * @param source    HOUR или DAY - из каких агрегатов читать
+     * @param truncUnit шаг для date_trunc (hour, day, week, month)
+     */
+    @Query(value = "SELECT date_trunc(:truncUnit, bucket_start) AS \"bucketStart\", " +
+            "    dimension_key AS \"dimensionKey\", SUM(order_count)::bigint AS \"orderCount\", " +
+            "    SUM(revenue) AS \"revenue\", SUM(quantity)::bigint AS \"quantity\" " +
+            "FROM sales_rollups " +
+            "WHERE granularity = :source AND dimension = :dimension " +
+            "  AND bucket_start >= :from AND bucket_start < :to " +
+            "GROUP BY 1, 2 " +
+            "HAVING SUM(order_count) <> 0 " +
+            "ORDER BY 1, 2",
+            nativeQuery = true)
+    List<RollupPointView> findPoints(@Param("source") String source,
+                                     @Param("dimension") String dimension,
+                                     @Param("truncUnit") String truncUnit,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+}
@@ -6,6 +6,7 @@ import kg.santechmarket.enums.VerificationType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
@@ -45,11 +46,22 @@ public interface VerificationCodeRepository extends JpaRepository<VerificationCo
     void deleteByUser(User user);
 
     /**
-     * Удалить истекшие и использованные коды
+     * Удалить порцию истекших и использованных кодов
+     *
+     * @return количество удалённых кодов
      */
     @Modifying
-    @Query("DELETE FROM VerificationCode v WHERE v.expiryDate < :now OR v.isUsed = true")
-    void deleteExpiredOrUsedCodes(Instant now);
+    @Query(value = "DELETE FROM verification_codes WHERE id IN (" +
+            "    SELECT id FROM verification_codes WHERE expiry_date < :now OR is_used = true " +
+            "    LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredOrUsedBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * С какого момента ждёт удаления самый старый код: срок истечения или, для использованных, дата создания
+     */
+    @Query("SELECT MIN(CASE WHEN v.isUsed = true THEN v.createdAt ELSE v.expiryDate END) FROM VerificationCode v " +
+            "WHERE v.expiryDate < :now OR v.isUsed = true")
+    Optional<Instant> findOldestDueBefore(@Param("now") Instant now);
 
     /**
      * Проверить существование активного кода для пользователя и типа
@@ -0,0 +1,26 @@
+package kg.santechmarket.scheduler;
+
+import kg.santechmarket.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодическое удаление истёкших ключей идемпотентности
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyService idempotencyService;
+
+    @Scheduled(cron = "${app.idempotency.cleanup-cron:0 15 * * * *}")
+    public void cleanup() {
+        int deleted = idempotencyService.deleteExpiredKeys();
+        if (deleted > 0) {
+            log.info("Удалено истёкших ключей идемпотентности: {}", deleted);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package kg.santechmarket.scheduler;
+
+import kg.santechmarket.dto.BroadcastProgressDTO;
+import kg.santechmarket.enums.BroadcastStatus;
+import kg.santechmarket.service.NotificationBroadcastService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Доставка массовых рассылок уведомлений
+ * <p>
+ * Опрашивает незавершённые рассылки и доставляет их порциями, делая паузу между порциями,
+ * чтобы рассылка не занимала соединения и WAL целиком. Прогресс хранится в БД, поэтому
+ * после рестарта доставка продолжается со следующего получателя. Несколько нод могут
+ * работать одновременно: порцию одной рассылки в каждый момент доставляет только одна.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationBroadcastWorker {
+
+    private final NotificationBroadcastService broadcastService;
+
+    @Value("${app.notifications.broadcast.chunk-pause-ms:50}")
+    private long chunkPauseMs;
+
+    @Scheduled(fixedDelayString = "${app.notifications.broadcast.poll-interval-ms:5000}")
+    public void deliverPending() {
+        for (Long broadcastId : broadcastService.findActiveBroadcastIds()) {
+            if (!deliver(broadcastId)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Доставить рассылку до конца или до прерывания потока
+     *
+     * @return false, если поток прерван
+     */
+    private boolean deliver(Long broadcastId) {
+        Optional<BroadcastProgressDTO> progress;
+        while ((progress = broadcastService.deliverNextChunk(broadcastId)).isPresent()) {
+            BroadcastProgressDTO current = progress.get();
+            log.debug("Рассылка {}: доставлено {} из {}", broadcastId,
+                    current.getDeliveredCount(), current.getTotalRecipients());
+
+            if (current.getStatus() == BroadcastStatus.COMPLETED) {
+                log.info("Рассылка {} завершена: создано уведомлений {}", broadcastId, current.getDeliveredCount());
+                return true;
+            }
+
+            if (chunkPauseMs > 0) {
+                try {
+                    Thread.sleep(chunkPauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package kg.santechmarket.scheduler;
+
+import kg.santechmarket.service.NotificationPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обслуживание месячных секций уведомлений
+ * <p>
+ * Заранее создаёт секции на несколько месяцев вперёд (также при старте приложения),
+ * чтобы вставки не попадали в секцию DEFAULT. Секции старше срока хранения удаляет RetentionJob.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationPartitionJob {
+
+    private final NotificationPartitionService notificationPartitionService;
+
+    @Value("${app.notifications.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createPartitions();
+    }
+
+    @Scheduled(cron = "${app.notifications.partitions.cron:0 20 3 * * *}")
+    public void maintain() {
+        createPartitions();
+    }
+
+    private void createPartitions() {
+        int created = notificationPartitionService.createFuturePartitions(monthsAhead);
+        if (created > 0) {
+            log.info("Создано секций уведомлений: {}", created);
+        }
+    }
+}
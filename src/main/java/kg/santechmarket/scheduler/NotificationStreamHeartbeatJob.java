@@ -0,0 +1,22 @@
+package kg.santechmarket.scheduler;
+
+import kg.santechmarket.service.NotificationStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Heartbeat открытых SSE-потоков: не даёт прокси и балансировщику закрыть простаивающие
+ * соединения и вовремя обнаруживает отключившихся клиентов
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationStreamHeartbeatJob {
+
+    private final NotificationStreamService notificationStreamService;
+
+    @Scheduled(fixedDelayString = "${app.notifications.stream.heartbeat-ms:20000}")
+    public void heartbeat() {
+        notificationStreamService.sendHeartbeat();
+    }
+}
@@ -0,0 +1,28 @@
+package kg.santechmarket.scheduler;
+
+import kg.santechmarket.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодическая сверка счётчиков заказов по статусам с таблицей заказов
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusCounterReconciliationJob {
+
+    private final OrderService orderService;
+
+    @Scheduled(cron = "${app.order-stats.reconcile-cron:0 45 * * * *}")
+    public void reconcile() {
+        int drifted = orderService.reconcileStatusCounters();
+        if (drifted > 0) {
+            log.warn("Счётчики заказов пересчитаны, расхождений по статусам: {}", drifted);
+        } else {
+            log.debug("Счётчики заказов совпадают с таблицей заказов");
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package kg.santechmarket.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.enums.OutboxEventType;
+import kg.santechmarket.repository.OutboxEventRepository;
+import kg.santechmarket.repository.OutboxEventRepository.ClaimedEventView;
+import kg.santechmarket.service.EmailService;
+import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.OutboxService;
+import kg.santechmarket.service.OutboxService.NotificationPayload;
+import kg.santechmarket.service.OutboxService.SmsPayload;
+import kg.santechmarket.service.OutboxService.VerificationEmailPayload;
+import kg.santechmarket.service.SmsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Диспетчер transactional outbox
+ * <p>
+ * Забирает готовые события пачками (FOR UPDATE SKIP LOCKED, безопасно на нескольких нодах),
+ * выполняет их на виртуальных потоках вне транзакции и отмечает результат:
+ * доставленные - одним UPDATE, неудачные - с экспоненциальной задержкой до следующей попытки.
+ * Доставка "как минимум один раз": при падении ноды событие вернётся в выборку после аренды.
+ * Исключение - события, создающие уведомления: уведомление и отметка о доставке пишутся
+ * в одной транзакции, поэтому повторная доставка не создаёт дубликат и не увеличивает счётчик.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxService outboxService;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final SmsService smsService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final long leaseSeconds;
+    private final int maxAttempts;
+    private final long backoffBaseSeconds;
+    private final long backoffMaxSeconds;
+    private final int retentionDays;
+
+    // Ограничение параллельных обработчиков: уведомления пишут в БД, а пул соединений невелик
+    private final Semaphore permits;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            OutboxService outboxService,
+                            NotificationService notificationService,
+                            EmailService emailService,
+                            SmsService smsService,
+                            ObjectMapper objectMapper,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.outbox.batch-size:50}") int batchSize,
+                            @Value("${app.outbox.lease-seconds:300}") long leaseSeconds,
+                            @Value("${app.outbox.max-attempts:8}") int maxAttempts,
+                            @Value("${app.outbox.backoff-base-seconds:5}") long backoffBaseSeconds,
+                            @Value("${app.outbox.backoff-max-seconds:3600}") long backoffMaxSeconds,
+                            @Value("${app.outbox.concurrency:5}") int concurrency,
+                            @Value("${app.outbox.retention-days:7}") int retentionDays) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxService = outboxService;
+        this.notificationService = notificationService;
+        this.emailService = emailService;
+        this.smsService = smsService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseSeconds = backoffBaseSeconds;
+        this.backoffMaxSeconds = backoffMaxSeconds;
+        this.retentionDays = retentionDays;
+        this.permits = new Semaphore(concurrency);
+    }
+
+    /**
+     * Опрос outbox: пачки забираются, пока очередь не опустеет
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    /**
+     * Удаление доставленных событий
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 30 3 * * *}")
+    public void cleanup() {
+        int deleted = outboxService.deleteSentEvents(retentionDays);
+        if (deleted > 0) {
+            log.info("Удалено доставленных событий outbox: {}", deleted);
+        }
+    }
+
+    /**
+     * Захватить и обработать одну пачку событий
+     *
+     * @return количество захваченных событий
+     */
+    int dispatchBatch() {
+        List<ClaimedEventView> events = outboxEventRepository.claimBatch(batchSize, leaseSeconds);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Queue<Long> sent = new ConcurrentLinkedQueue<>();
+        Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ClaimedEventView event : events) {
+                executor.submit(() -> {
+                    try {
+                        permits.acquire();
+                        try {
+                            if (!handle(event)) {
+                                sent.add(event.getId());
+                            }
+                        } finally {
+                            permits.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failures.add(new Failure(event, e));
+                    } catch (Exception e) {
+                        failures.add(new Failure(event, e));
+                    }
+                });
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            outboxEventRepository.markSent(sent);
+        }
+
+        for (Failure failure : failures) {
+            ClaimedEventView event = failure.event();
+            String error = failure.error().getMessage() != null
+                    ? failure.error().getMessage() : failure.error().getClass().getSimpleName();
+            outboxEventRepository.reschedule(event.getId(), maxAttempts, backoffSeconds(event.getAttempts()), error);
+
+            if (event.getAttempts() >= maxAttempts) {
+                log.error("Событие outbox {} ({}) не доставлено за {} попыток: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), error);
+            } else {
+                log.warn("Ошибка доставки события outbox {} ({}), попытка {}: {}",
+                        event.getId(), event.getEventType(), event.getAttempts(), error);
+            }
+        }
+
+        log.debug("Outbox: обработано {} событий, доставлено {}, ошибок {}",
+                events.size(), events.size() - failures.size(), failures.size());
+        return events.size();
+    }
+
+    /**
+     * Выполнить побочный эффект события
+     *
+     * @return true, если событие уже отмечено доставленным в транзакции обработчика
+     */
+    private boolean handle(ClaimedEventView event) throws Exception {
+        switch (OutboxEventType.valueOf(event.getEventType())) {
+            case NOTIFICATION -> {
+                NotificationPayload payload = objectMapper.readValue(event.getPayload(), NotificationPayload.class);
+                createNotificationOnce(event.getId(), payload.userId(), payload.type(),
+                        payload.title(), payload.content(), payload.metadata());
+                return true;
+            }
+            case EMAIL_CHANGE_CODE -> {
+                VerificationEmailPayload payload = readEmail(event);
+                emailService.sendEmailChangeVerificationCode(payload.to(), payload.code(), payload.userName());
+            }
+            case PHONE_CHANGE_CODE -> {
+                VerificationEmailPayload payload = readEmail(event);
+                emailService.sendPhoneChangeVerificationCode(payload.to(), payload.code(),
+                        payload.userName(), payload.newPhone());
+            }
+            case PASSWORD_RESET_CODE -> {
+                VerificationEmailPayload payload = readEmail(event);
+                emailService.sendPasswordResetVerificationCode(payload.to(), payload.code(), payload.userName());
+            }
+            case PASSWORD_RESET_SMS -> {
+                return sendPasswordResetSms(event.getId(),
+                        objectMapper.readValue(event.getPayload(), SmsPayload.class), event.getAttempts());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * SMS с кодом сброса пароля. Если SMS отключены или последняя попытка не удалась,
+     * код доставляется внутренним уведомлением.
+     *
+     * @return true, если создано уведомление и событие уже отмечено доставленным
+     */
+    private boolean sendPasswordResetSms(Long eventId, SmsPayload payload, int attempt) {
+        if (!smsService.isEnabled()) {
+            createFallbackNotification(eventId, payload);
+            return true;
+        }
+
+        try {
+            if (!smsService.sendSms(payload.phoneNumber(), payload.message(), payload.messageId())) {
+                throw new IllegalStateException("SMS-провайдер не принял сообщение");
+            }
+        } catch (RuntimeException e) {
+            if (attempt < maxAttempts) {
+                throw e;
+            }
+            log.warn("SMS не отправлено за {} попыток, создаём внутреннее уведомление", attempt);
+            createFallbackNotification(eventId, payload);
+            return true;
+        }
+        return false;
+    }
+
+    private void createFallbackNotification(Long eventId, SmsPayload payload) {
+        createNotificationOnce(eventId, payload.userId(), NotificationType.PASSWORD_RESET,
+                "Сброс пароля", payload.message(), null);
+    }
+
+    /**
+     * Создать уведомление и отметить событие доставленным в одной транзакции
+     * <p>
+     * Отметка блокирует строку события, поэтому параллельная повторная доставка
+     * (после истечения аренды) дождётся фиксации и увидит, что событие уже доставлено.
+     * Если событие доставлено раньше, уведомление не создаётся.
+     */
+    private void createNotificationOnce(Long eventId, Long userId, NotificationType type,
+                                        String title, String content, String metadata) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (outboxEventRepository.markSentIfPending(eventId) == 0) {
+                log.info("Событие outbox {} уже доставлено, уведомление не создаётся", eventId);
+                return;
+            }
+            notificationService.createNotification(userId, type, title, content, metadata);
+        });
+    }
+
+    private VerificationEmailPayload readEmail(ClaimedEventView event) throws Exception {
+        return objectMapper.readValue(event.getPayload(), VerificationEmailPayload.class);
+    }
+
+    /**
+     * Экспоненциальная задержка с джиттером: base * 2^(attempt-1), не больше max
+     */
+    long backoffSeconds(int attempt) {
+        long delay = backoffBaseSeconds << Math.min(Math.max(attempt - 1, 0), 20);
+        delay = Math.min(delay, backoffMaxSeconds);
+        long jitter = delay / 5;
+        return delay + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+    }
+
+    private record Failure(ClaimedEventView event, Exception error) {
+    }
+}
@@ -0,0 +1,204 @@
+package kg.santechmarket.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.RefreshTokenService;
+import kg.santechmarket.service.VerificationCodeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Очистка данных с истекшим сроком хранения
+ * <p>
+ * Выполняется только на одной ноде: лидер определяется сессионной advisory-блокировкой
+ * на отдельном соединении, остальные ноды пропускают запуск.
+ * - уведомления удаляются целыми месячными секциями (DROP вместо DELETE);
+ * - истекшие refresh-токены и истекшие/использованные коды верификации удаляются порциями
+ * по batch-size строк, каждая в своей транзакции, с паузой между порциями,
+ * чтобы не держать блокировки и не порождать один большой всплеск WAL.
+ * Метрики: santech.retention.removed (удалено строк), santech.retention.partitions.dropped
+ * (удалено секций уведомлений) и santech.retention.lag - сколько ждёт удаления самая старая запись.
+ * Для уведомлений отставание до месяца нормально: секция удаляется, когда устарела целиком.
+ */
+@Component
+@Slf4j
+public class RetentionJob {
+
+    private static final String LOCK_KEY = "retention-job";
+
+    private static final String NOTIFICATIONS = "notifications";
+    private static final String REFRESH_TOKENS = "refresh_tokens";
+    private static final String VERIFICATION_CODES = "verification_codes";
+
+    private final DataSource dataSource;
+    private final NotificationService notificationService;
+    private final RefreshTokenService refreshTokenService;
+    private final VerificationCodeService verificationCodeService;
+    private final Counter droppedPartitions;
+    private final Map<String, Counter> removed;
+    private final Map<String, AtomicLong> lagSeconds;
+
+    @Value("${app.notifications.retention-days:180}")
+    private int notificationRetentionDays;
+
+    @Value("${app.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.retention.pause-ms:100}")
+    private long pauseMs;
+
+    public RetentionJob(DataSource dataSource,
+                        NotificationService notificationService,
+                        RefreshTokenService refreshTokenService,
+                        VerificationCodeService verificationCodeService,
+                        MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.notificationService = notificationService;
+        this.refreshTokenService = refreshTokenService;
+        this.verificationCodeService = verificationCodeService;
+
+        this.droppedPartitions = Counter.builder("santech.retention.partitions.dropped")
+                .description("Удалено месячных секций уведомлений с истекшим сроком хранения")
+                .register(meterRegistry);
+        this.removed = Map.of(
+                REFRESH_TOKENS, removedCounter(meterRegistry, REFRESH_TOKENS),
+                VERIFICATION_CODES, removedCounter(meterRegistry, VERIFICATION_CODES));
+        this.lagSeconds = Map.of(
+                NOTIFICATIONS, lagGauge(meterRegistry, NOTIFICATIONS),
+                REFRESH_TOKENS, lagGauge(meterRegistry, REFRESH_TOKENS),
+                VERIFICATION_CODES, lagGauge(meterRegistry, VERIFICATION_CODES));
+    }
+
+    @Scheduled(cron = "${app.retention.cron:0 40 3 * * *}")
+    public void run() {
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!tryLock(lockConnection)) {
+                log.debug("Очистка данных выполняется на другой ноде");
+                return;
+            }
+
+            try {
+                purge();
+            } finally {
+                unlock(lockConnection);
+            }
+        } catch (SQLException e) {
+            log.error("Ошибка блокировки очистки данных: {}", e.getMessage());
+        } finally {
+            updateLag();
+        }
+    }
+
+    private void purge() {
+        int partitions = notificationService.cleanupOldNotifications(notificationRetentionDays);
+        droppedPartitions.increment(partitions);
+
+        if (deleteInChunks(REFRESH_TOKENS, refreshTokenService::deleteExpiredTokens)) {
+            deleteInChunks(VERIFICATION_CODES, verificationCodeService::deleteExpiredOrUsedCodes);
+        }
+    }
+
+    /**
+     * Удалять порции, пока очередная порция не окажется неполной
+     *
+     * @return false, если поток прерван
+     */
+    private boolean deleteInChunks(String target, IntUnaryOperator deleteChunk) {
+        long total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = deleteChunk.applyAsInt(batchSize);
+                total += deleted;
+                removed.get(target).increment(deleted);
+
+                if (deleted == batchSize && pauseMs > 0) {
+                    try {
+                        Thread.sleep(pauseMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            } while (deleted == batchSize);
+        } finally {
+            if (total > 0) {
+                log.info("Очистка {}: удалено строк {}", target, total);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Обновить отставание очистки; выполняется на каждой ноде, чтобы метрика не зависела от лидера
+     */
+    private void updateLag() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(notificationRetentionDays);
+            lagSeconds.get(NOTIFICATIONS).set(notificationService.findOldestCreatedAt()
+                    .filter(oldest -> oldest.isBefore(cutoff))
+                    .map(oldest -> Duration.between(oldest, cutoff).toSeconds())
+                    .orElse(0L));
+            lagSeconds.get(REFRESH_TOKENS).set(secondsSince(refreshTokenService.findOldestExpiredAt()));
+            lagSeconds.get(VERIFICATION_CODES).set(secondsSince(verificationCodeService.findOldestDueAt()));
+        } catch (DataAccessException e) {
+            log.warn("Не удалось обновить отставание очистки данных: {}", e.getMessage());
+        }
+    }
+
+    private static long secondsSince(Optional<Instant> due) {
+        return due.map(instant -> Math.max(Duration.between(instant, Instant.now()).toSeconds(), 0))
+                .orElse(0L);
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))")) {
+            statement.setString(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
+            statement.setString(1, LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    private static Counter removedCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("santech.retention.removed")
+                .description("Удалено строк с истекшим сроком хранения")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static AtomicLong lagGauge(MeterRegistry meterRegistry, String target) {
+        AtomicLong lag = new AtomicLong();
+        TimeGauge.builder("santech.retention.lag", lag, TimeUnit.SECONDS, AtomicLong::get)
+                .description("Сколько ждёт удаления самая старая запись с истекшим сроком хранения")
+                .tag("target", target)
+                .register(meterRegistry);
+        return lag;
+    }
+}
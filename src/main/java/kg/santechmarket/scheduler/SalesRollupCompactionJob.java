@@ -0,0 +1,41 @@
+package kg.santechmarket.scheduler;
+
+import kg.santechmarket.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Ночное обслуживание агрегатов продаж
+ * <p>
+ * Пересчитывает последние дни по таблице заказов (исправляет потерянные дельты и поздние отмены)
+ * и удаляет часовые агрегаты старше срока хранения: дальше аналитика идёт по дневным.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SalesRollupCompactionJob {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    @Value("${app.analytics.rebuild-days:2}")
+    private int rebuildDays;
+
+    @Value("${app.analytics.hourly-retention-days:90}")
+    private int hourlyRetentionDays;
+
+    @Scheduled(cron = "${app.analytics.compaction-cron:0 10 3 * * *}")
+    public void compact() {
+        LocalDate today = LocalDate.now();
+        salesAnalyticsService.rebuild(today.minusDays(rebuildDays), today);
+
+        int pruned = salesAnalyticsService.pruneHourly(hourlyRetentionDays);
+        if (pruned > 0) {
+            log.info("Удалено часовых агрегатов продаж: {}", pruned);
+        }
+    }
+}
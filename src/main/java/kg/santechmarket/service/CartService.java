@@ -1,9 +1,11 @@
 package kg.santechmarket.service;
 
+import kg.santechmarket.dto.CartBatchItemRequestDTO;
 import kg.santechmarket.dto.CartResponseDTO;
 import kg.santechmarket.entity.Cart;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -11,11 +13,22 @@ import java.util.Optional;
  */
 public interface CartService {
 
+    /**
+     * Итоги корзины после изменения (для бейджа корзины)
+     */
+    record CartTotals(int totalItems, BigDecimal totalAmount) {
+    }
+
     /**
      * Получить корзину пользователя (создать, если не существует)
      */
     Cart getOrCreateUserCart(Long userId);
 
+    /**
+     * Получить корзину для отображения одним запросом (details - описание, характеристики, изображения)
+     */
+    CartResponseDTO getCartView(Long userId, boolean details);
+
     /**
      * Получить корзину пользователя с товарами
      */
@@ -24,17 +37,22 @@ public interface CartService {
     /**
      * Добавить товар в корзину
      */
-    Cart addItemToCart(Long userId, Long productId, Integer quantity);
+    CartTotals addItemToCart(Long userId, Long productId, Integer quantity);
+
+    /**
+     * Пакетно применить операции add/set/remove к корзине в одной транзакции
+     */
+    Cart applyBatch(Long userId, List<CartBatchItemRequestDTO> operations);
 
     /**
      * Обновить количество товара в корзине
      */
-    Cart updateItemQuantity(Long userId, Long productId, Integer quantity);
+    CartTotals updateItemQuantity(Long userId, Long productId, Integer quantity);
 
     /**
      * Удалить товар из корзины
      */
-    Cart removeItemFromCart(Long userId, Long productId);
+    CartTotals removeItemFromCart(Long userId, Long productId);
 
     /**
      * Очистить корзину пользователя
@@ -64,12 +82,12 @@ public interface CartService {
     /**
      * Увеличить количество товара на 1
      */
-    Cart incrementItemQuantity(Long userId, Long productId);
+    CartTotals incrementItemQuantity(Long userId, Long productId);
 
     /**
      * Уменьшить количество товара на 1
      */
-    Cart decrementItemQuantity(Long userId, Long productId);
+    CartTotals decrementItemQuantity(Long userId, Long productId);
 
     /**
      * Получить количество уникальных товаров в корзине
@@ -81,6 +99,11 @@ public interface CartService {
      */
     void validateCartForCheckout(Long userId);
 
+    /**
+     * Подготовить корзину к оформлению заказа: валидация и актуализация цен за один проход
+     */
+    Cart prepareCartForCheckout(Long userId);
+
     /**
      * Конвертировать Cart в CartResponseDTO
      */
@@ -1,6 +1,7 @@
 package kg.santechmarket.service;
 
 import kg.santechmarket.dto.CategoryDto;
+import kg.santechmarket.dto.CategoryTreeDTO;
 import kg.santechmarket.entity.Category;
 
 import java.util.List;
@@ -97,7 +98,7 @@ public interface CategoryService {
     /**
      * Получить дерево категорий с подкатегориями
      */
-    List<Category> getCategoryTree();
+    List<CategoryTreeDTO> getCategoryTree();
 
     /**
      * Получить подкатегории для указанной категории
@@ -0,0 +1,31 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.dto.OrderResponseDTO;
+
+import java.util.function.Supplier;
+
+/**
+ * Интерфейс сервиса идемпотентности запросов создания заказов (заголовок Idempotency-Key)
+ */
+public interface IdempotencyService {
+
+    /**
+     * Выполнить создание заказа не более одного раза для ключа
+     * Повтор с тем же ключом возвращает сохранённый ответ первого выполнения
+     *
+     * @param userId      пользователь
+     * @param key         значение заголовка Idempotency-Key
+     * @param endpoint    эндпоинт (ключ нельзя переиспользовать для другого запроса)
+     * @param requestData параметры запроса для проверки совпадения
+     * @param action      создание заказа
+     */
+    OrderResponseDTO execute(Long userId, String key, String endpoint, String requestData,
+                             Supplier<OrderResponseDTO> action);
+
+    /**
+     * Удалить истёкшие ключи
+     *
+     * @return количество удалённых ключей
+     */
+    int deleteExpiredKeys();
+}
@@ -0,0 +1,39 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.ProductStock;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Интерфейс сервиса складских остатков и резервирования товаров под заказы
+ */
+public interface InventoryService {
+
+    /**
+     * Зарезервировать товары заказа (товары без учёта остатков пропускаются)
+     * Бросает InsufficientStockException, если какого-то товара недостаточно
+     */
+    void reserveForOrder(Order order);
+
+    /**
+     * Снять резервы заказов (при отмене)
+     */
+    void releaseForOrders(Collection<Long> orderIds);
+
+    /**
+     * Списать резервы заказов со склада (при завершении)
+     */
+    void consumeForOrders(Collection<Long> orderIds);
+
+    /**
+     * Получить остаток товара (пусто - учёт остатков не ведётся)
+     */
+    Optional<ProductStock> getStock(Long productId);
+
+    /**
+     * Установить физический остаток товара
+     */
+    ProductStock setOnHand(Long productId, int onHand);
+}
@@ -0,0 +1,75 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.dto.BroadcastProgressDTO;
+import kg.santechmarket.dto.NotificationResponseDTO;
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.util.KeysetCursor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Массовые рассылки уведомлений
+ * <p>
+ * Рассылка всем пользователям - одна строка notification_broadcasts, которая подмешивается
+ * в ленту при чтении; прочтение хранится водяным знаком пользователя и редкими отметками.
+ * Рассылка по списку получателей доставляется воркером порциями, каждая порция в отдельной транзакции.
+ */
+public interface NotificationBroadcastService {
+
+    /**
+     * Создать рассылку
+     *
+     * @param userIds ID получателей; null - все активные одобренные пользователи
+     * @return ID рассылки
+     */
+    Long startBroadcast(NotificationType type, String title, String content,
+                        List<Long> userIds, String metadata);
+
+    /**
+     * Доставить следующую порцию рассылки
+     *
+     * @return прогресс после порции; пусто, если рассылка завершена или порцию доставляет другая нода
+     */
+    Optional<BroadcastProgressDTO> deliverNextChunk(Long broadcastId);
+
+    /**
+     * Получить прогресс рассылки
+     */
+    BroadcastProgressDTO getProgress(Long broadcastId);
+
+    /**
+     * ID незавершённых рассылок
+     */
+    List<Long> findActiveBroadcastIds();
+
+    /**
+     * Рассылки всем в ленте пользователя после курсора, новые первыми
+     */
+    List<NotificationResponseDTO> getUserFeed(Long userId, KeysetCursor after, int limit);
+
+    /**
+     * Непрочитанные рассылки пользователя после курсора, новые первыми
+     */
+    List<NotificationResponseDTO> getUnreadFeed(Long userId, KeysetCursor after, int limit);
+
+    /**
+     * Количество непрочитанных рассылок пользователя
+     */
+    long countUnread(Long userId);
+
+    /**
+     * Отметить рассылку прочитанной
+     */
+    void markAsRead(Long broadcastId, Long userId);
+
+    /**
+     * Скрыть рассылку из ленты пользователя
+     */
+    void dismiss(Long broadcastId, Long userId);
+
+    /**
+     * Отметить все рассылки прочитанными
+     */
+    void markAllAsRead(Long userId);
+}
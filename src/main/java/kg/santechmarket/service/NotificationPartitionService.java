@@ -0,0 +1,27 @@
+package kg.santechmarket.service;
+
+import java.time.LocalDate;
+
+/**
+ * Обслуживание помесячных секций таблицы notifications
+ * <p>
+ * Секция notifications_pYYYY_MM хранит уведомления, созданные в этом месяце.
+ * Старые данные удаляются целыми секциями, без DELETE по строкам и последующего VACUUM.
+ */
+public interface NotificationPartitionService {
+
+    /**
+     * Создать недостающие секции от текущего месяца на N месяцев вперёд
+     *
+     * @return количество созданных секций
+     */
+    int createFuturePartitions(int monthsAhead);
+
+    /**
+     * Отсоединить и удалить секции, полностью лежащие раньше даты отсечения.
+     * В режиме архивации содержимое секции перед удалением выгружается в CSV (gzip).
+     *
+     * @return количество удалённых секций
+     */
+    int removePartitionsBefore(LocalDate cutoff);
+}
@@ -1,12 +1,13 @@
 package kg.santechmarket.service;
 
+import kg.santechmarket.dto.KeysetPageDTO;
+import kg.santechmarket.dto.NotificationResponseDTO;
 import kg.santechmarket.entity.Notification;
 import kg.santechmarket.entity.Order;
 import kg.santechmarket.enums.NotificationType;
 import kg.santechmarket.enums.OrderStatus;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,17 +22,17 @@ public interface NotificationService {
     Optional<Notification> findById(Long id);
 
     /**
-     * Получить уведомления пользователя
+     * Получить страницу ленты пользователя: личные уведомления и рассылки всем, новые первыми
      */
-    Page<Notification> getUserNotifications(Long userId, Pageable pageable);
+    KeysetPageDTO<NotificationResponseDTO> getUserNotifications(Long userId, String cursor, int limit);
 
     /**
-     * Получить непрочитанные уведомления пользователя
+     * Получить страницу непрочитанных уведомлений и рассылок пользователя
      */
-    List<Notification> getUnreadNotifications(Long userId);
+    KeysetPageDTO<NotificationResponseDTO> getUnreadNotifications(Long userId, String cursor, int limit);
 
     /**
-     * Получить количество непрочитанных уведомлений
+     * Получить количество непрочитанных уведомлений (включая рассылки)
      */
     long getUnreadNotificationCount(Long userId);
 
@@ -43,8 +44,10 @@ public interface NotificationService {
 
     /**
      * Отметить уведомление как прочитанное
+     *
+     * @param createdAt дата создания из ленты: поиск читает одну секцию (null - все секции)
      */
-    void markAsRead(Long notificationId, Long userId);
+    void markAsRead(Long notificationId, Long userId, LocalDateTime createdAt);
 
     /**
      * Отметить все уведомления пользователя как прочитанные
@@ -53,8 +56,10 @@ public interface NotificationService {
 
     /**
      * Удалить уведомление
+     *
+     * @param createdAt дата создания из ленты: поиск читает одну секцию (null - все секции)
      */
-    void deleteNotification(Long notificationId, Long userId);
+    void deleteNotification(Long notificationId, Long userId, LocalDateTime createdAt);
 
     /**
      * Отправить уведомление о создании заказа
@@ -66,15 +71,25 @@ public interface NotificationService {
      */
     void sendOrderStatusUpdateNotification(Order order, OrderStatus oldStatus);
 
+    /**
+     * Отправить уведомления об изменении статуса нескольких заказов (одна пакетная вставка в outbox)
+     */
+    void sendOrderStatusUpdateNotifications(List<OrderStatusChange> changes);
+
     /**
      * Отправить уведомление об отмене заказа
      */
     void sendOrderCancelledNotification(Order order, String reason);
 
     /**
-     * Отправить массовое уведомление всем пользователям
+     * Отправить массовое уведомление пользователям
+     * <p>
+     * Создаёт рассылку, уведомления доставляются воркером порциями после коммита.
+     *
+     * @param userIds ID получателей; null - все активные одобренные пользователи
+     * @return ID рассылки
      */
-    void sendBroadcastNotification(NotificationType type, String title, String content,
+    Long sendBroadcastNotification(NotificationType type, String title, String content,
                                    List<Long> userIds, String metadata);
 
     /**
@@ -85,11 +100,24 @@ public interface NotificationService {
 
     /**
      * Очистка старых уведомлений (старше N дней)
+     *
+     * @return количество удалённых месячных секций
      */
-    void cleanupOldNotifications(int daysThreshold);
+    int cleanupOldNotifications(int daysThreshold);
+
+    /**
+     * Дата создания самого старого хранящегося уведомления
+     */
+    Optional<LocalDateTime> findOldestCreatedAt();
 
     /**
      * Конвертировать Notification entity в NotificationResponseDTO
      */
-    kg.santechmarket.dto.NotificationResponseDTO toNotificationResponseDTO(Notification notification);
+    NotificationResponseDTO toNotificationResponseDTO(Notification notification);
+
+    /**
+     * Смена статуса заказа для уведомления клиента
+     */
+    record OrderStatusChange(Long orderId, String orderNumber, Long userId, OrderStatus oldStatus, OrderStatus newStatus) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package kg.santechmarket.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Push-канал уведомлений и статусов заказов (Server-Sent Events)
+ * <p>
+ * Заменяет периодический опрос /notifications/unread-count и /orders/my:
+ * события после коммита расходятся по всем нодам через Postgres LISTEN/NOTIFY
+ * и отправляются открытым потокам пользователя. О рассылках сообщает общее событие broadcast,
+ * после которого клиент перечитывает счетчик и ленту уведомлений.
+ */
+public interface NotificationStreamService {
+
+    /**
+     * Открыть поток событий пользователя
+     *
+     * @param lastEventId ID последнего полученного события (заголовок Last-Event-ID) или null;
+     *                    пропущенные события досылаются, а если их уже нет в буфере -
+     *                    отправляется событие resync, после которого клиент перечитывает данные
+     */
+    SseEmitter subscribe(Long userId, Long lastEventId);
+
+    /**
+     * Отправить heartbeat во все открытые потоки, чтобы прокси не закрывали простаивающие соединения
+     */
+    void sendHeartbeat();
+
+    /**
+     * Количество открытых потоков на этой ноде
+     */
+    int subscriberCount();
+}
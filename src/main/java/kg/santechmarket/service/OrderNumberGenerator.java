@@ -0,0 +1,12 @@
+package kg.santechmarket.service;
+
+/**
+ * Генератор номеров заказов
+ */
+public interface OrderNumberGenerator {
+
+    /**
+     * Выдать следующий номер заказа в формате ORD-YYYYMMDD-NNNNNNNN
+     */
+    String nextOrderNumber();
+}
@@ -1,6 +1,10 @@
 package kg.santechmarket.service;
 
+import kg.santechmarket.dto.BulkOrderStatusResultDTO;
+import kg.santechmarket.dto.KeysetPageDTO;
+import kg.santechmarket.dto.OrderEventDTO;
 import kg.santechmarket.dto.OrderResponseDTO;
+import kg.santechmarket.dto.OrderSummaryDTO;
 import kg.santechmarket.entity.Order;
 import kg.santechmarket.enums.OrderStatus;
 import kg.santechmarket.service.impl.OrderServiceImpl;
@@ -45,28 +49,48 @@ public interface OrderService {
     /**
      * Получить заказы пользователя
      */
-    Page<Order> getUserOrders(Long userId, Pageable pageable);
+    Page<OrderResponseDTO> getUserOrders(Long userId, Pageable pageable);
 
     /**
-     * Получить заказы пользователя с товарами
+     * Получить страницу заказов пользователя с товарами (keyset-пагинация)
+     *
+     * @param userId ID пользователя
+     * @param cursor курсор из предыдущей страницы (null - первая страница)
+     * @param limit  размер страницы
      */
-    List<Order> getUserOrdersWithItems(Long userId);
+    KeysetPageDTO<OrderResponseDTO> getUserOrdersWithItems(Long userId, String cursor, int limit);
 
     /**
      * Получить заказы по статусу
      */
-    Page<Order> getOrdersByStatus(OrderStatus status, Pageable pageable);
+    Page<OrderResponseDTO> getOrdersByStatus(OrderStatus status, Pageable pageable);
 
     /**
-     * Поиск заказов
+     * Поиск заказов по номеру, имени или телефону клиента (keyset-пагинация)
+     *
+     * @param query  номер заказа (или его префикс/фрагмент), имя клиента или цифры телефона
+     * @param cursor курсор из предыдущей страницы (null - первая страница)
+     * @param limit  размер страницы
      */
-    Page<Order> searchOrders(String searchTerm, Pageable pageable);
+    KeysetPageDTO<OrderSummaryDTO> searchOrders(String query, String cursor, int limit);
+
+    /**
+     * Хронология заказа (журнал событий)
+     */
+    List<OrderEventDTO> getOrderTimeline(Long orderId);
 
     /**
      * Обновить статус заказа
      */
     Order updateOrderStatus(Long orderId, OrderStatus newStatus, String managerComment);
 
+    /**
+     * Массовая смена статуса заказов: каждый переход проверяется отдельно, допустимые применяются одним UPDATE
+     *
+     * @return результат по каждому заказу в порядке запроса
+     */
+    BulkOrderStatusResultDTO bulkUpdateStatus(List<Long> orderIds, OrderStatus newStatus, String managerComment);
+
     /**
      * Подтвердить заказ (PENDING -> CONFIRMED)
      */
@@ -95,18 +119,25 @@ public interface OrderService {
     /**
      * Получить заказы за период
      */
-    List<Order> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate);
+    List<OrderResponseDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate);
 
     /**
      * Получить просроченные заказы (в статусе PENDING более N часов)
      */
-    List<Order> getOverdueOrders(int hoursThreshold);
+    List<OrderResponseDTO> getOverdueOrders(int hoursThreshold);
 
     /**
      * Получить статистику заказов
      */
     OrderServiceImpl.OrderStatistics getOrderStatistics();
 
+    /**
+     * Сверить счётчики заказов по статусам с таблицей заказов и исправить расхождения
+     *
+     * @return количество статусов с расхождением
+     */
+    int reconcileStatusCounters();
+
     /**
      * Получить количество заказов пользователя
      */
@@ -0,0 +1,54 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.enums.OutboxEventType;
+
+import java.util.List;
+
+/**
+ * Запись событий в transactional outbox
+ * <p>
+ * Событие сохраняется в текущей транзакции и доставляется после коммита
+ * диспетчером (kg.santechmarket.scheduler.OutboxDispatcher).
+ */
+public interface OutboxService {
+
+    /**
+     * Записать событие в outbox. Требует активной транзакции:
+     * событие появится только вместе с бизнес-изменением.
+     *
+     * @param type    тип события
+     * @param payload параметры события (сериализуются в JSON)
+     */
+    void enqueue(OutboxEventType type, Object payload);
+
+    /**
+     * Записать несколько событий одного типа пакетной вставкой. Требует активной транзакции.
+     */
+    void enqueueAll(OutboxEventType type, List<?> payloads);
+
+    /**
+     * Удалить доставленные события старше N дней
+     *
+     * @return количество удалённых событий
+     */
+    int deleteSentEvents(int daysThreshold);
+
+    /**
+     * Параметры внутреннего уведомления
+     */
+    record NotificationPayload(Long userId, NotificationType type, String title, String content, String metadata) {
+    }
+
+    /**
+     * Параметры письма с кодом верификации (newPhone - только для смены телефона)
+     */
+    record VerificationEmailPayload(String to, String code, String userName, String newPhone) {
+    }
+
+    /**
+     * Параметры SMS с запасным внутренним уведомлением
+     */
+    record SmsPayload(Long userId, String phoneNumber, String message, String messageId) {
+    }
+}
@@ -2,6 +2,7 @@ package kg.santechmarket.service;
 
 import kg.santechmarket.entity.PasswordResetToken;
 import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.OutboxEventType;
 import kg.santechmarket.repository.PasswordResetTokenRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,8 +23,7 @@ import java.util.Random;
 public class PasswordResetService {
 
     private final PasswordResetTokenRepository passwordResetTokenRepository;
-    private final NotificationService notificationService;
-    private final SmsService smsService;
+    private final OutboxService outboxService;
 
     @Value("${app.password-reset.expiration-minutes:15}")
     private Integer expirationMinutes;
@@ -55,26 +55,12 @@ public class PasswordResetService {
         String message = String.format("Ваш код для сброса пароля: %s. Код действителен %d минут.",
                 token, expirationMinutes);
 
-        // Отправляем SMS, если сервис включен
-        if (smsService.isEnabled()) {
-            try {
-                boolean smsSent = smsService.sendSms(user.getPhoneNumber(), message, resetToken.getId().toString());
-                if (smsSent) {
-                    log.info("SMS с кодом сброса пароля отправлено на номер: {}",
-                            maskPhoneNumber(user.getPhoneNumber()));
-                } else {
-                    log.warn("Не удалось отправить SMS, создаём внутреннее уведомление");
-                    createFallbackNotification(user, message);
-                }
-            } catch (Exception e) {
-                log.error("Ошибка при отправке SMS: {}", e.getMessage());
-                createFallbackNotification(user, message);
-            }
-        } else {
-            // Если SMS сервис отключен, создаём внутреннее уведомление
-            log.info("SMS сервис отключен, создаём внутреннее уведомление");
-            createFallbackNotification(user, message);
-        }
+        // SMS отправится после коммита (outbox); если SMS отключены или не доставлены,
+        // диспетчер создаст внутреннее уведомление
+        outboxService.enqueue(OutboxEventType.PASSWORD_RESET_SMS, new OutboxService.SmsPayload(
+                user.getId(), user.getPhoneNumber(), message, resetToken.getId().toString()));
+        log.info("SMS с кодом сброса пароля поставлено в очередь отправки на номер: {}",
+                maskPhoneNumber(user.getPhoneNumber()));
 
         return resetToken;
     }
@@ -144,20 +130,6 @@ public class PasswordResetService {
         return String.valueOf(code);
     }
 
-    /**
-     * Создание внутреннего уведомления как запасной вариант
-     */
-    private void createFallbackNotification(User user, String message) {
-        notificationService.createNotification(
-                user.getId(),
-                kg.santechmarket.enums.NotificationType.PASSWORD_RESET,
-                "Сброс пароля",
-                message,
-                null
-        );
-        log.info("Создано внутреннее уведомление для пользователя: {}", user.getUsername());
-    }
-
     /**
      * Маскировка номера телефона (показываем только последние 3 цифры)
      */
@@ -1,5 +1,6 @@
 package kg.santechmarket.service;
 
+import kg.santechmarket.dto.FeaturedProductDTO;
 import kg.santechmarket.dto.FilterMetadataResponse;
 import kg.santechmarket.entity.Product;
 import kg.santechmarket.entity.ProductImage;
@@ -43,7 +44,7 @@ public interface ProductService {
     /**
      * Получить рекомендуемые товары для главной страницы
      */
-    List<Product> getFeaturedProducts();
+    List<FeaturedProductDTO> getFeaturedProducts();
 
     /**
      * Поиск товаров по названию
@@ -84,11 +84,25 @@ public class RefreshTokenService {
     }
 
     /**
-     * Очистка истекших токенов (для scheduled задачи)
+     * Удаление порции истекших токенов (для scheduled задачи)
+     * <p>
+     * Каждая порция - отдельная короткая транзакция, чтобы очистка не держала блокировки
+     * и не порождала один большой всплеск WAL.
+     *
+     * @return количество удалённых токенов
      */
     @Transactional
-    public void deleteExpiredTokens() {
-        refreshTokenRepository.deleteExpiredTokens();
-        log.debug("Удалены истекшие refresh токены");
+    public int deleteExpiredTokens(int batchSize) {
+        int deleted = refreshTokenRepository.deleteExpiredBatch(Instant.now(), batchSize);
+        log.debug("Удалено истекших refresh токенов: {}", deleted);
+        return deleted;
+    }
+
+    /**
+     * Срок самого старого истекшего, но ещё не удалённого токена
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> findOldestExpiredAt() {
+        return refreshTokenRepository.findOldestExpiryBefore(Instant.now());
     }
 }
@@ -0,0 +1,38 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.dto.SalesAnalyticsPointDTO;
+import kg.santechmarket.enums.AnalyticsDimension;
+import kg.santechmarket.enums.AnalyticsGranularity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Аналитика продаж по агрегатам (sales_rollups)
+ */
+public interface SalesAnalyticsService {
+
+    /**
+     * Выручка, количество заказов и средний чек за период
+     *
+     * @param from        начало периода (включительно)
+     * @param to          конец периода (не включительно)
+     * @param granularity шаг интервалов
+     * @param dimension   разрез
+     */
+    List<SalesAnalyticsPointDTO> getAnalytics(LocalDateTime from, LocalDateTime to,
+                                              AnalyticsGranularity granularity, AnalyticsDimension dimension);
+
+    /**
+     * Пересчитать агрегаты дней [fromDay, toDay) по таблице заказов
+     */
+    void rebuild(LocalDate fromDay, LocalDate toDay);
+
+    /**
+     * Удалить часовые агрегаты старше N дней
+     *
+     * @return количество удалённых строк
+     */
+    int pruneHourly(int retentionDays);
+}
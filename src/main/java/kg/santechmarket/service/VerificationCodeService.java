@@ -2,6 +2,7 @@ package kg.santechmarket.service;
 
 import kg.santechmarket.entity.User;
 import kg.santechmarket.entity.VerificationCode;
+import kg.santechmarket.enums.OutboxEventType;
 import kg.santechmarket.enums.VerificationType;
 import kg.santechmarket.repository.VerificationCodeRepository;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +24,7 @@ import java.util.Random;
 public class VerificationCodeService {
 
     private final VerificationCodeRepository verificationCodeRepository;
-    private final EmailService emailService;
+    private final OutboxService outboxService;
 
     @Value("${app.verification.expiration-minutes:15}")
     private Integer expirationMinutes;
@@ -58,14 +59,10 @@ public class VerificationCodeService {
         log.info("Создан код верификации для смены email пользователя: {} (действителен {} минут)",
                 user.getUsername(), expirationMinutes);
 
-        // Отправляем код на новый email
-        try {
-            emailService.sendEmailChangeVerificationCode(newEmail, code, user.getFullName());
-            log.info("Код верификации отправлен на новый email: {}", maskEmail(newEmail));
-        } catch (Exception e) {
-            log.error("Ошибка при отправке email с кодом верификации: {}", e.getMessage());
-            throw new RuntimeException("Не удалось отправить код верификации на email");
-        }
+        // Письмо с кодом на новый email отправится после коммита (outbox)
+        outboxService.enqueue(OutboxEventType.EMAIL_CHANGE_CODE,
+                new OutboxService.VerificationEmailPayload(newEmail, code, user.getFullName(), null));
+        log.info("Код верификации поставлен в очередь отправки на новый email: {}", maskEmail(newEmail));
 
         return verificationCode;
     }
@@ -97,14 +94,10 @@ public class VerificationCodeService {
         log.info("Создан код верификации для смены телефона пользователя: {} (действителен {} минут)",
                 user.getUsername(), expirationMinutes);
 
-        // Отправляем код на текущий email
-        try {
-            emailService.sendPhoneChangeVerificationCode(user.getEmail(), code, user.getFullName(), newPhone);
-            log.info("Код верификации отправлен на email: {}", maskEmail(user.getEmail()));
-        } catch (Exception e) {
-            log.error("Ошибка при отправке email с кодом верификации: {}", e.getMessage());
-            throw new RuntimeException("Не удалось отправить код верификации на email");
-        }
+        // Письмо с кодом на текущий email отправится после коммита (outbox)
+        outboxService.enqueue(OutboxEventType.PHONE_CHANGE_CODE,
+                new OutboxService.VerificationEmailPayload(user.getEmail(), code, user.getFullName(), newPhone));
+        log.info("Код верификации поставлен в очередь отправки на email: {}", maskEmail(user.getEmail()));
 
         return verificationCode;
     }
@@ -135,14 +128,10 @@ public class VerificationCodeService {
         log.info("Создан код верификации для сброса пароля пользователя: {} (действителен {} минут)",
                 user.getUsername(), expirationMinutes);
 
-        // Отправляем код на email
-        try {
-            emailService.sendPasswordResetVerificationCode(user.getEmail(), code, user.getFullName());
-            log.info("Код сброса пароля отправлен на email: {}", maskEmail(user.getEmail()));
-        } catch (Exception e) {
-            log.error("Ошибка при отправке email с кодом верификации: {}", e.getMessage());
-            throw new RuntimeException("Не удалось отправить код верификации на email");
-        }
+        // Письмо с кодом отправится после коммита (outbox)
+        outboxService.enqueue(OutboxEventType.PASSWORD_RESET_CODE,
+                new OutboxService.VerificationEmailPayload(user.getEmail(), code, user.getFullName(), null));
+        log.info("Код сброса пароля поставлен в очередь отправки на email: {}", maskEmail(user.getEmail()));
 
         return verificationCode;
     }
@@ -212,12 +201,23 @@ public class VerificationCodeService {
     }
 
     /**
-     * Очистка истекших и использованных кодов (для scheduled задачи)
+     * Удаление порции истекших и использованных кодов (для scheduled задачи)
+     *
+     * @return количество удалённых кодов
      */
     @Transactional
-    public void deleteExpiredOrUsedCodes() {
-        verificationCodeRepository.deleteExpiredOrUsedCodes(Instant.now());
-        log.debug("Удалены истекшие и использованные коды верификации");
+    public int deleteExpiredOrUsedCodes(int batchSize) {
+        int deleted = verificationCodeRepository.deleteExpiredOrUsedBatch(Instant.now(), batchSize);
+        log.debug("Удалено истекших и использованных кодов верификации: {}", deleted);
+        return deleted;
+    }
+
+    /**
+     * С какого момента ждёт удаления самый старый истекший или использованный код
+     */
+    @Transactional(readOnly = true)
+    public Optional<Instant> findOldestDueAt() {
+        return verificationCodeRepository.findOldestDueBefore(Instant.now());
     }
 
     /**
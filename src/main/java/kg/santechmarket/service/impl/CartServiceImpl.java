@@ -1,23 +1,38 @@
 package kg.santechmarket.service.impl;
 
+import kg.santechmarket.dto.CartBatchItemRequestDTO;
 import kg.santechmarket.dto.CartItemDTO;
 import kg.santechmarket.dto.CartResponseDTO;
 import kg.santechmarket.entity.Cart;
 import kg.santechmarket.entity.CartItem;
 import kg.santechmarket.entity.Product;
-import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.CartOperationMode;
 import kg.santechmarket.repository.CartItemRepository;
+import kg.santechmarket.repository.CartItemRepository.CartTotalsView;
 import kg.santechmarket.repository.CartRepository;
+import kg.santechmarket.repository.CartRepository.CartLineView;
 import kg.santechmarket.repository.ProductRepository;
 import kg.santechmarket.service.CartService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -27,7 +42,12 @@ import java.util.stream.Collectors;
  * - Создание корзины при первом добавлении товара
  * - Добавление/удаление/обновление товаров в корзине
  * - Автоматический пересчет общей суммы и количества
+ * (изменение количества и удаление выполняются одним SQL-оператором с дельтой итогов)
  * - Очистка корзины после оформления заказа
+ * <p>
+ * Параллельные запросы (двойные нажатия в приложении): Cart и CartItem версионируются,
+ * изменения через сущности при конфликте версий повторяются в новой транзакции,
+ * корзина создаётся через INSERT ... ON CONFLICT (user_id) DO NOTHING.
  */
 @Service
 @RequiredArgsConstructor
@@ -38,6 +58,12 @@ public class CartServiceImpl implements CartService {
     private final CartRepository cartRepository;
     private final ProductRepository productRepository;
     private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Максимальное число попыток при конфликте параллельного изменения
+     */
+    private static final int MAX_ATTEMPTS = 10;
 
     /**
      * Получить корзину пользователя (создать, если не существует)
@@ -51,16 +77,48 @@ public class CartServiceImpl implements CartService {
             return existingCart.get();
         }
 
-        // Создаем новую корзину
-        Cart newCart = new Cart();
-        User user = new User();
-        user.setId(userId);
-        newCart.setUser(user);
+        // Создаем новую корзину (параллельный запрос мог создать её раньше - тогда вставка пропускается)
+        if (cartRepository.insertIfAbsent(userId) > 0) {
+            log.info("Создана новая корзина для пользователя: {}", userId);
+        }
 
-        Cart savedCart = cartRepository.save(newCart);
-        log.info("Создана новая корзина для пользователя: {}", userId);
+        return cartRepository.findByUserIdWithItems(userId)
+                .orElseThrow(() -> new IllegalStateException("Не удалось создать корзину пользователя " + userId));
+    }
 
-        return savedCart;
+    /**
+     * Получить корзину для отображения
+     * <p>
+     * Один SQL-запрос возвращает позиции вместе с полями товара и агрегированными
+     * изображениями, поэтому ленивые коллекции товаров не загружаются по одной.
+     * По умолчанию позиция содержит только поля для экрана корзины.
+     */
+    @Transactional
+    public CartResponseDTO getCartView(Long userId, boolean details) {
+        List<CartLineView> lines = cartRepository.findCartView(userId, details);
+        if (lines.isEmpty()) {
+            // Корзины ещё нет - создаём пустую
+            cartRepository.insertIfAbsent(userId);
+            lines = cartRepository.findCartView(userId, details);
+        }
+
+        CartLineView header = lines.get(0);
+        List<CartItemDTO> items = new ArrayList<>(lines.size());
+        for (CartLineView line : lines) {
+            if (line.getProductId() != null) {
+                items.add(toCartItemDTO(line));
+            }
+        }
+
+        return CartResponseDTO.builder()
+                .id(header.getCartId())
+                .items(items)
+                .totalAmount(header.getCartTotalAmount())
+                .totalItems(header.getCartTotalItems())
+                .uniqueItemsCount(items.size())
+                .createdAt(header.getCartCreatedAt())
+                .updatedAt(header.getCartUpdatedAt())
+                .build();
     }
 
     /**
@@ -74,7 +132,7 @@ public class CartServiceImpl implements CartService {
      * Добавить товар в корзину
      */
     @Transactional
-    public Cart addItemToCart(Long userId, Long productId, Integer quantity) {
+    public CartTotals addItemToCart(Long userId, Long productId, Integer quantity) {
         log.info("Добавление товара {} в корзину пользователя {} в количестве {}",
                 productId, userId, quantity);
 
@@ -91,71 +149,163 @@ public class CartServiceImpl implements CartService {
             throw new IllegalArgumentException("Товар недоступен для заказа: " + product.getName());
         }
 
-        // Получаем или создаем корзину
+        // Один оператор INSERT ... ON CONFLICT DO UPDATE: параллельные добавления суммируются
+        Optional<CartTotalsView> totals = cartItemRepository.upsertItem(userId, productId, quantity, product.getPrice());
+        if (totals.isEmpty()) {
+            // Корзины ещё нет - создаём её без гонки на user_id и повторяем вставку
+            cartRepository.insertIfAbsent(userId);
+            totals = cartItemRepository.upsertItem(userId, productId, quantity, product.getPrice());
+        }
+
+        log.info("Товар {} добавлен в корзину пользователя {}", product.getName(), userId);
+
+        return totals.map(this::toCartTotals)
+                .orElseThrow(() -> new IllegalStateException("Не удалось добавить товар в корзину"));
+    }
+
+    /**
+     * Пакетно применить операции к корзине
+     * <p>
+     * Корзина загружается один раз, товары - одним IN-запросом,
+     * итоги пересчитываются один раз после применения всех операций.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Cart applyBatch(Long userId, List<CartBatchItemRequestDTO> operations) {
+        return executeWithRetry("пакетное изменение корзины", () -> doApplyBatch(userId, operations));
+    }
+
+    private Cart doApplyBatch(Long userId, List<CartBatchItemRequestDTO> operations) {
+        log.info("Пакетное изменение корзины пользователя {}: {} операций", userId, operations.size());
+
+        // Проверки, зависящие от режима, до изменений; ID товара и неотрицательность
+        // количества проверяет валидация запроса
+        for (CartBatchItemRequestDTO operation : operations) {
+            CartOperationMode mode = resolveMode(operation);
+            if (mode == CartOperationMode.ADD && (operation.getQuantity() == null || operation.getQuantity() == 0)) {
+                throw new IllegalArgumentException("Количество должно быть больше 0: товар " + operation.getProductId());
+            }
+            if (mode == CartOperationMode.SET && operation.getQuantity() == null) {
+                throw new IllegalArgumentException("Не указано количество: товар " + operation.getProductId());
+            }
+        }
+
+        // Один IN-запрос по всем добавляемым/изменяемым товарам
+        List<Long> productIds = operations.stream()
+                .filter(operation -> resolveMode(operation) != CartOperationMode.REMOVE)
+                .map(CartBatchItemRequestDTO::getProductId)
+                .distinct()
+                .toList();
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         Cart cart = getOrCreateUserCart(userId);
+        Map<Long, CartItem> itemsByProduct = new HashMap<>();
+        cart.getItems().forEach(item -> itemsByProduct.put(item.getProduct().getId(), item));
+
+        for (CartBatchItemRequestDTO operation : operations) {
+            Long productId = operation.getProductId();
+            CartOperationMode mode = resolveMode(operation);
+
+            if (mode == CartOperationMode.REMOVE
+                    || (mode == CartOperationMode.SET && operation.getQuantity() == 0)) {
+                CartItem removed = itemsByProduct.remove(productId);
+                if (removed != null) {
+                    cart.getItems().remove(removed);
+                    removed.setCart(null);
+                }
+                continue;
+            }
 
-        // Используем метод Entity для добавления товара
-        cart.addItem(product, quantity);
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Товар не найден: " + productId);
+            }
+            if (!product.getIsActive()) {
+                throw new IllegalArgumentException("Товар недоступен для заказа: " + product.getName());
+            }
 
-        Cart savedCart = cartRepository.save(cart);
-        log.info("Товар {} добавлен в корзину пользователя {}", product.getName(), userId);
+            CartItem item = itemsByProduct.get(productId);
+            if (item == null) {
+                item = new CartItem();
+                item.setCart(cart);
+                item.setProduct(product);
+                item.setQuantity(0);
+                item.setPrice(product.getPrice());
+                cart.getItems().add(item);
+                itemsByProduct.put(productId, item);
+            }
+
+            item.setQuantity(mode == CartOperationMode.ADD
+                    ? item.getQuantity() + operation.getQuantity()
+                    : operation.getQuantity());
+        }
+
+        cart.recalculateTotals();
+        // flush внутри попытки, чтобы конфликт версий был обработан повтором
+        Cart savedCart = cartRepository.saveAndFlush(cart);
+        log.info("Пакетное изменение корзины пользователя {} завершено, позиций: {}",
+                userId, savedCart.getItems().size());
 
         return savedCart;
     }
 
+    private CartOperationMode resolveMode(CartBatchItemRequestDTO operation) {
+        return operation.getMode() != null ? operation.getMode() : CartOperationMode.ADD;
+    }
+
     /**
      * Обновить количество товара в корзине
      */
     @Transactional
-    public Cart updateItemQuantity(Long userId, Long productId, Integer quantity) {
+    public CartTotals updateItemQuantity(Long userId, Long productId, Integer quantity) {
         log.info("Обновление количества товара {} в корзине пользователя {} на {}",
                 productId, userId, quantity);
 
-        Cart cart = cartRepository.findByUserIdWithItems(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Корзина не найдена"));
+        // Нулевое или отрицательное количество означает удаление товара
+        if (quantity <= 0) {
+            return removeItemFromCart(userId, productId);
+        }
 
-        // Используем метод Entity для обновления
-        cart.updateItemQuantity(productId, quantity);
+        CartTotals totals = cartItemRepository.setQuantity(userId, productId, quantity)
+                .map(this::toCartTotals)
+                .orElseGet(() -> getCurrentTotals(userId));
 
-        Cart savedCart = cartRepository.save(cart);
         log.info("Количество товара обновлено в корзине пользователя {}", userId);
-
-        return savedCart;
+        return totals;
     }
 
     /**
      * Удалить товар из корзины
      */
     @Transactional
-    public Cart removeItemFromCart(Long userId, Long productId) {
+    public CartTotals removeItemFromCart(Long userId, Long productId) {
         log.info("Удаление товара {} из корзины пользователя {}", productId, userId);
 
-        Cart cart = cartRepository.findByUserIdWithItems(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Корзина не найдена"));
-
-        // Используем метод Entity для удаления
-        cart.removeItem(productId);
+        CartTotals totals = cartItemRepository.deleteItem(userId, productId)
+                .map(this::toCartTotals)
+                .orElseGet(() -> getCurrentTotals(userId));
 
-        Cart savedCart = cartRepository.save(cart);
         log.info("Товар удален из корзины пользователя {}", userId);
-
-        return savedCart;
+        return totals;
     }
 
     /**
      * Очистить корзину пользователя
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void clearUserCart(Long userId) {
         log.info("Очистка корзины пользователя: {}", userId);
 
-        Optional<Cart> cartOpt = cartRepository.findByUserIdWithItems(userId);
-        if (cartOpt.isPresent()) {
-            Cart cart = cartOpt.get();
-            cart.clear();
-            cartRepository.save(cart);
-            log.info("Корзина пользователя {} очищена", userId);
-        }
+        executeWithRetry("очистка корзины", () -> {
+            Optional<Cart> cartOpt = cartRepository.findByUserIdWithItems(userId);
+            if (cartOpt.isPresent()) {
+                Cart cart = cartOpt.get();
+                cart.clear();
+                cartRepository.saveAndFlush(cart);
+                log.info("Корзина пользователя {} очищена", userId);
+            }
+            return null;
+        });
     }
 
     /**
@@ -186,10 +336,15 @@ public class CartServiceImpl implements CartService {
      * Синхронизировать цены в корзине с актуальными ценами товаров
      * Полезно для длительно хранящихся корзин
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Cart syncCartPrices(Long userId) {
+        return executeWithRetry("синхронизация цен корзины", () -> doSyncCartPrices(userId));
+    }
+
+    private Cart doSyncCartPrices(Long userId) {
         log.info("Синхронизация цен в корзине пользователя: {}", userId);
 
+        // Товары подгружаются вместе с корзиной (fetch join), отдельные запросы не нужны
         Optional<Cart> cartOpt = cartRepository.findByUserIdWithItems(userId);
         if (cartOpt.isEmpty()) {
             return null;
@@ -198,29 +353,28 @@ public class CartServiceImpl implements CartService {
         Cart cart = cartOpt.get();
         boolean updated = false;
 
-        for (CartItem item : cart.getItems()) {
-            Product currentProduct = productRepository.findById(item.getProduct().getId())
-                    .orElse(null);
+        for (CartItem item : List.copyOf(cart.getItems())) {
+            Product currentProduct = item.getProduct();
 
-            if (currentProduct != null && currentProduct.getIsActive()) {
+            if (currentProduct.getIsActive()) {
                 // Обновляем цену, если она изменилась
-                if (!item.getPrice().equals(currentProduct.getPrice())) {
+                if (item.getPrice().compareTo(currentProduct.getPrice()) != 0) {
                     log.info("Обновление цены товара {} с {} на {}",
                             currentProduct.getName(), item.getPrice(), currentProduct.getPrice());
                     item.setPrice(currentProduct.getPrice());
+                    cart.recalculateTotals();
                     updated = true;
                 }
             } else {
                 // Товар больше не доступен - удаляем из корзины
-                log.warn("Товар {} больше не доступен, удаляем из корзины",
-                        item.getProduct().getName());
-                cart.removeItem(item.getProduct().getId());
+                log.warn("Товар {} больше не доступен, удаляем из корзины", currentProduct.getName());
+                cart.removeItem(currentProduct.getId());
                 updated = true;
             }
         }
 
         if (updated) {
-            Cart savedCart = cartRepository.save(cart);
+            Cart savedCart = cartRepository.saveAndFlush(cart);
             log.info("Цены в корзине пользователя {} синхронизированы", userId);
             return savedCart;
         }
@@ -239,11 +393,9 @@ public class CartServiceImpl implements CartService {
             throw new IllegalArgumentException("Корзина пуста");
         }
 
-        // Проверяем доступность всех товаров
+        // Проверяем доступность всех товаров (товары подгружены вместе с корзиной)
         for (CartItem item : cart.getItems()) {
-            Product product = productRepository.findById(item.getProduct().getId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Товар не найден: " + item.getProduct().getName()));
+            Product product = item.getProduct();
 
             if (!product.getIsActive()) {
                 throw new IllegalArgumentException(
@@ -260,61 +412,84 @@ public class CartServiceImpl implements CartService {
     }
 
     /**
-     * Увеличить количество товара на 1
+     * Подготовить корзину к оформлению заказа
+     * <p>
+     * Корзина загружается один раз, все товары - одним IN-запросом с блокировкой FOR SHARE.
+     * Затем за один проход проверяется доступность и количество, и цены позиций
+     * приводятся к актуальным. Возвращается управляемая сущность корзины.
      */
     @Transactional
-    public Cart incrementItemQuantity(Long userId, Long productId) {
-        log.info("Увеличение количества товара {} в корзине пользователя {}", productId, userId);
-
-        Cart cart = cartRepository.findByUserIdWithItems(userId)
+    public Cart prepareCartForCheckout(Long userId) {
+        Cart cart = cartRepository.findByUserIdWithItemsForCheckout(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Корзина не найдена"));
 
-        // Находим CartItem и явно сохраняем изменения
-        CartItem cartItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Товар не найден в корзине"));
+        if (cart.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Корзина пуста");
+        }
 
-        cartItem.setQuantity(cartItem.getQuantity() + 1);
-        cartItemRepository.save(cartItem); // Явно сохраняем CartItem
+        // Прокси товаров знают свой ID без обращения к БД
+        List<Long> productIds = cart.getItems().stream()
+                .map(item -> item.getProduct().getId())
+                .toList();
+        Map<Long, Product> products = productRepository.findAllByIdForShare(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-        cart.recalculateTotals(); // Пересчитываем итоги корзины
-        Cart savedCart = cartRepository.save(cart);
+        for (CartItem item : cart.getItems()) {
+            Product product = products.get(item.getProduct().getId());
+            if (product == null) {
+                throw new IllegalArgumentException("Товар не найден: " + item.getProduct().getId());
+            }
+            if (!product.getIsActive()) {
+                throw new IllegalArgumentException("Товар больше не доступен: " + product.getName());
+            }
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Некорректное количество товара: " + product.getName());
+            }
+            if (item.getPrice().compareTo(product.getPrice()) != 0) {
+                log.info("Обновление цены товара {} с {} на {}",
+                        product.getName(), item.getPrice(), product.getPrice());
+                item.setPrice(product.getPrice());
+            }
+        }
 
-        log.info("Количество товара {} увеличено в корзине пользователя {}", productId, userId);
+        cart.recalculateTotals();
+        log.info("Корзина пользователя {} подготовлена к оформлению заказа ({} позиций)",
+                userId, cart.getItems().size());
 
-        return savedCart;
+        return cart;
+    }
+
+    /**
+     * Увеличить количество товара на 1
+     */
+    @Transactional
+    public CartTotals incrementItemQuantity(Long userId, Long productId) {
+        log.info("Увеличение количества товара {} в корзине пользователя {}", productId, userId);
+
+        // Один оператор: UPDATE cart_items ... RETURNING + дельта итогов корзины
+        CartTotals totals = cartItemRepository.incrementQuantity(userId, productId)
+                .map(this::toCartTotals)
+                .orElseThrow(() -> new IllegalArgumentException("Товар не найден в корзине"));
+
+        log.info("Количество товара {} увеличено в корзине пользователя {}", productId, userId);
+        return totals;
     }
 
     /**
      * Уменьшить количество товара на 1
      */
     @Transactional
-    public Cart decrementItemQuantity(Long userId, Long productId) {
+    public CartTotals decrementItemQuantity(Long userId, Long productId) {
         log.info("Уменьшение количества товара {} в корзине пользователя {}", productId, userId);
 
-        Cart cart = cartRepository.findByUserIdWithItems(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Корзина не найдена"));
-
-        // Находим CartItem
-        CartItem cartItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
+        // Если осталась одна единица, UPDATE не затронет строку - тогда удаляем товар
+        CartTotals totals = cartItemRepository.decrementQuantity(userId, productId)
+                .or(() -> cartItemRepository.deleteItem(userId, productId))
+                .map(this::toCartTotals)
                 .orElseThrow(() -> new IllegalArgumentException("Товар не найден в корзине"));
 
-        // Если количество станет 0, удаляем товар
-        if (cartItem.getQuantity() <= 1) {
-            cart.removeItem(productId);
-        } else {
-            cartItem.setQuantity(cartItem.getQuantity() - 1);
-            cartItemRepository.save(cartItem); // Явно сохраняем CartItem
-            cart.recalculateTotals(); // Пересчитываем итоги корзины
-        }
-
-        Cart savedCart = cartRepository.save(cart);
         log.info("Количество товара {} уменьшено в корзине пользователя {}", productId, userId);
-
-        return savedCart;
+        return totals;
     }
 
     /**
@@ -326,6 +501,58 @@ public class CartServiceImpl implements CartService {
                 .orElse(0);
     }
 
+    /**
+     * Выполнить изменение корзины через сущности с повтором при конфликте параллельного изменения
+     * <p>
+     * Каждая попытка выполняется в собственной транзакции. Если метод вызван внутри
+     * внешней транзакции, повтор невозможен - конфликт пробрасывается вызывающему.
+     * DataIntegrityViolationException повторяется для гонки вставки одного товара
+     * (уникальный ключ cart_id + product_id).
+     */
+    private <T> T executeWithRetry(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    log.warn("Операция '{}' не выполнена после {} попыток: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                log.debug("Конфликт при операции '{}' (попытка {}), повтор", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            // Небольшая случайная пауза, чтобы конкурирующие запросы не столкнулись снова
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Операция с корзиной прервана", e);
+        }
+    }
+
+    /**
+     * Текущие итоги корзины (когда изменять было нечего)
+     */
+    private CartTotals getCurrentTotals(Long userId) {
+        Cart cart = cartRepository.findByUserId(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Корзина не найдена"));
+        return new CartTotals(
+                cart.getTotalItems() != null ? cart.getTotalItems() : 0,
+                cart.getTotalAmount() != null ? cart.getTotalAmount() : BigDecimal.ZERO);
+    }
+
+    private CartTotals toCartTotals(CartTotalsView view) {
+        return new CartTotals(view.getTotalItems(), view.getTotalAmount());
+    }
+
     /**
      * Конвертировать Cart в CartResponseDTO
      */
@@ -349,6 +576,34 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
 
+    /**
+     * Конвертировать строку запроса корзины в CartItemDTO
+     */
+    private CartItemDTO toCartItemDTO(CartLineView line) {
+        List<String> imageUrls = line.getAdditionalImages() != null
+                ? Arrays.asList(line.getAdditionalImages().split("\n"))
+                : null;
+
+        return CartItemDTO.builder()
+                .id(line.getProductId())
+                .name(line.getName())
+                .brand(line.getBrand())
+                .sku(line.getSku())
+                .imageUrl(line.getImageUrl())
+                .oldPrice(line.getOldPrice())
+                .isActive(line.getIsActive())
+                .quantity(line.getQuantity())
+                .price(line.getPrice())
+                .totalPrice(line.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())))
+                .description(line.getDescription())
+                .specifications(line.getSpecifications())
+                .isFeatured(line.getIsFeatured())
+                .createdAt(line.getProductCreatedAt())
+                .updatedAt(line.getProductUpdatedAt())
+                .additionalImages(imageUrls)
+                .build();
+    }
+
     /**
      * Конвертировать CartItem в CartItemDTO
      */
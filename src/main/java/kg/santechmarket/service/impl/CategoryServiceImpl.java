@@ -1,12 +1,17 @@
 package kg.santechmarket.service.impl;
 
+import kg.santechmarket.config.CacheConfig;
 import kg.santechmarket.dto.CategoryDto;
+import kg.santechmarket.dto.CategoryTreeDTO;
 import kg.santechmarket.entity.Category;
+import kg.santechmarket.event.CatalogChangedEvent;
 import kg.santechmarket.repository.CategoryRepository;
 import kg.santechmarket.repository.ProductRepository;
 import kg.santechmarket.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +36,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Optional<Category> findById(Long id) {
@@ -88,6 +94,8 @@ public class CategoryServiceImpl implements CategoryService {
         log.info("Категория создана: {} с ID {} и порядком {}",
                 savedCategory.getName(), savedCategory.getId(), savedCategory.getDisplayOrder());
 
+        eventPublisher.publishEvent(CatalogChangedEvent.categories());
+
         return savedCategory;
     }
 
@@ -119,6 +127,8 @@ public class CategoryServiceImpl implements CategoryService {
         Category savedCategory = categoryRepository.save(existingCategory);
         log.info("Категория обновлена: {}", savedCategory.getName());
 
+        eventPublisher.publishEvent(CatalogChangedEvent.categories());
+
         return savedCategory;
     }
 
@@ -142,6 +152,7 @@ public class CategoryServiceImpl implements CategoryService {
         categoryRepository.save(category);
 
         log.info("Категория деактивирована: {}", category.getName());
+        eventPublisher.publishEvent(CatalogChangedEvent.categories());
     }
 
     @Override
@@ -156,6 +167,7 @@ public class CategoryServiceImpl implements CategoryService {
         categoryRepository.save(category);
 
         log.info("Категория активирована: {}", category.getName());
+        eventPublisher.publishEvent(CatalogChangedEvent.categories());
     }
 
     @Override
@@ -174,6 +186,7 @@ public class CategoryServiceImpl implements CategoryService {
         categoryRepository.save(category);
 
         log.info("Порядок категории '{}' изменен на {}", category.getName(), newOrder);
+        eventPublisher.publishEvent(CatalogChangedEvent.categories());
     }
 
     @Override
@@ -261,9 +274,14 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
-    public List<Category> getCategoryTree() {
+    @Cacheable(CacheConfig.CATEGORY_TREE)
+    public List<CategoryTreeDTO> getCategoryTree() {
         log.debug("Получение дерева категорий");
-        return categoryRepository.findAllRootCategoriesWithSubcategories();
+
+        // В кэш кладем неизменяемые DTO: все уровни подкатегорий загружаются здесь, внутри транзакции
+        return categoryRepository.findAllRootCategoriesWithSubcategories().stream()
+                .map(CategoryTreeDTO::from)
+                .toList();
     }
 
     @Override
@@ -332,6 +350,8 @@ public class CategoryServiceImpl implements CategoryService {
             log.info("Категория {} перемещена к родителю {}", categoryId, newParentId);
         }
 
+        eventPublisher.publishEvent(CatalogChangedEvent.categories());
+
         return categoryRepository.save(category);
     }
 
@@ -0,0 +1,148 @@
+package kg.santechmarket.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kg.santechmarket.dto.OrderResponseDTO;
+import kg.santechmarket.entity.IdempotencyKey;
+import kg.santechmarket.repository.IdempotencyKeyRepository;
+import kg.santechmarket.service.IdempotencyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Сервис идемпотентности создания заказов
+ * <p>
+ * Ключ захватывается INSERT ... ON CONFLICT DO NOTHING в той же транзакции, что и оформление
+ * заказа. Параллельный дубль ждёт на уникальном индексе, пока первая транзакция не завершится:
+ * после коммита он читает сохранённый ответ, после отката - выполняет запрос сам.
+ * Недавние ответы дополнительно хранятся в памяти, чтобы частые повторы не шли в БД.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration keyTtl;
+    private final Cache<String, OrderResponseDTO> recentResponses;
+
+    public IdempotencyServiceImpl(IdempotencyKeyRepository idempotencyKeyRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${app.idempotency.cache-ttl-minutes:10}") long cacheTtlMinutes) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.keyTtl = Duration.ofHours(ttlHours);
+        this.recentResponses = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    /**
+     * Выполнить создание заказа не более одного раза для ключа
+     */
+    @Override
+    public OrderResponseDTO execute(Long userId, String key, String endpoint, String requestData,
+                                    Supplier<OrderResponseDTO> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key должен содержать от 1 до " + MAX_KEY_LENGTH + " символов");
+        }
+
+        String requestHash = sha256(endpoint + "\n" + requestData);
+        String cacheKey = userId + ":" + key;
+
+        OrderResponseDTO cached = recentResponses.getIfPresent(cacheKey + ":" + requestHash);
+        if (cached != null) {
+            log.info("Повтор запроса {} с ключом {} пользователя {} (из кэша)", endpoint, key, userId);
+            return cached;
+        }
+
+        OrderResponseDTO response = transactionTemplate.execute(status -> {
+            int acquired = idempotencyKeyRepository.tryAcquire(
+                    userId, key, endpoint, requestHash, LocalDateTime.now().plus(keyTtl));
+
+            if (acquired == 0) {
+                return replay(userId, key, requestHash);
+            }
+
+            OrderResponseDTO result = action.get();
+            idempotencyKeyRepository.complete(userId, key, result.getId(), toJson(result));
+            return result;
+        });
+
+        recentResponses.put(cacheKey + ":" + requestHash, response);
+        return response;
+    }
+
+    /**
+     * Удалить истёкшие ключи
+     */
+    @Override
+    public int deleteExpiredKeys() {
+        Integer deleted = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.deleteExpired(LocalDateTime.now()));
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * Вернуть сохранённый ответ первого выполнения
+     */
+    private OrderResponseDTO replay(Long userId, String key, String requestHash) {
+        IdempotencyKey stored = idempotencyKeyRepository.findByUserIdAndIdempotencyKey(userId, key)
+                .orElseThrow(() -> new IllegalStateException("Ключ идемпотентности не найден: " + key));
+
+        if (!stored.getRequestHash().equals(requestHash)) {
+            throw new IllegalArgumentException("Idempotency-Key уже использован для другого запроса");
+        }
+        if (stored.getResponseBody() == null) {
+            throw new IllegalStateException("Запрос с этим Idempotency-Key ещё обрабатывается");
+        }
+
+        log.info("Повтор запроса {} с ключом {} пользователя {}, заказ {}",
+                stored.getEndpoint(), key, userId, stored.getOrderId());
+        return fromJson(stored.getResponseBody());
+    }
+
+    private String toJson(OrderResponseDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ запроса", e);
+        }
+    }
+
+    private OrderResponseDTO fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохранённый ответ запроса", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
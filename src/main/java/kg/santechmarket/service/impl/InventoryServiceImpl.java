@@ -0,0 +1,141 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.OrderItem;
+import kg.santechmarket.entity.ProductStock;
+import kg.santechmarket.exception.InsufficientStockException;
+import kg.santechmarket.repository.ProductRepository;
+import kg.santechmarket.repository.ProductStockRepository;
+import kg.santechmarket.repository.ProductStockRepository.ReservationView;
+import kg.santechmarket.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Сервис складских остатков и резервирования
+ * <p>
+ * Резерв каждой позиции - один условный UPDATE (reserved = reserved + q WHERE on_hand - reserved >= q).
+ * Позиции обрабатываются в порядке возрастания ID товара: все транзакции берут блокировки
+ * строк остатков в одном порядке, поэтому взаимных блокировок не возникает.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class InventoryServiceImpl implements InventoryService {
+
+    private static final int RESERVED = 1;
+    private static final int INSUFFICIENT = 0;
+
+    private final ProductStockRepository productStockRepository;
+    private final ProductRepository productRepository;
+
+    /**
+     * Зарезервировать товары заказа
+     */
+    @Transactional
+    public void reserveForOrder(Order order) {
+        // TreeMap задаёт детерминированный порядок блокировок и объединяет повторы товара
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            int result = productStockRepository.reserve(order.getId(), entry.getKey(), entry.getValue());
+            if (result == INSUFFICIENT) {
+                // Исключение откатывает транзакцию заказа вместе с уже сделанными резервами
+                throw new InsufficientStockException(entry.getKey(),
+                        "Недостаточно товара на складе: " + productName(order, entry.getKey()));
+            }
+            if (result == RESERVED) {
+                log.debug("Зарезервировано {} ед. товара {} под заказ {}",
+                        entry.getValue(), entry.getKey(), order.getId());
+            }
+        }
+    }
+
+    /**
+     * Снять резервы заказов
+     */
+    @Transactional
+    public void releaseForOrders(Collection<Long> orderIds) {
+        Map<Long, Integer> quantities = takeReservations(orderIds);
+        quantities.forEach(productStockRepository::release);
+        if (!quantities.isEmpty()) {
+            log.info("Сняты резервы заказов {} по {} товарам", orderIds, quantities.size());
+        }
+    }
+
+    /**
+     * Списать резервы заказов со склада
+     */
+    @Transactional
+    public void consumeForOrders(Collection<Long> orderIds) {
+        Map<Long, Integer> quantities = takeReservations(orderIds);
+        quantities.forEach(productStockRepository::consume);
+        if (!quantities.isEmpty()) {
+            log.info("Списаны резервы заказов {} по {} товарам", orderIds, quantities.size());
+        }
+    }
+
+    /**
+     * Получить остаток товара
+     */
+    public Optional<ProductStock> getStock(Long productId) {
+        return productStockRepository.findById(productId);
+    }
+
+    /**
+     * Установить физический остаток товара
+     */
+    @Transactional
+    public ProductStock setOnHand(Long productId, int onHand) {
+        if (onHand < 0) {
+            throw new IllegalArgumentException("Остаток не может быть отрицательным");
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Товар не найден: " + productId);
+        }
+
+        if (productStockRepository.setOnHand(productId, onHand) == 0) {
+            throw new IllegalArgumentException("Остаток не может быть меньше зарезервированного количества");
+        }
+
+        log.info("Остаток товара {} установлен: {}", productId, onHand);
+        return productStockRepository.findById(productId)
+                .orElseThrow(() -> new IllegalStateException("Остаток товара не найден: " + productId));
+    }
+
+    /**
+     * Удалить резервы заказов и сгруппировать их по товарам в порядке ID
+     */
+    private Map<Long, Integer> takeReservations(Collection<Long> orderIds) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        if (orderIds.isEmpty()) {
+            return quantities;
+        }
+
+        List<ReservationView> reservations = productStockRepository.deleteReservations(orderIds);
+        for (ReservationView reservation : reservations) {
+            quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private String productName(Order order, Long productId) {
+        return order.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(productId))
+                .map(OrderItem::getProductName)
+                .findFirst()
+                .orElse(String.valueOf(productId));
+    }
+}
@@ -0,0 +1,198 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.dto.BroadcastProgressDTO;
+import kg.santechmarket.dto.NotificationResponseDTO;
+import kg.santechmarket.entity.NotificationBroadcast;
+import kg.santechmarket.enums.BroadcastStatus;
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.event.UserStreamEvent;
+import kg.santechmarket.repository.NotificationBroadcastRepository;
+import kg.santechmarket.repository.NotificationBroadcastRepository.BroadcastFeedView;
+import kg.santechmarket.repository.NotificationBroadcastRepository.BroadcastProgressView;
+import kg.santechmarket.service.NotificationBroadcastService;
+import kg.santechmarket.util.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Сервис массовых рассылок уведомлений
+ * <p>
+ * Рассылка всем пользователям стоит одну строку: уведомления не копируются, а подмешиваются
+ * в ленту при чтении. Пользователь хранит водяной знак last_seen_broadcast_id, а отметки
+ * о прочтении выше него и о скрытии лежат в broadcast_receipts.
+ * <p>
+ * Рассылка по списку получателей доставляется порциями INSERT ... SELECT: одна порция -
+ * один оператор и один коммит. Прогресс (delivered_count, last_user_id) фиксируется
+ * в той же транзакции, что и порция.
+ * <p>
+ * После коммита публикации и каждой порции открытые SSE-потоки получают событие broadcast.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class NotificationBroadcastServiceImpl implements NotificationBroadcastService {
+
+    private final NotificationBroadcastRepository broadcastRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public NotificationBroadcastServiceImpl(NotificationBroadcastRepository broadcastRepository,
+                                            ApplicationEventPublisher eventPublisher,
+                                            @Value("${app.notifications.broadcast.chunk-size:1000}") int chunkSize) {
+        this.broadcastRepository = broadcastRepository;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Создать рассылку: всем пользователям - сразу опубликовать, по списку - поставить воркеру
+     */
+    @Override
+    @Transactional
+    public Long startBroadcast(NotificationType type, String title, String content,
+                               List<Long> userIds, String metadata) {
+        if (userIds == null) {
+            Long broadcastId = broadcastRepository.publishToAll(type.name(), title, content, metadata);
+            eventPublisher.publishEvent(UserStreamEvent.broadcast(broadcastId));
+            log.info("Опубликована рассылка всем пользователям {} '{}'", broadcastId, title);
+            return broadcastId;
+        }
+        if (userIds.isEmpty()) {
+            throw new IllegalArgumentException("Список получателей рассылки пуст");
+        }
+
+        NotificationBroadcast broadcast = new NotificationBroadcast();
+        broadcast.setType(type);
+        broadcast.setTitle(title);
+        broadcast.setContent(content);
+        broadcast.setMetadata(metadata);
+        broadcast.setRecipientIds(userIds.stream().distinct().toArray(Long[]::new));
+
+        Long broadcastId = broadcastRepository.saveAndFlush(broadcast).getId();
+        broadcastRepository.countRecipients(broadcastId);
+
+        log.info("Создана рассылка {} '{}' для {} получателей", broadcastId, title, userIds.size());
+        return broadcastId;
+    }
+
+    /**
+     * Доставить следующую порцию рассылки в отдельной транзакции
+     */
+    @Override
+    @Transactional
+    public Optional<BroadcastProgressDTO> deliverNextChunk(Long broadcastId) {
+        Optional<BroadcastProgressView> progress = broadcastRepository.deliverChunk(broadcastId, chunkSize);
+        progress.ifPresent(view -> eventPublisher.publishEvent(UserStreamEvent.broadcast(broadcastId)));
+        return progress.map(this::toProgressDTO);
+    }
+
+    /**
+     * Получить прогресс рассылки
+     */
+    @Override
+    public BroadcastProgressDTO getProgress(Long broadcastId) {
+        return broadcastRepository.findProgress(broadcastId)
+                .map(this::toProgressDTO)
+                .orElseThrow(() -> new IllegalArgumentException("Рассылка не найдена: " + broadcastId));
+    }
+
+    /**
+     * ID незавершённых рассылок
+     */
+    @Override
+    public List<Long> findActiveBroadcastIds() {
+        return broadcastRepository.findActiveIds();
+    }
+
+    /**
+     * Рассылки всем в ленте пользователя
+     */
+    @Override
+    public List<NotificationResponseDTO> getUserFeed(Long userId, KeysetCursor after, int limit) {
+        return broadcastRepository.findFeed(userId, after.createdAt(), after.id(), limit).stream()
+                .map(this::toNotificationDTO)
+                .toList();
+    }
+
+    /**
+     * Непрочитанные рассылки пользователя
+     */
+    @Override
+    public List<NotificationResponseDTO> getUnreadFeed(Long userId, KeysetCursor after, int limit) {
+        return broadcastRepository.findUnreadFeed(userId, after.createdAt(), after.id(), limit).stream()
+                .map(this::toNotificationDTO)
+                .toList();
+    }
+
+    @Override
+    public long countUnread(Long userId) {
+        return broadcastRepository.countUnreadFeed(userId);
+    }
+
+    /**
+     * Отметить рассылку прочитанной
+     */
+    @Override
+    @Transactional
+    public void markAsRead(Long broadcastId, Long userId) {
+        requireVisible(broadcastId, userId);
+        broadcastRepository.markRead(broadcastId, userId);
+    }
+
+    /**
+     * Скрыть рассылку из ленты пользователя
+     */
+    @Override
+    @Transactional
+    public void dismiss(Long broadcastId, Long userId) {
+        requireVisible(broadcastId, userId);
+        broadcastRepository.dismiss(broadcastId, userId);
+    }
+
+    /**
+     * Отметить все рассылки прочитанными: сдвинуть водяной знак и убрать покрытые им отметки
+     */
+    @Override
+    @Transactional
+    public void markAllAsRead(Long userId) {
+        if (broadcastRepository.advanceWatermark(userId) > 0) {
+            broadcastRepository.deleteReceiptsBelowWatermark(userId);
+        }
+    }
+
+    private void requireVisible(Long broadcastId, Long userId) {
+        if (!broadcastRepository.isVisibleTo(broadcastId, userId)) {
+            throw new IllegalArgumentException("Уведомление не найдено: " + broadcastId);
+        }
+    }
+
+    private NotificationResponseDTO toNotificationDTO(BroadcastFeedView view) {
+        return NotificationResponseDTO.builder()
+                .id(view.getId())
+                .broadcast(true)
+                .type(NotificationType.valueOf(view.getType()))
+                .title(view.getTitle())
+                .content(view.getContent())
+                .isRead(view.getIsRead())
+                .readAt(view.getReadAt())
+                .metadata(view.getMetadata())
+                .createdAt(view.getCreatedAt())
+                .updatedAt(view.getCreatedAt())
+                .build();
+    }
+
+    private BroadcastProgressDTO toProgressDTO(BroadcastProgressView view) {
+        return BroadcastProgressDTO.builder()
+                .id(view.getId())
+                .status(BroadcastStatus.valueOf(view.getStatus()))
+                .totalRecipients(view.getTotalRecipients())
+                .deliveredCount(view.getDeliveredCount())
+                .build();
+    }
+}
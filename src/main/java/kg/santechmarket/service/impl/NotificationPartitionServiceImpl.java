@@ -0,0 +1,269 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.service.NotificationPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Обслуживание помесячных секций notifications через DDL
+ * <p>
+ * Имена секций строятся только из дат, поэтому подстановка их в DDL безопасна.
+ * Удаление секции выполняется на одном соединении под advisory-блокировкой с её именем:
+ * при запуске на нескольких нодах секцию обрабатывает только одна. Секция сначала отсоединяется
+ * (короткая блокировка родительской таблицы), затем выгружается уже как отдельная таблица
+ * и удаляется вместе с вычитанием её непрочитанных уведомлений из счётчиков.
+ * Если нода упала между шагами, отсоединённая таблица будет обработана при следующем запуске.
+ */
+@Service
+@Slf4j
+public class NotificationPartitionServiceImpl implements NotificationPartitionService {
+
+    private static final String PARENT_TABLE = "notifications";
+    private static final Pattern PARTITION_NAME = Pattern.compile("^notifications_p(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean archiveEnabled;
+    private final Path archiveDir;
+
+    public NotificationPartitionServiceImpl(JdbcTemplate jdbcTemplate,
+                                            @Value("${app.notifications.partitions.archive-enabled:false}") boolean archiveEnabled,
+                                            @Value("${app.notifications.partitions.archive-dir:./archive/notifications}") String archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveDir = Path.of(archiveDir);
+    }
+
+    /**
+     * Создать недостающие секции на текущий и следующие N месяцев
+     */
+    @Override
+    public int createFuturePartitions(int monthsAhead) {
+        YearMonth current = YearMonth.now();
+        int created = 0;
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String partition = partitionName(month);
+            if (partitionExists(partition)) {
+                continue;
+            }
+
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                        partition, PARENT_TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+                created++;
+                log.info("Создана секция уведомлений {}", partition);
+            } catch (DataAccessException e) {
+                // Например, в секции DEFAULT уже есть строки этого месяца: их нужно перенести вручную
+                log.error("Не удалось создать секцию уведомлений {}: {}", partition, e.getMessage());
+            }
+        }
+
+        return created;
+    }
+
+    /**
+     * Удалить (при необходимости - выгрузив) секции, закончившиеся не позже даты отсечения
+     */
+    @Override
+    public int removePartitionsBefore(LocalDate cutoff) {
+        List<PartitionInfo> partitions = jdbcTemplate.query(
+                "SELECT c.relname, i.inhrelid IS NOT NULL AS attached " +
+                        "FROM pg_class c LEFT JOIN pg_inherits i ON i.inhrelid = c.oid " +
+                        "WHERE c.relkind = 'r' AND c.relnamespace = current_schema()::regnamespace " +
+                        "AND c.relname LIKE 'notifications\\_p%' ORDER BY c.relname",
+                (rs, rowNum) -> new PartitionInfo(rs.getString("relname"), rs.getBoolean("attached")));
+
+        int removed = 0;
+        for (PartitionInfo partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition.name());
+            if (!matcher.matches()) {
+                continue;
+            }
+
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+
+            try {
+                Boolean done = jdbcTemplate.execute((Connection connection) -> removePartition(connection, partition));
+                if (Boolean.TRUE.equals(done)) {
+                    removed++;
+                }
+            } catch (DataAccessException | UncheckedIOException e) {
+                log.error("Не удалось удалить секцию уведомлений {}: {}", partition.name(), e.getMessage());
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Отсоединить, выгрузить и удалить секцию на одном соединении
+     *
+     * @return false - секцию обрабатывает другая нода
+     */
+    private boolean removePartition(Connection connection, PartitionInfo partition) throws SQLException {
+        if (!tryLock(connection, partition.name())) {
+            return false;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            if (partition.attached()) {
+                statement.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition.name());
+            }
+
+            if (archiveEnabled) {
+                export(connection, partition.name());
+            }
+
+            drop(connection, partition.name());
+            log.info("Секция уведомлений {} удалена{}", partition.name(), archiveEnabled ? " после архивации" : "");
+            return true;
+        } finally {
+            unlock(connection, partition.name());
+        }
+    }
+
+    /**
+     * Вычесть непрочитанные уведомления секции из счётчиков и удалить секцию в одной транзакции
+     * <p>
+     * Отсоединённая секция уже не меняется, поэтому вычитание точное; при сбое до коммита
+     * откатываются и счётчики, и удаление, и секция будет обработана повторно.
+     */
+    private void drop(Connection connection, String table) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE notification_unread_counters c " +
+                    "SET unread_count = GREATEST(c.unread_count - p.unread, 0) " +
+                    "FROM (SELECT user_id, COUNT(*) AS unread FROM " + table + " WHERE is_read = false " +
+                    "GROUP BY user_id) p WHERE c.user_id = p.user_id");
+            statement.execute("DROP TABLE " + table);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Выгрузить таблицу в archive-dir/<таблица>.csv.gz потоково (курсор в отдельной транзакции)
+     */
+    private void export(Connection connection, String table) throws SQLException {
+        Path target = archiveDir.resolve(table + ".csv.gz");
+        Path temp = archiveDir.resolve(table + ".csv.gz.tmp");
+        boolean autoCommit = connection.getAutoCommit();
+        long rows = 0;
+
+        try {
+            Files.createDirectories(archiveDir);
+            connection.setAutoCommit(false);
+
+            try (Statement statement = connection.createStatement();
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(
+                         new GZIPOutputStream(Files.newOutputStream(temp)), StandardCharsets.UTF_8))) {
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet rs = statement.executeQuery("SELECT * FROM " + table + " ORDER BY id")) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    int columns = meta.getColumnCount();
+
+                    for (int i = 1; i <= columns; i++) {
+                        writer.write(i > 1 ? "," : "");
+                        writer.write(meta.getColumnName(i));
+                    }
+                    writer.write('\n');
+
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            writer.write(i > 1 ? "," : "");
+                            writer.write(csv(rs.getString(i)));
+                        }
+                        writer.write('\n');
+                        rows++;
+                    }
+                }
+            }
+
+            connection.commit();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Секция {} выгружена в {} ({} строк)", table, target, rows);
+        } catch (IOException e) {
+            connection.rollback();
+            throw new UncheckedIOException("Не удалось выгрузить секцию " + table, e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private boolean partitionExists(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition));
+    }
+
+    private boolean tryLock(Connection connection, String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(hashtext(?))")) {
+            statement.setString(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection, String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(hashtext(?))")) {
+            statement.setString(1, key);
+            statement.execute();
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_p" + month.format(SUFFIX);
+    }
+
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record PartitionInfo(String name, boolean attached) {
+    }
+}
@@ -1,20 +1,33 @@
 package kg.santechmarket.service.impl;
 
+import kg.santechmarket.dto.KeysetPageDTO;
 import kg.santechmarket.dto.NotificationResponseDTO;
 import kg.santechmarket.entity.Notification;
+import kg.santechmarket.entity.NotificationUnreadCounter;
 import kg.santechmarket.entity.Order;
 import kg.santechmarket.entity.User;
 import kg.santechmarket.enums.NotificationType;
 import kg.santechmarket.enums.OrderStatus;
+import kg.santechmarket.enums.OutboxEventType;
+import kg.santechmarket.event.UserStreamEvent;
 import kg.santechmarket.repository.NotificationRepository;
+import kg.santechmarket.repository.NotificationUnreadCounterRepository;
+import kg.santechmarket.service.NotificationBroadcastService;
+import kg.santechmarket.service.NotificationPartitionService;
 import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.OutboxService;
+import kg.santechmarket.util.KeysetCursor;
+import kg.santechmarket.util.SortedMerge;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,7 +46,22 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class NotificationServiceImpl implements NotificationService {
 
+    private static final int MAX_FEED_LIMIT = 100;
+
+    /**
+     * Порядок ленты, совпадающий с keyset-курсором: (created_at DESC, id DESC)
+     */
+    private static final Comparator<NotificationResponseDTO> NEWEST_FIRST =
+            Comparator.comparing(NotificationResponseDTO::getCreatedAt)
+                    .thenComparing(NotificationResponseDTO::getId)
+                    .reversed();
+
     private final NotificationRepository notificationRepository;
+    private final NotificationUnreadCounterRepository unreadCounterRepository;
+    private final OutboxService outboxService;
+    private final NotificationPartitionService notificationPartitionService;
+    private final NotificationBroadcastService notificationBroadcastService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Найти уведомление по ID
@@ -43,24 +71,71 @@ public class NotificationServiceImpl implements NotificationService {
     }
 
     /**
-     * Получить уведомления пользователя
+     * Получить страницу ленты пользователя
+     * <p>
+     * Личные уведомления и рассылки всем хранятся раздельно и сливаются при чтении.
+     * Оба источника читаются keyset-страницей после одного и того же курсора по своим индексам
+     * (limit + 1 записей каждый), поэтому стоимость страницы не зависит от её номера и длины истории.
+     */
+    public KeysetPageDTO<NotificationResponseDTO> getUserNotifications(Long userId, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_FEED_LIMIT);
+
+        List<NotificationResponseDTO> personal = notificationRepository
+                .findUserFeedPage(userId, after.createdAt(), after.id(), pageSize + 1).stream()
+                .map(this::toNotificationResponseDTO)
+                .toList();
+        List<NotificationResponseDTO> broadcasts = notificationBroadcastService.getUserFeed(userId, after, pageSize + 1);
+
+        return mergePage(personal, broadcasts, pageSize);
+    }
+
+    /**
+     * Получить страницу непрочитанных уведомлений и рассылок пользователя
+     * <p>
+     * Личные непрочитанные читаются по частичному индексу idx_notifications_user_unread.
      */
-    public Page<Notification> getUserNotifications(Long userId, Pageable pageable) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+    public KeysetPageDTO<NotificationResponseDTO> getUnreadNotifications(Long userId, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_FEED_LIMIT);
+
+        List<NotificationResponseDTO> personal = notificationRepository
+                .findUnreadFeedPage(userId, after.createdAt(), after.id(), pageSize + 1).stream()
+                .map(this::toNotificationResponseDTO)
+                .toList();
+        List<NotificationResponseDTO> broadcasts = notificationBroadcastService.getUnreadFeed(userId, after, pageSize + 1);
+
+        return mergePage(personal, broadcasts, pageSize);
     }
 
     /**
-     * Получить непрочитанные уведомления пользователя
+     * Слить страницы двух источников и выставить курсор по последней отданной записи
      */
-    public List<Notification> getUnreadNotifications(Long userId) {
-        return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId);
+    private KeysetPageDTO<NotificationResponseDTO> mergePage(List<NotificationResponseDTO> personal,
+                                                             List<NotificationResponseDTO> broadcasts,
+                                                             int pageSize) {
+        List<NotificationResponseDTO> rows = SortedMerge.merge(List.of(personal, broadcasts), NEWEST_FIRST, 0, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<NotificationResponseDTO> page = hasNext ? rows.subList(0, pageSize) : rows;
+        NotificationResponseDTO last = hasNext ? page.get(page.size() - 1) : null;
+
+        return KeysetPageDTO.<NotificationResponseDTO>builder()
+                .items(page)
+                .nextCursor(last != null ? KeysetCursor.encode(last.getCreatedAt(), last.getId()) : null)
+                .build();
     }
 
     /**
-     * Получить количество непрочитанных уведомлений
+     * Получить количество непрочитанных уведомлений (включая рассылки)
+     * <p>
+     * Личные уведомления берутся из счётчика по первичному ключу,
+     * рассылки всем считаются по небольшой таблице выше водяного знака пользователя.
      */
     public long getUnreadNotificationCount(Long userId) {
-        return notificationRepository.countByUserIdAndIsReadFalse(userId);
+        long personal = unreadCounterRepository.findById(userId)
+                .map(NotificationUnreadCounter::getUnreadCount)
+                .orElse(0);
+        return personal + notificationBroadcastService.countUnread(userId);
     }
 
     /**
@@ -83,30 +158,44 @@ public class NotificationServiceImpl implements NotificationService {
         notification.setMetadata(metadata);
 
         Notification savedNotification = notificationRepository.save(notification);
+        unreadCounterRepository.addDelta(userId, 1);
+        eventPublisher.publishEvent(UserStreamEvent.notification(userId, toNotificationResponseDTO(savedNotification)));
         log.info("Уведомление создано: {} для пользователя {}", title, userId);
 
         return savedNotification;
     }
 
+    /**
+     * Поставить уведомление в outbox: оно будет создано после коммита транзакции заказа
+     */
+    private void enqueueNotification(Long userId, NotificationType type,
+                                     String title, String content, String metadata) {
+        outboxService.enqueue(OutboxEventType.NOTIFICATION,
+                new OutboxService.NotificationPayload(userId, type, title, content, metadata));
+    }
+
     /**
      * Отметить уведомление как прочитанное
      */
     @Transactional
-    public void markAsRead(Long notificationId, Long userId) {
+    public void markAsRead(Long notificationId, Long userId, LocalDateTime createdAt) {
         log.debug("Отметка уведомления {} как прочитанное пользователем {}", notificationId, userId);
 
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new IllegalArgumentException("Уведомление не найдено: " + notificationId));
-
-        // Проверяем, что уведомление принадлежит пользователю
-        if (!notification.getUser().getId().equals(userId)) {
-            throw new IllegalArgumentException("Уведомление не принадлежит пользователю");
+        // Отметка, проверка владельца и счётчик - один оператор
+        long marked = createdAt != null
+                ? notificationRepository.markAsReadInPartition(notificationId, userId, createdAt)
+                : notificationRepository.markAsRead(notificationId, userId);
+        if (marked > 0) {
+            log.info("Уведомление {} отмечено как прочитанное", notificationId);
+            return;
         }
 
-        if (!notification.getIsRead()) {
-            notification.markAsRead();
-            notificationRepository.save(notification);
-            log.info("Уведомление {} отмечено как прочитанное", notificationId);
+        // Ничего не изменено: уведомление уже прочитано или не найдено у пользователя
+        boolean exists = createdAt != null
+                ? notificationRepository.existsByIdAndUserIdAndCreatedAt(notificationId, userId, createdAt)
+                : notificationRepository.existsByIdAndUserId(notificationId, userId);
+        if (!exists) {
+            throw new IllegalArgumentException("Уведомление не найдено: " + notificationId);
         }
     }
 
@@ -115,18 +204,11 @@ public class NotificationServiceImpl implements NotificationService {
      */
     @Transactional
     public void markAllAsRead(Long userId) {
-        log.info("Отметка всех уведомлений как прочитанные для пользователя: {}", userId);
+        long marked = notificationRepository.markAllAsRead(userId);
+        notificationBroadcastService.markAllAsRead(userId);
 
-        List<Notification> unreadNotifications = notificationRepository.findByUserIdAndIsReadFalse(userId);
-
-        for (Notification notification : unreadNotifications) {
-            notification.markAsRead();
-        }
-
-        if (!unreadNotifications.isEmpty()) {
-            notificationRepository.saveAll(unreadNotifications);
-            log.info("Отмечено {} уведомлений как прочитанные для пользователя {}",
-                    unreadNotifications.size(), userId);
+        if (marked > 0) {
+            log.info("Отмечено {} уведомлений как прочитанные для пользователя {}", marked, userId);
         }
     }
 
@@ -134,18 +216,16 @@ public class NotificationServiceImpl implements NotificationService {
      * Удалить уведомление
      */
     @Transactional
-    public void deleteNotification(Long notificationId, Long userId) {
+    public void deleteNotification(Long notificationId, Long userId, LocalDateTime createdAt) {
         log.info("Удаление уведомления {} пользователем {}", notificationId, userId);
 
-        Notification notification = notificationRepository.findById(notificationId)
-                .orElseThrow(() -> new IllegalArgumentException("Уведомление не найдено: " + notificationId));
-
-        // Проверяем, что уведомление принадлежит пользователю
-        if (!notification.getUser().getId().equals(userId)) {
-            throw new IllegalArgumentException("Уведомление не принадлежит пользователю");
+        // Удаление, проверка владельца и счётчик - один оператор
+        long deleted = createdAt != null
+                ? notificationRepository.deleteOwnedInPartition(notificationId, userId, createdAt)
+                : notificationRepository.deleteOwned(notificationId, userId);
+        if (deleted == 0) {
+            throw new IllegalArgumentException("Уведомление не найдено: " + notificationId);
         }
-
-        notificationRepository.delete(notification);
         log.info("Уведомление {} удалено", notificationId);
     }
 
@@ -162,7 +242,7 @@ public class NotificationServiceImpl implements NotificationService {
         String metadata = String.format("{\"order_id\": %d, \"order_number\": \"%s\"}",
                 order.getId(), order.getOrderNumber());
 
-        createNotification(order.getUser().getId(), NotificationType.ORDER_UPDATE, title, content, metadata);
+        enqueueNotification(order.getUser().getId(), NotificationType.ORDER_UPDATE, title, content, metadata);
     }
 
     /**
@@ -170,14 +250,29 @@ public class NotificationServiceImpl implements NotificationService {
      */
     @Transactional
     public void sendOrderStatusUpdateNotification(Order order, OrderStatus oldStatus) {
+        outboxService.enqueue(OutboxEventType.NOTIFICATION, statusUpdatePayload(new OrderStatusChange(
+                order.getId(), order.getOrderNumber(), order.getUser().getId(), oldStatus, order.getStatus())));
+    }
+
+    /**
+     * Отправить уведомления об изменении статуса нескольких заказов
+     */
+    @Transactional
+    public void sendOrderStatusUpdateNotifications(List<OrderStatusChange> changes) {
+        outboxService.enqueueAll(OutboxEventType.NOTIFICATION, changes.stream()
+                .map(this::statusUpdatePayload)
+                .toList());
+    }
+
+    private OutboxService.NotificationPayload statusUpdatePayload(OrderStatusChange change) {
         String title = "Статус заказа изменен";
-        String content = getStatusUpdateMessage(order.getOrderNumber(), order.getStatus());
+        String content = getStatusUpdateMessage(change.orderNumber(), change.newStatus());
         String metadata = String.format(
                 "{\"order_id\": %d, \"order_number\": \"%s\", \"old_status\": \"%s\", \"new_status\": \"%s\"}",
-                order.getId(), order.getOrderNumber(), oldStatus, order.getStatus()
+                change.orderId(), change.orderNumber(), change.oldStatus(), change.newStatus()
         );
 
-        createNotification(order.getUser().getId(), NotificationType.ORDER_UPDATE, title, content, metadata);
+        return new OutboxService.NotificationPayload(change.userId(), NotificationType.ORDER_UPDATE, title, content, metadata);
     }
 
     /**
@@ -196,22 +291,16 @@ public class NotificationServiceImpl implements NotificationService {
                 order.getId(), order.getOrderNumber(), reason != null ? reason : ""
         );
 
-        createNotification(order.getUser().getId(), NotificationType.ORDER_UPDATE, title, content, metadata);
+        enqueueNotification(order.getUser().getId(), NotificationType.ORDER_UPDATE, title, content, metadata);
     }
 
     /**
-     * Отправить массовое уведомление всем пользователям
+     * Отправить массовое уведомление (создать рассылку)
      */
     @Transactional
-    public void sendBroadcastNotification(NotificationType type, String title, String content,
+    public Long sendBroadcastNotification(NotificationType type, String title, String content,
                                           List<Long> userIds, String metadata) {
-        log.info("Отправка массового уведомления '{}' для {} пользователей", title, userIds.size());
-
-        for (Long userId : userIds) {
-            createNotification(userId, type, title, content, metadata);
-        }
-
-        log.info("Массовое уведомление отправлено {} пользователям", userIds.size());
+        return notificationBroadcastService.startBroadcast(type, title, content, userIds, metadata);
     }
 
     /**
@@ -232,16 +321,28 @@ public class NotificationServiceImpl implements NotificationService {
 
     /**
      * Очистка старых уведомлений (старше N дней)
+     * <p>
+     * Удаляются целые месячные секции, полностью вышедшие за срок хранения, поэтому
+     * уведомления живут от N дней до N дней плюс месяц. DDL выполняется вне транзакции.
      */
-    @Transactional
-    public void cleanupOldNotifications(int daysThreshold) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int cleanupOldNotifications(int daysThreshold) {
         log.info("Очистка уведомлений старше {} дней", daysThreshold);
 
-        int deletedCount = notificationRepository.deleteOldNotifications(daysThreshold);
+        int removedPartitions = notificationPartitionService.removePartitionsBefore(
+                LocalDate.now().minusDays(daysThreshold));
 
-        if (deletedCount > 0) {
-            log.info("Удалено {} старых уведомлений", deletedCount);
+        if (removedPartitions > 0) {
+            log.info("Удалено месячных секций уведомлений: {}", removedPartitions);
         }
+        return removedPartitions;
+    }
+
+    /**
+     * Дата создания самого старого хранящегося уведомления (индекс idx_notifications_created_at)
+     */
+    public Optional<LocalDateTime> findOldestCreatedAt() {
+        return notificationRepository.findOldestCreatedAt();
     }
 
     /**
@@ -269,6 +370,7 @@ public class NotificationServiceImpl implements NotificationService {
 
         return NotificationResponseDTO.builder()
                 .id(notification.getId())
+                .broadcast(false)
                 .type(notification.getType())
                 .title(notification.getTitle())
                 .content(notification.getContent())
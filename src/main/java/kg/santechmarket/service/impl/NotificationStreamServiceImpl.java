@@ -0,0 +1,410 @@
+package kg.santechmarket.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import kg.santechmarket.event.UserStreamEvent;
+import kg.santechmarket.service.NotificationStreamService;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSE-поток событий пользователя с рассылкой между нодами через Postgres LISTEN/NOTIFY
+ * <p>
+ * После коммита событие получает сквозной ID из user_stream_events_seq и публикуется
+ * в канал user_stream_events. Каждая нода слушает канал на отдельном соединении (не из пула),
+ * складывает события в короткий буфер пользователя для досылки по Last-Event-ID
+ * и отправляет их открытым потокам. События без получателя (рассылки) уходят во все потоки ноды
+ * и хранятся в общем буфере. Отправка и heartbeat выполняются на виртуальных потоках,
+ * поэтому медленный клиент не задерживает остальных, а простаивающее соединение
+ * не занимает платформенный поток.
+ */
+@Service
+@Slf4j
+public class NotificationStreamServiceImpl implements NotificationStreamService {
+
+    private static final String CHANNEL = "user_stream_events";
+    private static final String RESYNC = "resync";
+
+    /**
+     * Лимит NOTIFY - 8000 байт; событие крупнее уходит без данных, клиент перечитает их сам
+     */
+    private static final int MAX_NOTIFY_PAYLOAD = 7900;
+    private static final int REPLAY_EVENTS_PER_USER = 20;
+    private static final int LISTEN_POLL_MILLIS = 5000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long emitterTimeoutMillis;
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Cache<Long, ReplayLog> replayLogs;
+    private final AtomicLong evictedFloor = new AtomicLong();
+
+    /**
+     * Последние события для всех пользователей; регистрация потока и отправка таких событий
+     * выполняются под его монитором, чтобы событие не ушло в поток дважды или ни разу
+     */
+    private final ReplayLog broadcastLog = new ReplayLog(0);
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Значение последовательности на момент последнего LISTEN: более ранние события могли быть пропущены
+     */
+    private volatile long listeningSince = Long.MAX_VALUE;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public NotificationStreamServiceImpl(JdbcTemplate jdbcTemplate,
+                                         ObjectMapper objectMapper,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${spring.datasource.url}") String url,
+                                         @Value("${spring.datasource.username}") String username,
+                                         @Value("${spring.datasource.password}") String password,
+                                         @Value("${app.notifications.stream.timeout-minutes:30}") long timeoutMinutes,
+                                         @Value("${app.notifications.stream.replay-minutes:5}") long replayMinutes,
+                                         @Value("${app.notifications.stream.replay-max-bytes:67108864}") long replayMaxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.emitterTimeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.replayLogs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(replayMinutes))
+                .maximumWeight(replayMaxBytes)
+                .weigher((Long userId, ReplayLog replayLog) -> replayLog.bytes())
+                .removalListener((Long userId, ReplayLog replayLog, RemovalCause cause) -> {
+                    if (replayLog != null && cause.wasEvicted()) {
+                        evictedFloor.accumulateAndGet(replayLog.lastId(), Math::max);
+                    }
+                })
+                .build();
+
+        Gauge.builder("santech.notifications.stream.subscribers", this, NotificationStreamServiceImpl::subscriberCount)
+                .description("Открытые SSE-потоки уведомлений на ноде")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Открыть поток и, если клиент переподключается, дослать пропущенные события
+     */
+    @Override
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        emitter.onCompletion(() -> unsubscribe(userId, emitter));
+        emitter.onTimeout(() -> unsubscribe(userId, emitter));
+        emitter.onError(e -> unsubscribe(userId, emitter));
+
+        // Регистрация и снимок буфера под блокировкой ключа: событие попадёт либо в досылку, либо в живую отправку
+        List<StreamMessage> missed = new ArrayList<>();
+        boolean[] resync = new boolean[1];
+        replayLogs.asMap().compute(userId, (id, replayLog) -> {
+            synchronized (broadcastLog) {
+                subscribers.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(emitter);
+                if (lastEventId != null) {
+                    long floor = Math.max(listeningSince, replayLog != null ? replayLog.floorId() : evictedFloor.get());
+                    if (lastEventId < Math.max(floor, broadcastLog.floorId())) {
+                        resync[0] = true;
+                    } else {
+                        if (replayLog != null) {
+                            missed.addAll(replayLog.after(lastEventId));
+                        }
+                        missed.addAll(broadcastLog.after(lastEventId));
+                    }
+                }
+            }
+            return replayLog;
+        });
+        missed.sort(Comparator.comparingLong(StreamMessage::id));
+
+        try {
+            if (resync[0]) {
+                emitter.send(SseEmitter.event().name(RESYNC).data("{}"));
+            }
+            for (StreamMessage message : missed) {
+                emitter.send(toEvent(message));
+            }
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+
+        log.debug("Открыт поток уведомлений пользователя {} (Last-Event-ID: {}, дослано {}{})",
+                userId, lastEventId, missed.size(), resync[0] ? ", resync" : "");
+        return emitter;
+    }
+
+    /**
+     * Отправить heartbeat-комментарий во все потоки ноды
+     */
+    @Override
+    public void sendHeartbeat() {
+        subscribers.forEach((userId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                sendExecutor.execute(() -> send(userId, emitter, SseEmitter.event().comment("heartbeat")));
+            }
+        });
+    }
+
+    @Override
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Опубликовать событие для всех нод после коммита транзакции, в которой оно возникло
+     * <p>
+     * NOTIFY транзакционный, поэтому выполняется в отдельной транзакции. Ошибка не пробрасывается:
+     * данные уже закоммичены, а клиент получит их при следующем чтении.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserStreamEvent(UserStreamEvent event) {
+        try {
+            ObjectNode message = objectMapper.createObjectNode()
+                    .put("userId", event.userId())
+                    .put("type", event.type());
+            message.set("data", objectMapper.valueToTree(event.payload()));
+
+            String json = message.toString();
+            if (json.getBytes(StandardCharsets.UTF_8).length > MAX_NOTIFY_PAYLOAD) {
+                message.remove("data");
+                json = message.toString();
+            }
+
+            String payload = json;
+            jdbcTemplate.execute("SELECT pg_notify(?, jsonb_set(CAST(? AS jsonb), '{id}', " +
+                    "to_jsonb(nextval('user_stream_events_seq')))::text)", (PreparedStatement statement) -> {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                return statement.execute();
+            });
+        } catch (Exception e) {
+            log.error("Не удалось опубликовать событие {} для пользователя {}: {}",
+                    event.type(), event.userId(), e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        running = true;
+        listenerThread = Thread.ofVirtual().name("user-stream-listener").start(this::listenLoop);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * Слушать канал на выделенном соединении, переподключаясь после ошибок
+     */
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                    try (ResultSet rs = statement.executeQuery("SELECT last_value FROM user_stream_events_seq")) {
+                        listeningSince = rs.next() ? rs.getLong(1) : 0;
+                    }
+                }
+                log.info("Подписка на канал {} установлена", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(LISTEN_POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                // События, опубликованные до повторного LISTEN, будут досланы через resync
+                listeningSince = Long.MAX_VALUE;
+                log.warn("Соединение LISTEN {} потеряно, переподключение через {} мс: {}",
+                        CHANNEL, RECONNECT_DELAY_MILLIS, e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Положить событие в буфер пользователя и отправить его открытым потокам ноды
+     */
+    private void dispatch(String payload) {
+        StreamMessage message;
+        try {
+            JsonNode node = objectMapper.readTree(payload);
+            JsonNode data = node.get("data");
+            JsonNode userId = node.get("userId");
+            message = new StreamMessage(node.get("id").asLong(), userId != null && !userId.isNull() ? userId.asLong() : null,
+                    node.get("type").asText(), data != null ? data.toString() : "{}");
+        } catch (IOException e) {
+            log.warn("Некорректное событие в канале {}: {}", CHANNEL, e.getMessage());
+            return;
+        }
+
+        if (message.userId() == null) {
+            dispatchToAll(message);
+            return;
+        }
+
+        List<SseEmitter> targets = new ArrayList<>();
+        replayLogs.asMap().compute(message.userId(), (id, replayLog) -> {
+            ReplayLog target = replayLog != null ? replayLog : new ReplayLog(evictedFloor.get());
+            target.append(message);
+            targets.addAll(subscribers.getOrDefault(id, Set.of()));
+            return target;
+        });
+
+        for (SseEmitter emitter : targets) {
+            sendExecutor.execute(() -> send(message.userId(), emitter, toEvent(message)));
+        }
+    }
+
+    /**
+     * Положить событие в общий буфер и отправить его всем открытым потокам ноды
+     */
+    private void dispatchToAll(StreamMessage message) {
+        Map<Long, List<SseEmitter>> targets = new HashMap<>();
+        synchronized (broadcastLog) {
+            broadcastLog.append(message);
+            subscribers.forEach((userId, emitters) -> targets.put(userId, List.copyOf(emitters)));
+        }
+
+        targets.forEach((userId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                sendExecutor.execute(() -> send(userId, emitter, toEvent(message)));
+            }
+        });
+    }
+
+    private void send(Long userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Клиент отключился: соединение закрывается, поток снимается с регистрации
+            unsubscribe(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        subscribers.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static SseEmitter.SseEventBuilder toEvent(StreamMessage message) {
+        return SseEmitter.event()
+                .id(String.valueOf(message.id()))
+                .name(message.type())
+                .data(message.data());
+    }
+
+    /**
+     * Событие потока, полученное из канала (userId null - для всех пользователей)
+     */
+    private record StreamMessage(long id, Long userId, String type, String data) {
+    }
+
+    /**
+     * Последние события пользователя для досылки по Last-Event-ID
+     * <p>
+     * floorId - ID, после которого буфер полон: более ранние события вытеснены или пришли до его создания.
+     * Изменяется только внутри compute кэша, то есть под блокировкой ключа.
+     */
+    private static final class ReplayLog {
+        private final Deque<StreamMessage> events = new ArrayDeque<>();
+        private long floorId;
+        private int bytes;
+
+        ReplayLog(long floorId) {
+            this.floorId = floorId;
+        }
+
+        void append(StreamMessage message) {
+            events.addLast(message);
+            bytes += message.data().length();
+            if (events.size() > REPLAY_EVENTS_PER_USER) {
+                StreamMessage evicted = events.removeFirst();
+                bytes -= evicted.data().length();
+                floorId = evicted.id();
+            }
+        }
+
+        List<StreamMessage> after(long lastEventId) {
+            return events.stream().filter(event -> event.id() > lastEventId).toList();
+        }
+
+        long floorId() {
+            return floorId;
+        }
+
+        long lastId() {
+            return events.isEmpty() ? floorId : events.getLast().id();
+        }
+
+        int bytes() {
+            return Math.max(bytes, 1);
+        }
+    }
+}
@@ -1,32 +1,63 @@
 package kg.santechmarket.service.impl;
 
+import kg.santechmarket.dto.BulkOrderStatusResultDTO;
+import kg.santechmarket.dto.KeysetPageDTO;
+import kg.santechmarket.dto.OrderEventDTO;
 import kg.santechmarket.dto.OrderItemDTO;
 import kg.santechmarket.dto.OrderResponseDTO;
+import kg.santechmarket.dto.OrderSummaryDTO;
 import kg.santechmarket.entity.Cart;
 import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.OrderEvent;
 import kg.santechmarket.entity.OrderItem;
+import kg.santechmarket.enums.OrderEventType;
 import kg.santechmarket.enums.OrderStatus;
+import kg.santechmarket.event.OrderSalesChangedEvent;
+import kg.santechmarket.event.UserStreamEvent;
+import kg.santechmarket.repository.OrderEventRepository;
+import kg.santechmarket.repository.OrderEventRepository.TimelineEntryView;
 import kg.santechmarket.repository.OrderRepository;
+import kg.santechmarket.repository.OrderRepository.OrderHeaderView;
+import kg.santechmarket.repository.OrderRepository.OrderItemView;
+import kg.santechmarket.repository.OrderRepository.OrderStateView;
+import kg.santechmarket.repository.OrderRepository.OrderSummaryView;
+import kg.santechmarket.repository.OrderStatusCounterRepository;
+import kg.santechmarket.repository.OrderStatusCounterRepository.StatusDriftView;
 import kg.santechmarket.service.CartService;
+import kg.santechmarket.service.InventoryService;
 import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.OrderNumberGenerator;
 import kg.santechmarket.service.OrderService;
 import kg.santechmarket.service.ProductService;
 import kg.santechmarket.service.UserService;
 import kg.santechmarket.entity.Product;
 import kg.santechmarket.entity.User;
+import kg.santechmarket.util.KeysetCursor;
 
 import java.math.BigDecimal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -44,11 +75,31 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class OrderServiceImpl implements OrderService {
 
+    /**
+     * Количество полос счётчика статусов (см. OrderStatusCounterRepository)
+     */
+    private static final int COUNTER_STRIPES = 16;
+
+    private static final int MAX_SEARCH_LIMIT = 100;
+    private static final int MAX_HISTORY_LIMIT = 50;
+    private static final int MAX_BULK_ORDERS = 200;
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final Pattern PHONE_QUERY = Pattern.compile("^[\\d\\s()+-]+$");
+    private static final int MIN_PHONE_DIGITS = 9;
+    private static final Pattern ORDER_NUMBER_FRAGMENT = Pattern.compile("^[A-Z0-9-]*\\d[A-Z0-9-]*$");
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+    private static final Sort NEWEST_FIRST_BY_ID = NEWEST_FIRST.and(Sort.by(Sort.Direction.DESC, "id"));
+
     private final OrderRepository orderRepository;
     private final CartService cartService;
     private final NotificationService notificationService;
     private final ProductService productService;
     private final UserService userService;
+    private final InventoryService inventoryService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OrderStatusCounterRepository orderStatusCounterRepository;
+    private final OrderEventRepository orderEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Найти заказ по ID
@@ -78,25 +129,24 @@ public class OrderServiceImpl implements OrderService {
     public Order createOrderFromCart(Long userId, String customerComment, String contactInfo) {
         log.info("Создание заказа из корзины пользователя: {}", userId);
 
-        // Валидируем корзину
-        cartService.validateCartForCheckout(userId);
-
-        // Синхронизируем цены в корзине
-        Cart cart = cartService.syncCartPrices(userId);
-        if (cart == null || cart.getItems().isEmpty()) {
-            throw new IllegalArgumentException("Корзина пуста или не найдена");
-        }
+        // Корзина загружается один раз: валидация и актуализация цен за один проход
+        Cart cart = cartService.prepareCartForCheckout(userId);
 
         // Создаем заказ из корзины
         Order order = Order.createFromCart(cart);
+        order.setOrderNumber(nextOrderNumber());
         order.setCustomerComment(customerComment);
         order.setContactInfo(contactInfo);
 
-        // Сохраняем заказ
+        // Сохраняем заказ и резервируем товары (при нехватке транзакция откатывается целиком)
         Order savedOrder = orderRepository.save(order);
+        inventoryService.reserveForOrder(savedOrder);
+        recordCreated(savedOrder.getStatus());
+        orderEventRepository.save(createdEvent(savedOrder, userId));
+        eventPublisher.publishEvent(OrderSalesChangedEvent.created(List.of(savedOrder.getId())));
 
-        // Очищаем корзину после успешного создания заказа
-        cartService.clearUserCart(userId);
+        // Очищаем уже загруженную корзину после успешного создания заказа
+        cart.clear();
 
         // Отправляем уведомление пользователю
         notificationService.sendOrderCreatedNotification(savedOrder);
@@ -134,6 +184,7 @@ public class OrderServiceImpl implements OrderService {
 
         // Создаем заказ
         Order order = new Order();
+        order.setOrderNumber(nextOrderNumber());
         order.setUser(user);
         order.setCustomerComment(customerComment);
         order.setContactInfo(contactInfo);
@@ -153,8 +204,12 @@ public class OrderServiceImpl implements OrderService {
         order.setTotalAmount(totalAmount);
         order.setTotalItems(quantity);
 
-        // Сохраняем заказ
+        // Сохраняем заказ и резервируем товар
         Order savedOrder = orderRepository.save(order);
+        inventoryService.reserveForOrder(savedOrder);
+        recordCreated(savedOrder.getStatus());
+        orderEventRepository.save(createdEvent(savedOrder, userId));
+        eventPublisher.publishEvent(OrderSalesChangedEvent.created(List.of(savedOrder.getId())));
 
         // Отправляем уведомление пользователю
         notificationService.sendOrderCreatedNotification(savedOrder);
@@ -166,31 +221,107 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Получить заказы пользователя
+     * Получить заказы пользователя (новые сначала)
      */
-    public Page<Order> getUserOrders(Long userId, Pageable pageable) {
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+    public Page<OrderResponseDTO> getUserOrders(Long userId, Pageable pageable) {
+        return withItems(orderRepository.findHeadersByUserId(userId, requireDefaultSort(pageable)));
     }
 
     /**
-     * Получить заказы пользователя с товарами
+     * Получить страницу заказов пользователя с товарами
+     * <p>
+     * Выборка в две фазы вместо fetch join всей истории: сначала keyset-страница заголовков
+     * заказов по индексу (user_id, created_at DESC, id DESC), затем товары только этих заказов
+     * одним запросом. Размер ответа и число запросов не зависят от длины истории.
      */
-    public List<Order> getUserOrdersWithItems(Long userId) {
-        return orderRepository.findByUserIdWithItems(userId);
+    public KeysetPageDTO<OrderResponseDTO> getUserOrdersWithItems(Long userId, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_HISTORY_LIMIT);
+
+        List<OrderHeaderView> rows = orderRepository.findUserOrderPage(userId, after.createdAt(), after.id(), pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<OrderHeaderView> page = hasNext ? rows.subList(0, pageSize) : rows;
+        if (page.isEmpty()) {
+            return KeysetPageDTO.<OrderResponseDTO>builder().items(List.of()).build();
+        }
+
+        OrderHeaderView last = page.get(page.size() - 1);
+        return KeysetPageDTO.<OrderResponseDTO>builder()
+                .items(withItems(page))
+                .nextCursor(hasNext ? KeysetCursor.encode(last.getCreatedAt(), last.getId()) : null)
+                .build();
     }
 
     /**
-     * Получить заказы по статусу
+     * Получить заказы по статусу (новые сначала)
      */
-    public Page<Order> getOrdersByStatus(OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatusOrderByCreatedAtDesc(status, pageable);
+    public Page<OrderResponseDTO> getOrdersByStatus(OrderStatus status, Pageable pageable) {
+        return withItems(orderRepository.findHeadersByStatus(status.name(), requireDefaultSort(pageable)));
     }
 
     /**
      * Поиск заказов
+     * <p>
+     * Стратегия выбирается по виду запроса, и каждая идёт по своему индексу:
+     * - "ORD-..." - диапазон по префиксу номера (B-tree);
+     * - телефон (начинается с +, содержит пробелы/скобки или от 9 цифр) - подстрока телефона клиента (триграммы);
+     * - латиница/цифры с хотя бы одной цифрой, в том числе короткие числа, - фрагмент номера заказа (триграммы);
+     * - иначе - подстрока имени клиента без учёта регистра (триграммы).
+     * Возвращаются проекции без загрузки сущностей Order и User.
+     */
+    public KeysetPageDTO<OrderSummaryDTO> searchOrders(String query, String cursor, int limit) {
+        String term = query == null ? "" : query.trim();
+        if (term.isEmpty()) {
+            throw new IllegalArgumentException("Поисковый запрос не может быть пустым");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT);
+        int fetchSize = pageSize + 1;
+        String upper = term.toUpperCase(Locale.ROOT);
+
+        List<OrderSummaryView> rows;
+        if (upper.startsWith("ORD")) {
+            // Номера заказов состоят из ASCII, поэтому символ 0x7F больше любого продолжения префикса
+            rows = orderRepository.searchByOrderNumberRange(upper, upper + '\u007f',
+                    after.createdAt(), after.id(), fetchSize);
+        } else if (isPhoneQuery(term)) {
+            String digits = term.replaceAll("\\D", "");
+            requireMinLength(digits);
+            rows = orderRepository.searchByCustomerPhone("%" + digits + "%",
+                    after.createdAt(), after.id(), fetchSize);
+        } else {
+            requireMinLength(term);
+            if (ORDER_NUMBER_FRAGMENT.matcher(upper).matches()) {
+                rows = orderRepository.searchByOrderNumberFragment("%" + escapeLike(upper) + "%",
+                        after.createdAt(), after.id(), fetchSize);
+            } else {
+                rows = orderRepository.searchByCustomerName("%" + escapeLike(term.toLowerCase(Locale.ROOT)) + "%",
+                        after.createdAt(), after.id(), fetchSize);
+            }
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<OrderSummaryView> page = hasNext ? rows.subList(0, pageSize) : rows;
+        OrderSummaryView last = hasNext ? page.get(page.size() - 1) : null;
+
+        return KeysetPageDTO.<OrderSummaryDTO>builder()
+                .items(page.stream().map(this::toOrderSummaryDTO).toList())
+                .nextCursor(last != null ? KeysetCursor.encode(last.getCreatedAt(), last.getId()) : null)
+                .build();
+    }
+
+    /**
+     * Хронология заказа: создание, смены статуса и комментарии в порядке появления
      */
-    public Page<Order> searchOrders(String searchTerm, Pageable pageable) {
-        return orderRepository.searchOrders(searchTerm, pageable);
+    public List<OrderEventDTO> getOrderTimeline(Long orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            throw new IllegalArgumentException("Заказ не найден: " + orderId);
+        }
+
+        return orderEventRepository.findTimeline(orderId).stream()
+                .map(this::toOrderEventDTO)
+                .toList();
     }
 
     /**
@@ -210,19 +341,25 @@ public class OrderServiceImpl implements OrderService {
 
         // Обновляем статус
         order.updateStatus(newStatus);
-
-        // Добавляем комментарий менеджера, если указан
-        if (managerComment != null && !managerComment.trim().isEmpty()) {
-            String existingComment = order.getManagerComment();
-            String newComment = existingComment == null ?
-                    managerComment : existingComment + "\n" + managerComment;
-            order.setManagerComment(newComment);
+        recordTransition(oldStatus, newStatus);
+
+        // Завершение списывает резерв со склада, отмена - возвращает его в доступный остаток
+        if (newStatus == OrderStatus.COMPLETED) {
+            inventoryService.consumeForOrders(List.of(orderId));
+        } else if (newStatus == OrderStatus.CANCELLED) {
+            inventoryService.releaseForOrders(List.of(orderId));
+            eventPublisher.publishEvent(OrderSalesChangedEvent.cancelled(List.of(orderId)));
         }
 
+        // Смена статуса и комментарий менеджера - строка в журнале, а не дописывание в orders
+        orderEventRepository.save(statusChangedEvent(orderId, oldStatus, newStatus, managerComment));
+
         Order savedOrder = orderRepository.save(order);
 
-        // Отправляем уведомление об изменении статуса
+        // Отправляем уведомление об изменении статуса, открытые потоки клиента получат его после коммита
         notificationService.sendOrderStatusUpdateNotification(savedOrder, oldStatus);
+        eventPublisher.publishEvent(UserStreamEvent.orderStatus(new NotificationService.OrderStatusChange(
+                orderId, savedOrder.getOrderNumber(), savedOrder.getUser().getId(), oldStatus, newStatus)));
 
         log.info("Статус заказа {} изменен с {} на {}",
                 order.getOrderNumber(), oldStatus, newStatus);
@@ -230,6 +367,102 @@ public class OrderServiceImpl implements OrderService {
         return savedOrder;
     }
 
+    /**
+     * Массовая смена статуса заказов
+     * <p>
+     * Текущие статусы читаются одним запросом с блокировкой строк, каждый переход проверяется
+     * validateStatusTransition, а допустимые применяются одним UPDATE. Счётчики, склад, журнал
+     * и уведомления обновляются пакетно; недопустимые заказы не мешают остальным и попадают
+     * в результат с причиной отказа.
+     */
+    @Transactional
+    public BulkOrderStatusResultDTO bulkUpdateStatus(List<Long> orderIds, OrderStatus newStatus, String managerComment) {
+        List<Long> requested = orderIds.stream().distinct().toList();
+        if (requested.size() > MAX_BULK_ORDERS) {
+            throw new IllegalArgumentException("За один запрос можно изменить не более " + MAX_BULK_ORDERS + " заказов");
+        }
+
+        log.info("Массовая смена статуса {} заказов на {}", requested.size(), newStatus);
+
+        Map<Long, OrderStateView> states = orderRepository.lockOrderStates(requested).stream()
+                .collect(Collectors.toMap(OrderStateView::getId, Function.identity()));
+
+        List<BulkOrderStatusResultDTO.Outcome> results = new ArrayList<>(requested.size());
+        List<OrderStateView> accepted = new ArrayList<>();
+        for (Long orderId : requested) {
+            OrderStateView state = states.get(orderId);
+            if (state == null) {
+                results.add(BulkOrderStatusResultDTO.Outcome.builder()
+                        .orderId(orderId)
+                        .error("Заказ не найден: " + orderId)
+                        .build());
+                continue;
+            }
+
+            OrderStatus oldStatus = OrderStatus.valueOf(state.getStatus());
+            BulkOrderStatusResultDTO.Outcome.OutcomeBuilder outcome = BulkOrderStatusResultDTO.Outcome.builder()
+                    .orderId(orderId)
+                    .orderNumber(state.getOrderNumber())
+                    .previousStatus(oldStatus);
+            try {
+                validateStatusTransition(oldStatus, newStatus);
+                accepted.add(state);
+                results.add(outcome.status(newStatus).success(true).build());
+            } catch (IllegalArgumentException e) {
+                results.add(outcome.status(oldStatus).error(e.getMessage()).build());
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            applyBulkTransition(accepted, newStatus, managerComment);
+        }
+
+        log.info("Массовая смена статуса на {}: изменено {}, отклонено {}",
+                newStatus, accepted.size(), requested.size() - accepted.size());
+
+        return BulkOrderStatusResultDTO.builder()
+                .updated(accepted.size())
+                .rejected(requested.size() - accepted.size())
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Применить проверенные переходы: один UPDATE и пакетные побочные изменения
+     */
+    private void applyBulkTransition(List<OrderStateView> accepted, OrderStatus newStatus, String managerComment) {
+        List<Long> ids = accepted.stream().map(OrderStateView::getId).toList();
+        orderRepository.updateStatuses(ids, newStatus.name(), LocalDateTime.now());
+
+        // Дельта счётчиков - по одной на каждый исходный статус, а не на каждый заказ
+        Map<String, Long> countsByStatus = accepted.stream()
+                .collect(Collectors.groupingBy(OrderStateView::getStatus, Collectors.counting()));
+        int stripe = randomStripe();
+        countsByStatus.forEach((status, count) -> {
+            orderStatusCounterRepository.addDelta(status, stripe, -count);
+            orderStatusCounterRepository.addDelta(newStatus.name(), stripe, count);
+        });
+
+        if (newStatus == OrderStatus.COMPLETED) {
+            inventoryService.consumeForOrders(ids);
+        } else if (newStatus == OrderStatus.CANCELLED) {
+            inventoryService.releaseForOrders(ids);
+            eventPublisher.publishEvent(OrderSalesChangedEvent.cancelled(ids));
+        }
+
+        orderEventRepository.saveAll(accepted.stream()
+                .map(state -> statusChangedEvent(state.getId(),
+                        OrderStatus.valueOf(state.getStatus()), newStatus, managerComment))
+                .toList());
+
+        List<NotificationService.OrderStatusChange> changes = accepted.stream()
+                .map(state -> new NotificationService.OrderStatusChange(state.getId(), state.getOrderNumber(),
+                        state.getUserId(), OrderStatus.valueOf(state.getStatus()), newStatus))
+                .toList();
+        notificationService.sendOrderStatusUpdateNotifications(changes);
+        changes.forEach(change -> eventPublisher.publishEvent(UserStreamEvent.orderStatus(change)));
+    }
+
     /**
      * Подтвердить заказ (PENDING -> CONFIRMED)
      */
@@ -283,15 +516,20 @@ public class OrderServiceImpl implements OrderService {
 
         OrderStatus oldStatus = order.getStatus();
         order.updateStatus(OrderStatus.CANCELLED);
+        recordTransition(oldStatus, OrderStatus.CANCELLED);
+        inventoryService.releaseForOrders(List.of(orderId));
+        eventPublisher.publishEvent(OrderSalesChangedEvent.cancelled(List.of(orderId)));
 
-        // Добавляем причину отмены в комментарий
-        String comment = "ОТМЕНЕН: " + (cancelReason != null ? cancelReason : "Без указания причины");
-        order.setManagerComment(comment);
+        // Причина отмены сохраняется в журнале, не затирая предыдущие комментарии
+        String comment = cancelReason != null && !cancelReason.isBlank() ? cancelReason : "Без указания причины";
+        orderEventRepository.save(statusChangedEvent(orderId, oldStatus, OrderStatus.CANCELLED, comment));
 
         Order savedOrder = orderRepository.save(order);
 
-        // Уведомление об отмене
+        // Уведомление об отмене, открытые потоки клиента получат смену статуса после коммита
         notificationService.sendOrderCancelledNotification(savedOrder, cancelReason);
+        eventPublisher.publishEvent(UserStreamEvent.orderStatus(new NotificationService.OrderStatusChange(
+                orderId, savedOrder.getOrderNumber(), savedOrder.getUser().getId(), oldStatus, OrderStatus.CANCELLED)));
 
         log.info("Заказ {} отменен. Причина: {}", order.getOrderNumber(), cancelReason);
 
@@ -301,34 +539,64 @@ public class OrderServiceImpl implements OrderService {
     /**
      * Получить заказы за период
      */
-    public List<Order> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return orderRepository.findOrdersByDateRange(startDate, endDate);
+    public List<OrderResponseDTO> getOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return withItems(orderRepository.findHeadersByDateRange(startDate, endDate));
     }
 
     /**
      * Получить просроченные заказы (в статусе PENDING более N часов)
      */
-    public List<Order> getOverdueOrders(int hoursThreshold) {
+    public List<OrderResponseDTO> getOverdueOrders(int hoursThreshold) {
         LocalDateTime cutoffTime = LocalDateTime.now().minusHours(hoursThreshold);
-        return orderRepository.findPendingOrdersOlderThan(cutoffTime);
+        return withItems(orderRepository.findPendingHeadersOlderThan(cutoffTime));
     }
 
     /**
-     * Получить статистику заказов
+     * Получить статистику заказов (из счётчиков, без обхода таблицы заказов)
      */
     public OrderStatistics getOrderStatistics() {
-        Map<OrderStatus, Long> statusCounts = orderRepository.getOrderStatusStatistics()
-                .stream()
-                .collect(Collectors.toMap(
-                        row -> (OrderStatus) row[0],
-                        row -> (Long) row[1]
-                ));
-
-        long totalOrders = orderRepository.count();
+        Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        long totalOrders = 0;
+
+        for (OrderStatusCounterRepository.StatusCountView row : orderStatusCounterRepository.sumByStatus()) {
+            long count = row.getOrderCount();
+            if (count > 0) {
+                statusCounts.put(OrderStatus.valueOf(row.getStatus()), count);
+                totalOrders += count;
+            }
+        }
 
         return new OrderStatistics(totalOrders, statusCounts);
     }
 
+    /**
+     * Сверить счётчики статусов с таблицей заказов
+     * <p>
+     * Сравнение выполняется одним запросом (один снимок данных). При расхождении счётчики
+     * блокируются от изменений, расхождение перепроверяется и счётчики пересчитываются.
+     */
+    @Transactional
+    public int reconcileStatusCounters() {
+        if (orderStatusCounterRepository.findDrift().isEmpty()) {
+            return 0;
+        }
+
+        orderStatusCounterRepository.lockCounters();
+        List<StatusDriftView> drift = orderStatusCounterRepository.findDrift();
+        if (drift.isEmpty()) {
+            return 0;
+        }
+
+        for (StatusDriftView row : drift) {
+            log.warn("Расхождение счётчика заказов в статусе {}: в таблице {}, в счётчике {}",
+                    row.getStatus(), row.getActual(), row.getCounted());
+        }
+
+        orderStatusCounterRepository.deleteAllCounters();
+        orderStatusCounterRepository.insertFromOrders();
+        return drift.size();
+    }
+
     /**
      * Получить количество заказов пользователя
      */
@@ -357,7 +625,7 @@ public class OrderServiceImpl implements OrderService {
                 .totalAmount(order.getTotalAmount())
                 .totalItems(order.getTotalItems())
                 .customerComment(order.getCustomerComment())
-                .managerComment(order.getManagerComment())
+                .managerComment(orderEventRepository.findManagerComment(order.getId()))
                 .contactInfo(order.getContactInfo())
                 .items(itemDTOs)
                 .createdAt(order.getCreatedAt())
@@ -367,6 +635,96 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
+    /**
+     * Номер нового заказа; номера выдаёт только OrderNumberGenerator, запасной генерации нет
+     */
+    private String nextOrderNumber() {
+        String orderNumber = orderNumberGenerator.nextOrderNumber();
+        if (orderNumber == null || orderNumber.isBlank()) {
+            throw new IllegalStateException("OrderNumberGenerator не выдал номер заказа");
+        }
+        return orderNumber;
+    }
+
+    /**
+     * Дополнить страницу заголовков товарами
+     */
+    private Page<OrderResponseDTO> withItems(Page<OrderHeaderView> headers) {
+        return new PageImpl<>(withItems(headers.getContent()), headers.getPageable(), headers.getTotalElements());
+    }
+
+    /**
+     * Дополнить заголовки заказов товарами: один запрос на все заказы вместо ленивой загрузки
+     * клиента и коллекции товаров у каждого заказа
+     */
+    private List<OrderResponseDTO> withItems(List<OrderHeaderView> headers) {
+        if (headers.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<OrderItemDTO>> itemsByOrder = orderRepository
+                .findItemViewsByOrderIds(headers.stream().map(OrderHeaderView::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemView::getOrderId,
+                        Collectors.mapping(this::toOrderItemDTO, Collectors.toList())));
+
+        return headers.stream()
+                .map(header -> toOrderResponseDTO(header, itemsByOrder.getOrDefault(header.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Порядок выборки задан в запросе (created_at DESC, id DESC), поэтому другая сортировка
+     * от клиента отклоняется, а не игнорируется молча
+     */
+    private static Pageable requireDefaultSort(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isSorted() && !sort.equals(NEWEST_FIRST) && !sort.equals(NEWEST_FIRST_BY_ID)) {
+            throw new IllegalArgumentException("Сортировка не поддерживается: заказы возвращаются от новых к старым (createdAt,desc)");
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    }
+
+    /**
+     * Конвертировать заголовок заказа и его товары в OrderResponseDTO
+     */
+    private OrderResponseDTO toOrderResponseDTO(OrderHeaderView header, List<OrderItemDTO> items) {
+        return OrderResponseDTO.builder()
+                .id(header.getId())
+                .orderNumber(header.getOrderNumber())
+                .userId(header.getUserId())
+                .userName(header.getUserName())
+                .status(OrderStatus.valueOf(header.getStatus()))
+                .totalAmount(header.getTotalAmount())
+                .totalItems(header.getTotalItems())
+                .customerComment(header.getCustomerComment())
+                .managerComment(header.getManagerComment())
+                .contactInfo(header.getContactInfo())
+                .items(items)
+                .createdAt(header.getCreatedAt())
+                .updatedAt(header.getUpdatedAt())
+                .confirmedAt(header.getConfirmedAt())
+                .completedAt(header.getCompletedAt())
+                .build();
+    }
+
+    /**
+     * Конвертировать проекцию заказа в OrderSummaryDTO
+     */
+    private OrderSummaryDTO toOrderSummaryDTO(OrderSummaryView view) {
+        return OrderSummaryDTO.builder()
+                .id(view.getId())
+                .orderNumber(view.getOrderNumber())
+                .status(OrderStatus.valueOf(view.getStatus()))
+                .totalAmount(view.getTotalAmount())
+                .totalItems(view.getTotalItems())
+                .createdAt(view.getCreatedAt())
+                .userId(view.getUserId())
+                .customerName(view.getCustomerName())
+                .customerPhone(view.getCustomerPhone())
+                .build();
+    }
+
     /**
      * Конвертировать OrderItem entity в OrderItemDTO
      */
@@ -385,6 +743,37 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
+    /**
+     * Конвертировать проекцию товара заказа в OrderItemDTO
+     */
+    private OrderItemDTO toOrderItemDTO(OrderItemView item) {
+        return OrderItemDTO.builder()
+                .id(item.getId())
+                .productId(item.getProductId())
+                .productName(item.getProductName())
+                .quantity(item.getQuantity())
+                .price(item.getPrice())
+                .totalPrice(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .productImageUrl(item.getProductImageUrl())
+                .build();
+    }
+
+    /**
+     * Конвертировать событие хронологии в OrderEventDTO
+     */
+    private OrderEventDTO toOrderEventDTO(TimelineEntryView entry) {
+        return OrderEventDTO.builder()
+                .id(entry.getId())
+                .type(OrderEventType.valueOf(entry.getEventType()))
+                .fromStatus(entry.getFromStatus() != null ? OrderStatus.valueOf(entry.getFromStatus()) : null)
+                .toStatus(entry.getToStatus() != null ? OrderStatus.valueOf(entry.getToStatus()) : null)
+                .comment(entry.getComment())
+                .actorId(entry.getActorId())
+                .actorName(entry.getActorName())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
     /**
      * Проверить, является ли пользователь владельцем заказа
      */
@@ -403,6 +792,88 @@ public class OrderServiceImpl implements OrderService {
                 .orElse(false);
     }
 
+    /**
+     * Учесть новый заказ в счётчике статусов
+     */
+    private void recordCreated(OrderStatus status) {
+        orderStatusCounterRepository.addDelta(status.name(), randomStripe(), 1);
+    }
+
+    /**
+     * Учесть смену статуса заказа в счётчиках
+     */
+    private void recordTransition(OrderStatus from, OrderStatus to) {
+        if (from != to) {
+            orderStatusCounterRepository.transfer(from.name(), to.name(), randomStripe());
+        }
+    }
+
+    /**
+     * Событие оформления заказа
+     */
+    private OrderEvent createdEvent(Order order, Long customerId) {
+        return OrderEvent.builder()
+                .orderId(order.getId())
+                .eventType(OrderEventType.CREATED)
+                .toStatus(order.getStatus())
+                .actorId(customerId)
+                .build();
+    }
+
+    /**
+     * Событие смены статуса от имени текущего пользователя
+     */
+    private OrderEvent statusChangedEvent(Long orderId, OrderStatus from, OrderStatus to, String comment) {
+        return OrderEvent.builder()
+                .orderId(orderId)
+                .eventType(OrderEventType.STATUS_CHANGED)
+                .fromStatus(from)
+                .toStatus(to)
+                .comment(comment != null && !comment.isBlank() ? comment.trim() : null)
+                .actorId(currentActorId())
+                .build();
+    }
+
+    /**
+     * ID аутентифицированного пользователя (null - действие системы, например планировщика)
+     */
+    private Long currentActorId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+
+    private int randomStripe() {
+        return ThreadLocalRandom.current().nextInt(COUNTER_STRIPES);
+    }
+
+    /**
+     * Запрос похож на номер телефона, а не на фрагмент номера заказа (8 цифр)
+     */
+    private boolean isPhoneQuery(String term) {
+        if (!PHONE_QUERY.matcher(term).matches()) {
+            return false;
+        }
+        boolean digitsOnly = term.chars().allMatch(Character::isDigit);
+        return !digitsOnly || term.length() >= MIN_PHONE_DIGITS;
+    }
+
+    /**
+     * Триграммный индекс работает с подстрокой от трёх символов
+     */
+    private void requireMinLength(String term) {
+        if (term.length() < MIN_SEARCH_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Поисковый запрос должен содержать не менее " + MIN_SEARCH_LENGTH + " символов");
+        }
+    }
+
+    /**
+     * Экранирование спецсимволов LIKE
+     */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     /**
      * Валидация перехода статуса
      */
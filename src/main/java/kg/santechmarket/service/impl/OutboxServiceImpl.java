@@ -0,0 +1,80 @@
+package kg.santechmarket.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.santechmarket.entity.OutboxEvent;
+import kg.santechmarket.enums.OutboxEventType;
+import kg.santechmarket.repository.OutboxEventRepository;
+import kg.santechmarket.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Запись событий в transactional outbox
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Записать событие в outbox в рамках текущей транзакции
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(OutboxEventType type, Object payload) {
+        outboxEventRepository.save(newEvent(type, payload, LocalDateTime.now()));
+        log.debug("Событие {} записано в outbox", type);
+    }
+
+    /**
+     * Записать события в outbox одной пакетной вставкой (id выдаются пулом последовательности)
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(OutboxEventType type, List<?> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(payloads.stream()
+                .map(payload -> newEvent(type, payload, now))
+                .toList());
+        log.debug("{} событий {} записано в outbox", payloads.size(), type);
+    }
+
+    /**
+     * Удалить доставленные события старше N дней
+     */
+    @Override
+    @Transactional
+    public int deleteSentEvents(int daysThreshold) {
+        return outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusDays(daysThreshold));
+    }
+
+    private OutboxEvent newEvent(OutboxEventType type, Object payload, LocalDateTime now) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(type);
+        event.setPayload(toJson(payload));
+        event.setNextAttemptAt(now);
+        return event;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие outbox", e);
+        }
+    }
+}
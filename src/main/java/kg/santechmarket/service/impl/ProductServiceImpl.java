@@ -2,16 +2,21 @@ package kg.santechmarket.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.santechmarket.config.CacheConfig;
+import kg.santechmarket.dto.FeaturedProductDTO;
 import kg.santechmarket.dto.FilterMetadataResponse;
 import kg.santechmarket.entity.Category;
 import kg.santechmarket.entity.Product;
 import kg.santechmarket.entity.ProductImage;
+import kg.santechmarket.event.CatalogChangedEvent;
 import kg.santechmarket.repository.CategoryRepository;
 import kg.santechmarket.repository.ProductImageRepository;
 import kg.santechmarket.repository.ProductRepository;
 import kg.santechmarket.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -40,6 +45,7 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductImageRepository productImageRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Найти товар по ID
@@ -82,8 +88,13 @@ public class ProductServiceImpl implements ProductService {
     /**
      * Получить рекомендуемые товары для главной страницы
      */
-    public List<Product> getFeaturedProducts() {
-        List<Product> featured = productRepository.findByIsActiveTrueAndIsFeaturedTrueOrderByCreatedAtDesc();
+    @Cacheable(CacheConfig.FEATURED_PRODUCTS)
+    public List<FeaturedProductDTO> getFeaturedProducts() {
+        // В кэш кладем неизменяемые DTO: изображения загружаются здесь, внутри транзакции
+        List<FeaturedProductDTO> featured = productRepository.findByIsActiveTrueAndIsFeaturedTrueOrderByCreatedAtDesc().stream()
+                .map(FeaturedProductDTO::from)
+                .toList();
+
         log.debug("Найдено {} рекомендуемых товаров", featured.size());
         return featured;
     }
@@ -141,6 +152,7 @@ public class ProductServiceImpl implements ProductService {
     /**
      * Получить все уникальные бренды
      */
+    @Cacheable(CacheConfig.BRANDS)
     public List<String> getAllBrands() {
         return productRepository.findDistinctBrands();
     }
@@ -174,6 +186,8 @@ public class ProductServiceImpl implements ProductService {
         Product savedProduct = productRepository.save(product);
         log.info("Товар создан: {} с ID {}", savedProduct.getName(), savedProduct.getId());
 
+        eventPublisher.publishEvent(CatalogChangedEvent.products());
+
         return savedProduct;
     }
 
@@ -212,6 +226,8 @@ public class ProductServiceImpl implements ProductService {
         Product savedProduct = productRepository.save(existingProduct);
         log.info("Товар обновлен: {}", savedProduct.getName());
 
+        eventPublisher.publishEvent(CatalogChangedEvent.products());
+
         return savedProduct;
     }
 
@@ -229,6 +245,7 @@ public class ProductServiceImpl implements ProductService {
         productRepository.save(product);
 
         log.info("Товар деактивирован: {}", product.getName());
+        eventPublisher.publishEvent(CatalogChangedEvent.products());
     }
 
     /**
@@ -245,6 +262,7 @@ public class ProductServiceImpl implements ProductService {
         productRepository.save(product);
 
         log.info("Товар активирован: {}", product.getName());
+        eventPublisher.publishEvent(CatalogChangedEvent.products());
     }
 
     /**
@@ -262,6 +280,7 @@ public class ProductServiceImpl implements ProductService {
 
         log.info("Товар {} теперь {}", product.getName(),
                 product.getIsFeatured() ? "рекомендуемый" : "обычный");
+        eventPublisher.publishEvent(CatalogChangedEvent.featuredProducts());
     }
 
     /**
@@ -338,6 +357,8 @@ public class ProductServiceImpl implements ProductService {
         ProductImage savedImage = productImageRepository.save(productImage);
         log.info("Изображение добавлено к товару {} с ID {}", product.getName(), savedImage.getId());
 
+        eventPublisher.publishEvent(CatalogChangedEvent.featuredProducts());
+
         return savedImage;
     }
 
@@ -363,6 +384,7 @@ public class ProductServiceImpl implements ProductService {
 
         productImageRepository.delete(image);
         log.info("Изображение удалено");
+        eventPublisher.publishEvent(CatalogChangedEvent.featuredProducts());
     }
 
     /**
@@ -380,6 +402,8 @@ public class ProductServiceImpl implements ProductService {
         ProductImage updatedImage = productImageRepository.save(image);
         log.info("Порядок изображения обновлен на {}", newOrder);
 
+        eventPublisher.publishEvent(CatalogChangedEvent.featuredProducts());
+
         return updatedImage;
     }
 
@@ -407,6 +431,8 @@ public class ProductServiceImpl implements ProductService {
         ProductImage updatedImage = productImageRepository.save(image);
         log.info("Изображение обновлено");
 
+        eventPublisher.publishEvent(CatalogChangedEvent.featuredProducts());
+
         return updatedImage;
     }
 
@@ -414,6 +440,7 @@ public class ProductServiceImpl implements ProductService {
      * Получить метаданные для фильтров (списки доступных значений)
      */
     @Override
+    @Cacheable(CacheConfig.FILTER_METADATA)
     public FilterMetadataResponse getFilterMetadata() {
         log.info("Получение метаданных для фильтров");
 
@@ -0,0 +1,130 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.dto.SalesAnalyticsPointDTO;
+import kg.santechmarket.entity.Category;
+import kg.santechmarket.enums.AnalyticsDimension;
+import kg.santechmarket.enums.AnalyticsGranularity;
+import kg.santechmarket.event.OrderSalesChangedEvent;
+import kg.santechmarket.repository.CategoryRepository;
+import kg.santechmarket.repository.SalesRollupRepository;
+import kg.santechmarket.repository.SalesRollupRepository.RollupPointView;
+import kg.santechmarket.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Аналитика продаж по агрегатам
+ * <p>
+ * Агрегаты поддерживаются инкрементально: после коммита создания или отмены заказа
+ * его позиции добавляются или вычитаются одним оператором. Ночной пересчёт последних дней
+ * по таблице заказов исправляет дельты, потерянные при сбое между коммитом и обработчиком.
+ * Запросы аналитики читают только агрегаты: дневные для DAY/WEEK/MONTH, часовые для HOUR.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final CategoryRepository categoryRepository;
+
+    /**
+     * Выручка, количество заказов и средний чек за период
+     */
+    @Override
+    public List<SalesAnalyticsPointDTO> getAnalytics(LocalDateTime from, LocalDateTime to,
+                                                     AnalyticsGranularity granularity, AnalyticsDimension dimension) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше конца");
+        }
+
+        String source = granularity == AnalyticsGranularity.HOUR ? "HOUR" : "DAY";
+        List<RollupPointView> rows = salesRollupRepository.findPoints(
+                source, dimension.name(), granularity.getTruncUnit(), from, to);
+
+        Map<String, String> names = dimension == AnalyticsDimension.CATEGORY ? categoryNames(rows) : Map.of();
+
+        List<SalesAnalyticsPointDTO> points = new ArrayList<>(rows.size());
+        for (RollupPointView row : rows) {
+            points.add(SalesAnalyticsPointDTO.builder()
+                    .bucketStart(row.getBucketStart())
+                    .dimensionKey(row.getDimensionKey())
+                    .dimensionName(dimension == AnalyticsDimension.BRAND
+                            ? row.getDimensionKey() : names.get(row.getDimensionKey()))
+                    .orderCount(row.getOrderCount())
+                    .revenue(row.getRevenue())
+                    .quantity(row.getQuantity())
+                    .averageBasket(row.getOrderCount() > 0
+                            ? row.getRevenue().divide(BigDecimal.valueOf(row.getOrderCount()), 2, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO)
+                    .build());
+        }
+        return points;
+    }
+
+    /**
+     * Применить изменение продаж после коммита транзакции заказа
+     * <p>
+     * Ошибка не пробрасывается: заказ уже закоммичен, а агрегаты исправит ночной пересчёт.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderSalesChanged(OrderSalesChangedEvent event) {
+        try {
+            salesRollupRepository.applyOrders(event.orderIds(), event.sign());
+        } catch (Exception e) {
+            log.error("Не удалось обновить агрегаты продаж для заказов {}: {}", event.orderIds(), e.getMessage());
+        }
+    }
+
+    /**
+     * Пересчитать агрегаты дней [fromDay, toDay) по таблице заказов
+     */
+    @Override
+    @Transactional
+    public void rebuild(LocalDate fromDay, LocalDate toDay) {
+        LocalDateTime from = fromDay.atStartOfDay();
+        LocalDateTime to = toDay.atStartOfDay();
+
+        // Блокировка исключает гонку с обработчиком коммитов на время пересчёта
+        salesRollupRepository.lockRollups();
+        int deleted = salesRollupRepository.deleteRange(from, to);
+        int inserted = salesRollupRepository.insertFromOrders(from, to, 1);
+
+        log.info("Агрегаты продаж за {} - {} пересчитаны: удалено {}, создано {}", fromDay, toDay, deleted, inserted);
+    }
+
+    /**
+     * Удалить часовые агрегаты старше N дней
+     */
+    @Override
+    @Transactional
+    public int pruneHourly(int retentionDays) {
+        return salesRollupRepository.deleteHourlyBefore(LocalDate.now().minusDays(retentionDays).atStartOfDay());
+    }
+
+    private Map<String, String> categoryNames(List<RollupPointView> rows) {
+        Set<Long> ids = rows.stream()
+                .map(row -> Long.valueOf(row.getDimensionKey()))
+                .collect(Collectors.toSet());
+
+        return categoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(category -> String.valueOf(category.getId()), Category::getName));
+    }
+}
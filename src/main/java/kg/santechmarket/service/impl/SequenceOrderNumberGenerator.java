@@ -0,0 +1,113 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.service.OrderNumberGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Генератор номеров заказов на основе последовательности PostgreSQL (hi/lo)
+ * <p>
+ * nextval('order_number_seq') выдаёт начало блока, шаг последовательности равен размеру блока.
+ * Нода раздаёт номера из своего блока в памяти и обращается к БД только когда блок исчерпан,
+ * поэтому большинство заказов получают номер без обращения к БД, а ноды никогда не пересекаются.
+ * Номера возрастают и в пределах дня идут по порядку (между блоками разных нод возможны пропуски).
+ * Формат совпадает с ограничением chk_orders_order_number_format: ORD-YYYYMMDD-NNNNNNNN.
+ */
+@Service
+@Slf4j
+public class SequenceOrderNumberGenerator implements OrderNumberGenerator {
+
+    private static final String PREFIX = "ORD-";
+    private static final int NUMBER_DIGITS = 8;
+    private static final long MAX_NUMBER = 99_999_999L;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ReentrantLock вместо synchronized: не закрепляет виртуальный поток на время запроса к БД
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+    private long blockEnd;
+    private long blockSize;
+    private LocalDate currentDay;
+    private String currentDayPrefix;
+
+    public SequenceOrderNumberGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Выдать следующий номер заказа
+     */
+    @Override
+    public String nextOrderNumber() {
+        long number;
+        String dayPrefix;
+
+        lock.lock();
+        try {
+            if (next >= blockEnd) {
+                allocateBlock();
+            }
+            number = next++;
+            dayPrefix = dayPrefix();
+        } finally {
+            lock.unlock();
+        }
+
+        return format(dayPrefix, number % (MAX_NUMBER + 1));
+    }
+
+    /**
+     * Получить новый блок номеров из последовательности
+     */
+    private void allocateBlock() {
+        if (blockSize == 0) {
+            Long increment = jdbcTemplate.queryForObject(
+                    "SELECT increment_by FROM pg_sequences WHERE sequencename = 'order_number_seq'", Long.class);
+            blockSize = increment != null ? increment : 1;
+        }
+
+        Long blockStart = jdbcTemplate.queryForObject("SELECT nextval('order_number_seq')", Long.class);
+        if (blockStart == null) {
+            throw new IllegalStateException("Не удалось получить блок номеров заказов");
+        }
+
+        next = blockStart;
+        blockEnd = blockStart + blockSize;
+        log.debug("Выделен блок номеров заказов [{}, {})", next, blockEnd);
+    }
+
+    /**
+     * Префикс текущего дня пересчитывается только при смене даты
+     */
+    private String dayPrefix() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(currentDay)) {
+            currentDay = today;
+            currentDayPrefix = PREFIX
+                    + today.getYear()
+                    + pad2(today.getMonthValue())
+                    + pad2(today.getDayOfMonth())
+                    + "-";
+        }
+        return currentDayPrefix;
+    }
+
+    private static String format(String dayPrefix, long number) {
+        StringBuilder builder = new StringBuilder(dayPrefix.length() + NUMBER_DIGITS).append(dayPrefix);
+        String digits = Long.toString(number);
+        for (int i = digits.length(); i < NUMBER_DIGITS; i++) {
+            builder.append('0');
+        }
+        return builder.append(digits).toString();
+    }
+
+    private static String pad2(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+}
@@ -0,0 +1,49 @@
+package kg.santechmarket.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор keyset-пагинации по (created_at DESC, id DESC)
+ * <p>
+ * Передаётся клиенту как непрозрачная строка; следующая страница начинается
+ * строго после последней записи предыдущей.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+    /**
+     * Начало выборки: раньше любой реальной записи в порядке DESC
+     */
+    public static final KeysetCursor START = new KeysetCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    /**
+     * Разобрать курсор; пустой курсор означает первую страницу
+     *
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new KeysetCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+
+    /**
+     * Курсор, указывающий на запись
+     */
+    public static String encode(LocalDateTime createdAt, Long id) {
+        String value = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,50 @@
+package kg.santechmarket.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way слияние уже отсортированных списков
+ * <p>
+ * Каждый источник читается ровно до той позиции, которая попадает в результат,
+ * поэтому для страницы [skip, skip + limit) каждому источнику достаточно отдать
+ * первые skip + limit элементов в том же порядке.
+ */
+public final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    /**
+     * Слить отсортированные списки и вернуть окно [skip, skip + limit) общего порядка
+     */
+    public static <T> List<T> merge(List<? extends List<? extends T>> sources, Comparator<? super T> order,
+                                    long skip, int limit) {
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.value, b.value));
+        for (List<? extends T> source : sources) {
+            Iterator<? extends T> iterator = source.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head<>(iterator.next(), iterator));
+            }
+        }
+
+        List<T> result = new ArrayList<>(limit);
+        long position = 0;
+        while (!heads.isEmpty() && result.size() < limit) {
+            Head<T> head = heads.poll();
+            if (position++ >= skip) {
+                result.add(head.value);
+            }
+            if (head.rest.hasNext()) {
+                heads.add(new Head<>(head.rest.next(), head.rest));
+            }
+        }
+        return result;
+    }
+
+    private record Head<T>(T value, Iterator<? extends T> rest) {
+    }
+}
@@ -0,0 +1,141 @@
+package kg.santechmarket.benchmark;
+
+import jakarta.persistence.EntityManager;
+import kg.santechmarket.dto.CartBatchItemRequestDTO;
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.enums.CartOperationMode;
+import kg.santechmarket.repository.ProductRepository;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.service.CartService;
+import kg.santechmarket.service.OrderService;
+import kg.santechmarket.support.TestUsers;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Бенчмарк оформления заказа из корзины на 1, 20 и 100 позиций
+ * <p>
+ * Требует запущенную БД с тестовыми товарами, поэтому включается явно:
+ * mvn test -Dtest=CheckoutBenchmarkTest -Dsantech.benchmarks=true
+ * Каждая итерация выполняется в отдельной транзакции, которая откатывается.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "santech.benchmarks", matches = "true")
+@Slf4j
+class CheckoutBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @ParameterizedTest(name = "checkout {0} lines")
+    @ValueSource(ints = {1, 20, 100})
+    void checkoutLatency(int lines) {
+        List<Long> productIds = productRepository.findByIsActiveTrue(PageRequest.of(0, lines)).stream()
+                .map(Product::getId)
+                .toList();
+        assumeTrue(productIds.size() == lines, "Недостаточно активных товаров для " + lines + " позиций");
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runCheckout(productIds);
+        }
+
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            samples[i] = runCheckout(productIds);
+        }
+
+        Arrays.sort(samples);
+        log.info("checkout {} lines: p50={} ms, p95={} ms, max={} ms",
+                lines,
+                samples[MEASURED_ITERATIONS / 2] / 1_000_000.0,
+                samples[(int) (MEASURED_ITERATIONS * 0.95)] / 1_000_000.0,
+                samples[MEASURED_ITERATIONS - 1] / 1_000_000.0);
+    }
+
+    @Test
+    void checkoutCreatesOrderWithAllLines() {
+        List<Long> productIds = productRepository.findByIsActiveTrue(PageRequest.of(0, 20)).stream()
+                .map(Product::getId)
+                .toList();
+        assumeTrue(!productIds.isEmpty(), "Нет активных товаров");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Long userId = TestUsers.create(userRepository, "checkout").getId();
+            cartService.applyBatch(userId, toOperations(productIds));
+            entityManager.flush();
+            entityManager.clear();
+
+            var order = orderService.createOrderFromCart(userId, null, null);
+            assertEquals(productIds.size(), order.getItems().size());
+            assertEquals(0, cartService.getCartItemCount(userId));
+
+            status.setRollbackOnly();
+        });
+    }
+
+    /**
+     * Одна итерация: наполнение корзины (не измеряется) и оформление заказа (измеряется)
+     */
+    private long runCheckout(List<Long> productIds) {
+        Long elapsed = transactionTemplate.execute(status -> {
+            Long userId = TestUsers.create(userRepository, "checkout").getId();
+            cartService.applyBatch(userId, toOperations(productIds));
+            entityManager.flush();
+            entityManager.clear();
+
+            long start = System.nanoTime();
+            var order = orderService.createOrderFromCart(userId, null, null);
+            entityManager.flush();
+            long duration = System.nanoTime() - start;
+            assertEquals(productIds.size(), order.getItems().size());
+
+            status.setRollbackOnly();
+            return duration;
+        });
+        return elapsed != null ? elapsed : 0L;
+    }
+
+    private List<CartBatchItemRequestDTO> toOperations(List<Long> productIds) {
+        List<CartBatchItemRequestDTO> operations = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            operations.add(CartBatchItemRequestDTO.builder()
+                    .productId(productId)
+                    .quantity(2)
+                    .mode(CartOperationMode.ADD)
+                    .build());
+        }
+        return operations;
+    }
+}
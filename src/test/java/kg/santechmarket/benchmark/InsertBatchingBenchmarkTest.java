@@ -0,0 +1,161 @@
+package kg.santechmarket.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import kg.santechmarket.dto.BroadcastProgressDTO;
+import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.OrderItem;
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.BroadcastStatus;
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.repository.ProductRepository;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.service.NotificationBroadcastService;
+import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.OrderNumberGenerator;
+import kg.santechmarket.support.TestUsers;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Проверка пакетной вставки JDBC после перехода на последовательности pooled-lo
+ * <p>
+ * Считает подготовленные JDBC-выражения через статистику Hibernate: при IDENTITY каждая строка
+ * была отдельным INSERT, теперь строки уходят пачками по hibernate.jdbc.batch_size.
+ * Требует запущенную БД, поэтому включается явно:
+ * mvn test -Dtest=InsertBatchingBenchmarkTest -Dsantech.benchmarks=true
+ * Все данные создаются в транзакциях, которые откатываются.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "santech.benchmarks", matches = "true")
+@Slf4j
+class InsertBatchingBenchmarkTest {
+
+    private static final int ORDER_LINES = 50;
+    private static final int BROADCAST_USERS = 10_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationBroadcastService notificationBroadcastService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void orderWithFiftyLinesIsBatched() {
+        List<Product> products = productRepository.findByIsActiveTrue(PageRequest.of(0, ORDER_LINES)).getContent();
+        assumeTrue(products.size() == ORDER_LINES, "Недостаточно активных товаров для " + ORDER_LINES + " позиций");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = TestUsers.create(userRepository, "order");
+            entityManager.flush();
+
+            Order order = new Order();
+            order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
+            order.setUser(user);
+            order.setTotalAmount(BigDecimal.ZERO);
+            order.setTotalItems(ORDER_LINES);
+            for (Product product : products) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setPrice(product.getPrice());
+                order.getItems().add(item);
+            }
+
+            statistics.clear();
+            long start = System.nanoTime();
+            entityManager.persist(order);
+            entityManager.flush();
+            long elapsed = System.nanoTime() - start;
+
+            report("order " + ORDER_LINES + " lines", elapsed);
+            assertEquals(ORDER_LINES + 1, statistics.getEntityInsertCount());
+            assertTrue(statistics.getPrepareStatementCount() < 10,
+                    "Позиции заказа должны вставляться пачками, а не по одной");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void broadcastToTenThousandUsersIsSetBased() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> userIds = new ArrayList<>(BROADCAST_USERS);
+            for (int i = 0; i < BROADCAST_USERS; i++) {
+                userIds.add(TestUsers.create(userRepository, "broadcast").getId());
+            }
+            entityManager.flush();
+            entityManager.clear();
+
+            statistics.clear();
+            long start = System.nanoTime();
+            Long broadcastId = notificationService.sendBroadcastNotification(
+                    NotificationType.SYSTEM, "Бенчмарк", "Пакетная вставка", userIds, null);
+            BroadcastProgressDTO progress;
+            do {
+                progress = notificationBroadcastService.deliverNextChunk(broadcastId).orElseThrow();
+            } while (progress.getStatus() != BroadcastStatus.COMPLETED);
+            long elapsed = System.nanoTime() - start;
+
+            report("broadcast " + BROADCAST_USERS + " users", elapsed);
+            assertEquals(BROADCAST_USERS, progress.getTotalRecipients());
+            assertEquals(BROADCAST_USERS, progress.getDeliveredCount());
+            assertEquals(1, statistics.getEntityInsertCount());
+            assertTrue(statistics.getPrepareStatementCount() < BROADCAST_USERS / 100,
+                    "Уведомления должны создаваться порциями INSERT ... SELECT, а не по одному");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    private void report(String label, long elapsedNanos) {
+        log.info("{}: {} ms, inserts={}, prepared statements={}",
+                label,
+                elapsedNanos / 1_000_000.0,
+                statistics.getEntityInsertCount(),
+                statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,165 @@
+package kg.santechmarket.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.santechmarket.entity.User;
+import kg.santechmarket.repository.NotificationRepository;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.support.TestUsers;
+import kg.santechmarket.util.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Регрессионная проверка планов ленты уведомлений на реалистичном объёме
+ * <p>
+ * Заполняет notifications историей за полгода (по умолчанию 500 000 строк на 200 пользователей,
+ * около 5% непрочитанных), выполняет ANALYZE и проверяет через EXPLAIN запросы
+ * NotificationRepository.USER_FEED и UNREAD_FEED для первой и глубокой страницы:
+ * в плане нет Seq Scan и Sort, а чтение идёт по idx_notifications_user_created
+ * и idx_notifications_user_unread (их секционным копиям). Пишет в лог время выполнения и число буферов.
+ * Все данные создаются в одной транзакции и откатываются. Требует БД, поэтому включается явно:
+ * mvn test -Dtest=NotificationFeedExplainBenchmarkTest -Dsantech.benchmarks=true
+ * Объём меняется через -Dsantech.benchmarks.notification-rows=N.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "santech.benchmarks", matches = "true")
+@Slf4j
+class NotificationFeedExplainBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("santech.benchmarks.notification-rows", 500_000);
+    private static final int USERS = 200;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void feedQueriesUseCompositeIndexes() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                Long userId = populate();
+                KeysetCursor deep = jdbcTemplate.queryForObject(
+                        "SELECT created_at, id FROM notifications WHERE user_id = :userId " +
+                                "ORDER BY created_at DESC, id DESC OFFSET :offset LIMIT 1",
+                        new MapSqlParameterSource("userId", userId).addValue("offset", ROWS / USERS / 2),
+                        (rs, rowNum) -> new KeysetCursor(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)));
+
+                String created = "idx_notifications_user_created";
+                String unread = "idx_notifications_user_unread";
+
+                assertPlan("user feed, first page", NotificationRepository.USER_FEED, userId, KeysetCursor.START, created);
+                assertPlan("user feed, deep page", NotificationRepository.USER_FEED, userId, deep, created);
+                assertPlan("unread feed, first page", NotificationRepository.UNREAD_FEED, userId, KeysetCursor.START, unread);
+                assertPlan("unread feed, deep page", NotificationRepository.UNREAD_FEED, userId, deep, unread);
+            } finally {
+                status.setRollbackOnly();
+            }
+        });
+    }
+
+    /**
+     * Создать пользователей и историю уведомлений; возвращает ID одного из пользователей
+     */
+    private Long populate() {
+        String prefix = "feed_" + UUID.randomUUID().toString().substring(0, 8);
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(TestUsers.newUser(prefix));
+        }
+        userRepository.saveAllAndFlush(users);
+
+        long start = System.nanoTime();
+        jdbcTemplate.update("INSERT INTO notifications (created_at, updated_at, user_id, type, title, content, is_read) " +
+                        "SELECT ts, ts, u.id, 'SYSTEM', 'Уведомление ' || g, 'Текст уведомления', g % 20 <> 0 " +
+                        "FROM generate_series(1, :rows) g " +
+                        "CROSS JOIN LATERAL (SELECT NOW() - g * (INTERVAL '180 days' / :rows) AS ts) t " +
+                        "JOIN (SELECT id, row_number() OVER (ORDER BY id) - 1 AS n FROM users WHERE username LIKE :prefix) u " +
+                        "    ON u.n = g % :users",
+                new MapSqlParameterSource("rows", ROWS).addValue("users", USERS).addValue("prefix", prefix + "%"));
+        jdbcTemplate.getJdbcTemplate().execute("ANALYZE notifications");
+        log.info("populate {} notifications: {} ms", ROWS, (System.nanoTime() - start) / 1_000_000.0);
+
+        return users.get(0).getId();
+    }
+
+    /**
+     * Имена индекса на родительской таблице и его копий в секциях
+     */
+    private Set<String> partitionIndexes(String parentIndex) {
+        Set<String> names = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = CAST(:index AS regclass)",
+                new MapSqlParameterSource("index", parentIndex), String.class));
+        names.add(parentIndex);
+        return names;
+    }
+
+    private void assertPlan(String label, String sql, Long userId, KeysetCursor after, String expectedIndex) {
+        Set<String> expectedIndexes = partitionIndexes(expectedIndex);
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId)
+                .addValue("afterCreatedAt", after.createdAt())
+                .addValue("afterId", after.id())
+                .addValue("limit", PAGE_SIZE + 1);
+        String json = jdbcTemplate.queryForObject("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + sql, params, String.class);
+
+        try {
+            JsonNode root = objectMapper.readTree(json).get(0);
+            List<JsonNode> nodes = new ArrayList<>();
+            collect(root.get("Plan"), nodes);
+
+            log.info("{}: {} ms, shared buffers hit={} read={}", label,
+                    root.get("Execution Time").asDouble(),
+                    root.get("Plan").path("Shared Hit Blocks").asLong(),
+                    root.get("Plan").path("Shared Read Blocks").asLong());
+
+            for (JsonNode node : nodes) {
+                String type = node.get("Node Type").asText();
+                assertFalse(type.equals("Seq Scan"), label + ": последовательное чтение " + node.path("Relation Name").asText());
+                assertFalse(type.equals("Sort") || type.equals("Incremental Sort"), label + ": сортировка в плане");
+            }
+
+            List<String> usedIndexes = nodes.stream()
+                    .filter(node -> node.has("Index Name"))
+                    .map(node -> node.get("Index Name").asText())
+                    .toList();
+            assertFalse(usedIndexes.isEmpty(), label + ": план не использует индексы");
+            assertTrue(expectedIndexes.containsAll(usedIndexes), label + ": ожидался " + expectedIndex
+                    + " или его секционные копии, план использует " + usedIndexes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось разобрать план: " + json, e);
+        }
+    }
+
+    private void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        for (JsonNode child : node.path("Plans")) {
+            collect(child, nodes);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package kg.santechmarket.benchmark;
+
+import kg.santechmarket.config.JwtService;
+import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.NotificationStreamService;
+import kg.santechmarket.support.TestUsers;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочная проверка /notifications/stream: 20 000 простаивающих SSE-соединений
+ * <p>
+ * Открывает соединения, держит их дольше нескольких интервалов heartbeat и проверяет,
+ * что все потоки остаются зарегистрированными и получают событие, опубликованное после коммита
+ * через LISTEN/NOTIFY. Пишет в лог время открытия, размер кучи и время доставки.
+ * Требует запущенную БД и лимит дескрипторов выше числа соединений (ulimit -n), поэтому включается явно:
+ * mvn test -Dtest=NotificationStreamLoadBenchmarkTest -Dsantech.benchmarks=true
+ * Число соединений меняется через -Dsantech.benchmarks.stream-connections=N.
+ * Созданный пользователь удаляется вместе с уведомлениями.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.notifications.stream.heartbeat-ms=5000")
+@EnabledIfSystemProperty(named = "santech.benchmarks", matches = "true")
+@Slf4j
+class NotificationStreamLoadBenchmarkTest {
+
+    private static final int CONNECTIONS = Integer.getInteger("santech.benchmarks.stream-connections", 20_000);
+    private static final long IDLE_MILLIS = 15_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
+    @Test
+    void holdsTwentyThousandIdleStreams() throws Exception {
+        User user = TestUsers.create(userRepository, "stream");
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/notifications/stream"))
+                .header("Authorization", "Bearer " + jwtService.generateToken(user))
+                .header("Accept", "text/event-stream")
+                .build();
+
+        List<Stream<String>> streams = Collections.synchronizedList(new ArrayList<>(CONNECTIONS));
+        CountDownLatch opened = new CountDownLatch(CONNECTIONS);
+        CountDownLatch delivered = new CountDownLatch(CONNECTIONS);
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < CONNECTIONS; i++) {
+                readers.execute(() -> {
+                    try {
+                        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+                        streams.add(response.body());
+                        opened.countDown();
+                        if (response.body().anyMatch(line -> line.equals("event:notification"))) {
+                            delivered.countDown();
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        opened.countDown();
+                    }
+                });
+            }
+
+            assertTrue(opened.await(3, TimeUnit.MINUTES), "Соединения не открылись за 3 минуты");
+            report("open " + CONNECTIONS + " streams", System.nanoTime() - start);
+            assertEquals(0, failed.get(), "Часть соединений не открылась");
+
+            Thread.sleep(IDLE_MILLIS);
+            assertEquals(CONNECTIONS, notificationStreamService.subscriberCount(),
+                    "Простаивающие потоки должны оставаться открытыми после нескольких heartbeat");
+
+            start = System.nanoTime();
+            notificationService.createNotification(user.getId(), NotificationType.SYSTEM,
+                    "Бенчмарк", "Доставка по SSE", null);
+            assertTrue(delivered.await(2, TimeUnit.MINUTES), "Событие дошло не до всех потоков: осталось " + delivered.getCount());
+            report("deliver to " + CONNECTIONS + " streams", System.nanoTime() - start);
+        } finally {
+            streams.forEach(Stream::close);
+            readers.shutdownNow();
+            userRepository.delete(user);
+        }
+    }
+
+    private void report(String label, long elapsedNanos) {
+        Runtime runtime = Runtime.getRuntime();
+        log.info("{}: {} ms, subscribers={}, heap used={} MB",
+                label,
+                elapsedNanos / 1_000_000.0,
+                notificationStreamService.subscriberCount(),
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+    }
+}
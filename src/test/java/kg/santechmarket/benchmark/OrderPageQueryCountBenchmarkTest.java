@@ -0,0 +1,161 @@
+package kg.santechmarket.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import kg.santechmarket.dto.OrderResponseDTO;
+import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.OrderItem;
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.entity.User;
+import kg.santechmarket.repository.ProductRepository;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.service.OrderNumberGenerator;
+import kg.santechmarket.service.OrderService;
+import kg.santechmarket.support.TestUsers;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Проверка числа SQL-запросов при выдаче страницы заказов с товарами
+ * <p>
+ * Страница собирается из проекций: один запрос заголовков заказов с именем клиента и один запрос
+ * товаров всех заказов страницы, независимо от размера страницы. Подсчёт total выполняется
+ * отдельным запросом только когда страница не последняя.
+ * Требует запущенную БД, поэтому включается явно:
+ * mvn test -Dtest=OrderPageQueryCountBenchmarkTest -Dsantech.benchmarks=true
+ * Все данные создаются в транзакциях, которые откатываются.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@EnabledIfSystemProperty(named = "santech.benchmarks", matches = "true")
+@Slf4j
+class OrderPageQueryCountBenchmarkTest {
+
+    private static final int ORDERS = 30;
+    private static final int LINES_PER_ORDER = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void pageOfOrdersWithItemsTakesTwoQueries() {
+        List<Product> products = productRepository.findByIsActiveTrue(PageRequest.of(0, LINES_PER_ORDER)).getContent();
+        assumeTrue(products.size() == LINES_PER_ORDER, "Недостаточно активных товаров для " + LINES_PER_ORDER + " позиций");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = createUserWithOrders(products);
+
+            // Страница больше числа заказов: total известен без запроса count
+            statistics.clear();
+            long start = System.nanoTime();
+            Page<OrderResponseDTO> page = orderService.getUserOrders(user.getId(), PageRequest.of(0, ORDERS * 2));
+            long elapsed = System.nanoTime() - start;
+
+            report("page of " + ORDERS + " orders", elapsed);
+            assertEquals(ORDERS, page.getNumberOfElements());
+            assertEquals(ORDERS * LINES_PER_ORDER, page.getContent().stream().mapToInt(o -> o.getItems().size()).sum());
+            assertEquals(user.getFullName(), page.getContent().get(0).getUserName());
+            assertEquals(2, statistics.getPrepareStatementCount(),
+                    "Страница заказов с товарами должна загружаться двумя запросами");
+            assertEquals(0, statistics.getEntityLoadCount(), "Сущности заказов, клиентов и товаров не должны загружаться");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        List<Product> products = productRepository.findByIsActiveTrue(PageRequest.of(0, LINES_PER_ORDER)).getContent();
+        assumeTrue(products.size() == LINES_PER_ORDER, "Недостаточно активных товаров для " + LINES_PER_ORDER + " позиций");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = createUserWithOrders(products);
+
+            statistics.clear();
+            orderService.getUserOrders(user.getId(), PageRequest.of(0, 5));
+            long smallPage = statistics.getPrepareStatementCount();
+
+            statistics.clear();
+            orderService.getUserOrders(user.getId(), PageRequest.of(0, ORDERS - 1));
+            long largePage = statistics.getPrepareStatementCount();
+
+            // Заголовки + товары + count для неполной выборки
+            assertEquals(3, smallPage);
+            assertEquals(smallPage, largePage);
+
+            status.setRollbackOnly();
+        });
+    }
+
+    private User createUserWithOrders(List<Product> products) {
+        User user = TestUsers.create(userRepository, "orders");
+
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setOrderNumber(orderNumberGenerator.nextOrderNumber());
+            order.setUser(user);
+            order.setTotalAmount(BigDecimal.ZERO);
+            order.setTotalItems(products.size());
+            for (Product product : products) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setQuantity(1);
+                item.setPrice(product.getPrice());
+                order.getItems().add(item);
+            }
+            entityManager.persist(order);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return user;
+    }
+
+    private void report(String label, long elapsedNanos) {
+        log.info("{}: {} ms, prepared statements={}, entities loaded={}",
+                label,
+                elapsedNanos / 1_000_000.0,
+                statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,152 @@
+package kg.santechmarket.benchmark;
+
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.exception.InsufficientStockException;
+import kg.santechmarket.repository.ProductRepository;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.service.InventoryService;
+import kg.santechmarket.service.OrderService;
+import kg.santechmarket.support.TestUsers;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Бенчмарк резервирования под конкуренцией: много одновременных заказов одного "горячего" товара
+ * <p>
+ * Проверяет, что продаётся ровно столько единиц, сколько есть на складе, и выводит
+ * пропускную способность и задержки. Требует БД, поэтому включается явно:
+ * mvn test -Dtest=StockReservationBenchmarkTest -Dsantech.benchmarks=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "santech.benchmarks", matches = "true")
+@Slf4j
+class StockReservationBenchmarkTest {
+
+    private static final int STOCK = 100;
+    private static final int CHECKOUTS = 500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private Long productId;
+    private Map<String, Object> originalStock;
+
+    @BeforeEach
+    void setUp() {
+        List<Product> products = productRepository.findByIsActiveTrue(PageRequest.of(0, 1)).getContent();
+        assumeTrue(!products.isEmpty(), "Нет активных товаров");
+        productId = products.get(0).getId();
+
+        originalStock = jdbcTemplate.queryForList(
+                "SELECT on_hand, reserved FROM product_stocks WHERE product_id = ?", productId)
+                .stream().findFirst().orElse(null);
+        jdbcTemplate.update("DELETE FROM product_stocks WHERE product_id = ?", productId);
+
+        userId = TestUsers.create(userRepository, "stock").getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (userId != null) {
+            jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        if (productId != null) {
+            jdbcTemplate.update("DELETE FROM product_stocks WHERE product_id = ?", productId);
+            if (originalStock != null) {
+                jdbcTemplate.update(
+                        "INSERT INTO product_stocks (product_id, on_hand, reserved, updated_at) VALUES (?, ?, ?, NOW())",
+                        productId, originalStock.get("on_hand"), originalStock.get("reserved"));
+            }
+        }
+    }
+
+    @Test
+    void concurrentCheckoutsOfHotSku() throws Exception {
+        inventoryService.setOnHand(productId, STOCK);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> futures = new ArrayList<>(CHECKOUTS);
+
+        long started;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    orderService.createDirectOrder(userId, productId, 1, null, null);
+                    return System.nanoTime() - begin;
+                }));
+            }
+            started = System.nanoTime();
+            start.countDown();
+        }
+        long wallTime = System.nanoTime() - started;
+
+        List<Long> latencies = new ArrayList<>();
+        int rejected = 0;
+        for (Future<Long> future : futures) {
+            try {
+                latencies.add(future.get());
+            } catch (ExecutionException e) {
+                assertInstanceOf(InsufficientStockException.class, e.getCause());
+                rejected++;
+            }
+        }
+
+        assertEquals(STOCK, latencies.size());
+        assertEquals(CHECKOUTS - STOCK, rejected);
+        assertEquals(STOCK, jdbcTemplate.queryForObject(
+                "SELECT reserved FROM product_stocks WHERE product_id = ?", Integer.class, productId));
+        assertEquals(STOCK, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE user_id = ?", Integer.class, userId));
+
+        long[] samples = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        log.info("hot SKU: {} checkouts in {} ms ({}/s), successful p50={} ms, p95={} ms",
+                CHECKOUTS,
+                wallTime / 1_000_000.0,
+                CHECKOUTS / (wallTime / 1_000_000_000.0),
+                samples[samples.length / 2] / 1_000_000.0,
+                samples[(int) (samples.length * 0.95)] / 1_000_000.0);
+
+        // Отмена возвращает резерв, завершение было бы списанием
+        Long anyOrderId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM orders WHERE user_id = ?", Long.class, userId);
+        orderService.cancelOrder(anyOrderId, "benchmark");
+        assertEquals(STOCK - 1, jdbcTemplate.queryForObject(
+                "SELECT reserved FROM product_stocks WHERE product_id = ?", Integer.class, productId));
+    }
+}
@@ -0,0 +1,61 @@
+package kg.santechmarket.config;
+
+import kg.santechmarket.event.CatalogChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheEvictorTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+            CacheConfig.CATEGORY_TREE, CacheConfig.FEATURED_PRODUCTS, CacheConfig.BRANDS, CacheConfig.FILTER_METADATA);
+
+    private final CatalogCacheEvictor evictor = new CatalogCacheEvictor(cacheManager);
+
+    @Test
+    void featuredChangeKeepsOtherCaches() {
+        fillAll();
+
+        evictor.onCatalogChanged(CatalogChangedEvent.featuredProducts());
+
+        assertThat(cached(CacheConfig.FEATURED_PRODUCTS)).isNull();
+        assertThat(cached(CacheConfig.BRANDS)).isNotNull();
+        assertThat(cached(CacheConfig.FILTER_METADATA)).isNotNull();
+        assertThat(cached(CacheConfig.CATEGORY_TREE)).isNotNull();
+    }
+
+    @Test
+    void productChangeClearsProductCaches() {
+        fillAll();
+
+        evictor.onCatalogChanged(CatalogChangedEvent.products());
+
+        assertThat(cached(CacheConfig.FEATURED_PRODUCTS)).isNull();
+        assertThat(cached(CacheConfig.BRANDS)).isNull();
+        assertThat(cached(CacheConfig.FILTER_METADATA)).isNull();
+        assertThat(cached(CacheConfig.CATEGORY_TREE)).isNotNull();
+    }
+
+    @Test
+    void categoryChangeClearsTree() {
+        fillAll();
+
+        evictor.onCatalogChanged(CatalogChangedEvent.categories());
+
+        assertThat(cached(CacheConfig.CATEGORY_TREE)).isNull();
+        assertThat(cached(CacheConfig.FEATURED_PRODUCTS)).isNotNull();
+    }
+
+    private void fillAll() {
+        for (String name : cacheManager.getCacheNames()) {
+            cacheManager.getCache(name).put("key", List.of(name));
+        }
+    }
+
+    private Object cached(String name) {
+        return cacheManager.getCache(name).get("key");
+    }
+}
@@ -0,0 +1,80 @@
+package kg.santechmarket.controller;
+
+import kg.santechmarket.entity.User;
+import kg.santechmarket.exception.GlobalExceptionHandler;
+import kg.santechmarket.service.CartService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CartControllerBatchValidationTest {
+
+    private final CartService cartService = mock(CartService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CartController(cartService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void validBatchIsApplied() throws Exception {
+        mockMvc.perform(batch("[{\"productId\": 5, \"quantity\": 2, \"mode\": \"add\"}]"))
+                .andExpect(status().isOk());
+
+        verify(cartService).applyBatch(any(), any());
+    }
+
+    @Test
+    void operationWithoutProductIsRejected() throws Exception {
+        mockMvc.perform(batch("[{\"productId\": 5, \"quantity\": 1}, {\"quantity\": 1}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_ERROR"));
+
+        verify(cartService, never()).applyBatch(anyLong(), any());
+    }
+
+    @Test
+    void negativeQuantityIsRejected() throws Exception {
+        mockMvc.perform(batch("[{\"productId\": 5, \"quantity\": -1, \"mode\": \"set\"}]"))
+                .andExpect(status().isBadRequest());
+
+        verify(cartService, never()).applyBatch(anyLong(), any());
+    }
+
+    @Test
+    void emptyAndOversizedBatchesAreRejected() throws Exception {
+        mockMvc.perform(batch("[]"))
+                .andExpect(status().isBadRequest());
+
+        String oversized = IntStream.rangeClosed(1, 101)
+                .mapToObj(id -> "{\"productId\": " + id + ", \"quantity\": 1}")
+                .collect(Collectors.joining(",", "[", "]"));
+        mockMvc.perform(batch(oversized))
+                .andExpect(status().isBadRequest());
+
+        verify(cartService, never()).applyBatch(anyLong(), any());
+    }
+
+    private static MockHttpServletRequestBuilder batch(String body) {
+        User user = new User();
+        user.setId(1L);
+        return post("/cart/items/batch")
+                .principal(new UsernamePasswordAuthenticationToken(user, null, List.of()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+}
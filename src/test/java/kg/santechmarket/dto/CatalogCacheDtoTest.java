@@ -0,0 +1,126 @@
+package kg.santechmarket.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.santechmarket.entity.Category;
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.entity.ProductImage;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogCacheDtoTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 10, 1, 12, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void categoryTreeKeepsEntityJson() {
+        Category root = category(1L, "Трубы", null);
+        Category child = category(2L, "Полипропилен", root);
+        category(3L, "PN20", child);
+
+        CategoryTreeDTO dto = CategoryTreeDTO.from(root);
+
+        assertThat(json(dto)).isEqualTo(json(root));
+        assertThat(dto.subcategories().get(0).subcategories().get(0).level()).isEqualTo(2);
+    }
+
+    @Test
+    void featuredProductKeepsEntityJson() {
+        Product product = new Product();
+        product.setId(10L);
+        product.setCreatedAt(CREATED);
+        product.setUpdatedAt(CREATED);
+        product.setName("Труба 20мм");
+        product.setPrice(new BigDecimal("150.00"));
+        product.setOldPrice(new BigDecimal("180.00"));
+        product.setBrand("Valtec");
+        product.setSku("VT-PP-20");
+        product.setSpecifications("{\"diameter\": \"20 мм\"}");
+        product.setIsFeatured(true);
+        product.setCategory(category(1L, "Трубы", null));
+
+        ProductImage image = new ProductImage();
+        image.setId(100L);
+        image.setCreatedAt(CREATED);
+        image.setImageUrl("https://example.com/1.jpg");
+        image.setDisplayOrder(1);
+        image.setAltText("Труба");
+        image.setProduct(product);
+        product.getAdditionalImages().add(image);
+
+        FeaturedProductDTO dto = FeaturedProductDTO.from(product);
+
+        assertThat(json(dto)).isEqualTo(json(product));
+    }
+
+    @Test
+    void cachedListsCannotBeModified() {
+        Category root = category(1L, "Трубы", null);
+        CategoryTreeDTO dto = CategoryTreeDTO.from(root);
+
+        root.getSubcategories().add(category(2L, "Фитинги", null));
+
+        assertThat(dto.subcategories()).isEmpty();
+        assertThatThrownBy(() -> dto.subcategories().add(dto))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void filterMetadataIsImmutableAndKeepsJson() {
+        List<String> brands = new ArrayList<>(List.of("Lammin", "VALTEC"));
+        List<FilterMetadataResponse.FilterItem> filters = new ArrayList<>();
+        filters.add(FilterMetadataResponse.FilterItem.builder().key("brand").label("Бренд").list(brands).build());
+        FilterMetadataResponse dto = FilterMetadataResponse.builder()
+                .filters(filters)
+                .priceRange(FilterMetadataResponse.PriceRange.builder()
+                        .min(new BigDecimal("40.00"))
+                        .max(new BigDecimal("50000.00"))
+                        .build())
+                .build();
+
+        brands.add("PRO AQUA");
+        filters.clear();
+
+        assertThat(dto.filters()).hasSize(1);
+        assertThat(dto.filters().get(0).list()).containsExactly("Lammin", "VALTEC");
+        assertThatThrownBy(() -> dto.filters().add(dto.filters().get(0)))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> dto.filters().get(0).list().add("PRO AQUA"))
+                .isInstanceOf(UnsupportedOperationException.class);
+
+        JsonNode json = json(dto);
+        assertThat(json.path("filters").get(0).path("key").asText()).isEqualTo("brand");
+        assertThat(json.path("filters").get(0).path("label").asText()).isEqualTo("Бренд");
+        assertThat(json.path("filters").get(0).path("list")).hasSize(2);
+        assertThat(json.path("priceRange").path("min").decimalValue()).isEqualByComparingTo("40.00");
+        assertThat(json.path("priceRange").path("max").decimalValue()).isEqualByComparingTo("50000.00");
+        assertThat(FilterMetadataResponse.builder().build().filters()).isEmpty();
+    }
+
+    private JsonNode json(Object value) {
+        return objectMapper.valueToTree(value);
+    }
+
+    private static Category category(Long id, String name, Category parent) {
+        Category category = new Category();
+        category.setId(id);
+        category.setCreatedAt(CREATED);
+        category.setUpdatedAt(CREATED);
+        category.setName(name);
+        category.setDisplayOrder(id.intValue());
+        category.setParent(parent);
+        if (parent != null) {
+            parent.setSubcategories(List.of(category));
+        }
+        return category;
+    }
+}
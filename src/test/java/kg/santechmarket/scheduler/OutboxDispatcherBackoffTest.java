@@ -0,0 +1,45 @@
+package kg.santechmarket.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxDispatcherBackoffTest {
+
+    private final OutboxDispatcher dispatcher = new OutboxDispatcher(
+            null, null, null, null, null, null, null,
+            50, 300, 8, 5, 3600, 1, 7);
+
+    @Test
+    void delayDoublesWithEachAttempt() {
+        assertBetween(dispatcher.backoffSeconds(1), 4, 6);
+        assertBetween(dispatcher.backoffSeconds(2), 8, 12);
+        assertBetween(dispatcher.backoffSeconds(3), 16, 24);
+        assertBetween(dispatcher.backoffSeconds(6), 128, 192);
+    }
+
+    @Test
+    void firstAttemptUsesBaseDelay() {
+        assertBetween(dispatcher.backoffSeconds(0), 4, 6);
+    }
+
+    @Test
+    void delayIsCappedAtMaximum() {
+        assertBetween(dispatcher.backoffSeconds(12), 2880, 4320);
+        assertBetween(dispatcher.backoffSeconds(1_000), 2880, 4320);
+    }
+
+    @Test
+    void jitterSpreadsRetries() {
+        long first = dispatcher.backoffSeconds(10);
+        boolean differs = false;
+        for (int i = 0; i < 100 && !differs; i++) {
+            differs = dispatcher.backoffSeconds(10) != first;
+        }
+        assertThat(differs).isTrue();
+    }
+
+    private static void assertBetween(long value, long min, long max) {
+        assertThat(value).isBetween(min, max);
+    }
+}
@@ -0,0 +1,63 @@
+package kg.santechmarket.scheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.enums.OutboxEventType;
+import kg.santechmarket.repository.OutboxEventRepository;
+import kg.santechmarket.repository.OutboxEventRepository.ClaimedEventView;
+import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.OutboxService.NotificationPayload;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherRedeliveryTest {
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final OutboxDispatcher dispatcher = new OutboxDispatcher(
+            outboxEventRepository, null, notificationService, null, null, objectMapper,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            50, 300, 8, 5, 3600, 1, 7);
+
+    @Test
+    void redeliveredNotificationEventIsCreatedOnce() throws Exception {
+        ClaimedEventView event = notificationEvent(7L);
+        when(outboxEventRepository.claimBatch(anyInt(), anyLong())).thenReturn(List.of(event));
+        // Первая доставка отмечает событие, повторная видит его уже доставленным
+        when(outboxEventRepository.markSentIfPending(7L)).thenReturn(1, 0);
+
+        dispatcher.dispatchBatch();
+        dispatcher.dispatchBatch();
+
+        verify(notificationService, times(1)).createNotification(42L, NotificationType.ORDER_UPDATE,
+                "Заказ подтверждён", "Ваш заказ подтверждён", null);
+        verify(outboxEventRepository, never()).markSent(anyCollection());
+        verify(outboxEventRepository, never()).reschedule(anyLong(), anyInt(), anyLong(), any());
+    }
+
+    private ClaimedEventView notificationEvent(Long id) throws Exception {
+        String payload = objectMapper.writeValueAsString(new NotificationPayload(42L,
+                NotificationType.ORDER_UPDATE, "Заказ подтверждён", "Ваш заказ подтверждён", null));
+        ClaimedEventView event = mock(ClaimedEventView.class);
+        when(event.getId()).thenReturn(id);
+        when(event.getEventType()).thenReturn(OutboxEventType.NOTIFICATION.name());
+        when(event.getPayload()).thenReturn(payload);
+        when(event.getAttempts()).thenReturn(1);
+        return event;
+    }
+}
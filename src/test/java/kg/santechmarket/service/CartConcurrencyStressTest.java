@@ -0,0 +1,132 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.dto.CartBatchItemRequestDTO;
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.enums.CartOperationMode;
+import kg.santechmarket.repository.ProductRepository;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Стресс-тест параллельных изменений корзины одного пользователя
+ * <p>
+ * Запросы запускаются одновременно на виртуальных потоках и работают с реальной БД
+ * (каждый в своей транзакции), поэтому тест включается явно:
+ * mvn test -Dtest=CartConcurrencyStressTest -Dsantech.benchmarks=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "santech.benchmarks", matches = "true")
+class CartConcurrencyStressTest {
+
+    private static final int ADD_CALLS = 50;
+    private static final int INCREMENT_CALLS = 50;
+    private static final int BATCH_CALLS = 5;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestUsers.create(userRepository, "stress").getId();
+    }
+
+    @AfterEach
+    void deleteUser() {
+        // Корзина и её позиции удаляются каскадно по внешним ключам
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void parallelAddAndIncrementKeepExactQuantities() throws Exception {
+        List<Product> products = productRepository.findByIsActiveTrue(PageRequest.of(0, 2)).getContent();
+        assumeTrue(products.size() == 2, "Нужно минимум два активных товара");
+        Product added = products.get(0);
+        Product incremented = products.get(1);
+
+        // Позиция для инкрементов должна существовать заранее
+        cartService.addItemToCart(userId, incremented.getId(), 1);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < ADD_CALLS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cartService.addItemToCart(userId, added.getId(), 1);
+                }));
+            }
+            for (int i = 0; i < INCREMENT_CALLS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cartService.incrementItemQuantity(userId, incremented.getId());
+                }));
+            }
+            for (int i = 0; i < BATCH_CALLS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cartService.applyBatch(userId, List.of(CartBatchItemRequestDTO.builder()
+                            .productId(added.getId())
+                            .quantity(2)
+                            .mode(CartOperationMode.ADD)
+                            .build()));
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        int expectedAdded = ADD_CALLS + BATCH_CALLS * 2;
+        int expectedIncremented = 1 + INCREMENT_CALLS;
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM carts WHERE user_id = ?", Integer.class, userId));
+        assertEquals(expectedAdded, quantityOf(added.getId()));
+        assertEquals(expectedIncremented, quantityOf(incremented.getId()));
+        assertEquals(expectedAdded + expectedIncremented, cartService.getCartItemCount(userId));
+
+        BigDecimal expectedTotal = added.getPrice().multiply(BigDecimal.valueOf(expectedAdded))
+                .add(incremented.getPrice().multiply(BigDecimal.valueOf(expectedIncremented)));
+        assertEquals(0, expectedTotal.compareTo(cartService.getCartTotal(userId)));
+    }
+
+    private int quantityOf(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT ci.quantity FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+                        "WHERE c.user_id = ? AND ci.product_id = ?",
+                Integer.class, userId, productId);
+    }
+}
@@ -0,0 +1,212 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.Product;
+import kg.santechmarket.exception.InsufficientStockException;
+import kg.santechmarket.repository.ProductRepository;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Резервирование остатков под заказы на реальной БД
+ * <p>
+ * Условный UPDATE не даёт продать больше, чем есть на складе; отмена заказа возвращает резерв;
+ * параллельные заказы одних и тех же товаров берут блокировки в порядке ID товара
+ * и не попадают во взаимную блокировку.
+ */
+@SpringBootTest
+class InventoryReservationTest {
+
+    private static final int CONCURRENT_ORDERS = 20;
+    private static final int STOCK = 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private List<Long> productIds = List.of();
+    private List<Map<String, Object>> originalStocks = List.of();
+
+    @BeforeEach
+    void setUp() {
+        productIds = productRepository.findByIsActiveTrue(PageRequest.of(0, 2)).getContent().stream()
+                .map(Product::getId)
+                .sorted(Comparator.naturalOrder())
+                .toList();
+        assumeTrue(productIds.size() == 2, "Нужно минимум два активных товара");
+
+        originalStocks = jdbcTemplate.queryForList(
+                "SELECT product_id, on_hand, reserved FROM product_stocks WHERE product_id IN (?, ?)",
+                productIds.get(0), productIds.get(1));
+        jdbcTemplate.update("DELETE FROM product_stocks WHERE product_id IN (?, ?)",
+                productIds.get(0), productIds.get(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (Long userId : userIds) {
+            // Резервы удаляются каскадно вместе с заказами, корзины - вместе с пользователем
+            jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+        for (Long productId : productIds) {
+            jdbcTemplate.update("DELETE FROM product_stocks WHERE product_id = ?", productId);
+        }
+        for (Map<String, Object> stock : originalStocks) {
+            jdbcTemplate.update(
+                    "INSERT INTO product_stocks (product_id, on_hand, reserved, updated_at) VALUES (?, ?, ?, NOW())",
+                    stock.get("product_id"), stock.get("on_hand"), stock.get("reserved"));
+        }
+    }
+
+    @Test
+    void oversellIsRejectedWithoutPartialReservation() {
+        Long first = productIds.get(0);
+        Long second = productIds.get(1);
+        inventoryService.setOnHand(first, 5);
+        inventoryService.setOnHand(second, 1);
+
+        Long userId = createUser();
+        cartService.addItemToCart(userId, first, 2);
+        cartService.addItemToCart(userId, second, 2);
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> orderService.createOrderFromCart(userId, null, null));
+
+        assertEquals(second, e.getProductId());
+        // Резерв первого товара откатывается вместе с заказом
+        assertEquals(0, reserved(first));
+        assertEquals(0, reserved(second));
+        assertEquals(0, ordersOf(userId));
+    }
+
+    @Test
+    void releaseRestoresStockOnce() {
+        Long productId = productIds.get(0);
+        inventoryService.setOnHand(productId, 5);
+
+        Long userId = createUser();
+        Order order = orderService.createDirectOrder(userId, productId, 3, null, null);
+        assertEquals(3, reserved(productId));
+
+        orderService.cancelOrder(order.getId(), "test");
+        assertEquals(0, reserved(productId));
+        assertEquals(5, onHand(productId));
+
+        // Резерв уже удалён: повторное снятие ничего не возвращает
+        inventoryService.releaseForOrders(List.of(order.getId()));
+        assertEquals(0, reserved(productId));
+    }
+
+    @Test
+    void concurrentOrdersOfSameProductsNeitherDeadlockNorOversell() throws Exception {
+        Long first = productIds.get(0);
+        Long second = productIds.get(1);
+        inventoryService.setOnHand(first, STOCK);
+        inventoryService.setOnHand(second, STOCK);
+
+        List<Long> buyers = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_ORDERS; i++) {
+            Long userId = createUser();
+            // Половина корзин собрана в обратном порядке товаров
+            List<Long> order = i % 2 == 0 ? List.of(first, second) : List.of(second, first);
+            order.forEach(productId -> cartService.addItemToCart(userId, productId, 1));
+            buyers.add(userId);
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Long userId : buyers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.createOrderFromCart(userId, null, null);
+                }));
+            }
+            start.countDown();
+        }
+
+        int placed = 0;
+        int rejected = 0;
+        for (Future<Order> future : futures) {
+            try {
+                future.get(30, TimeUnit.SECONDS);
+                placed++;
+            } catch (ExecutionException e) {
+                // Взаимная блокировка пришла бы сюда как ошибка доступа к данным
+                assertInstanceOf(InsufficientStockException.class, e.getCause());
+                rejected++;
+            }
+        }
+
+        assertEquals(STOCK, placed);
+        assertEquals(CONCURRENT_ORDERS - STOCK, rejected);
+        assertEquals(STOCK, reserved(first));
+        assertEquals(STOCK, reserved(second));
+        int reservations = 0;
+        for (Long userId : buyers) {
+            reservations += jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM stock_reservations r JOIN orders o ON o.id = r.order_id WHERE o.user_id = ?",
+                    Integer.class, userId);
+        }
+        assertEquals(2 * STOCK, reservations);
+    }
+
+    private Long createUser() {
+        Long userId = TestUsers.createApproved(userRepository, "inventory").getId();
+        userIds.add(userId);
+        return userId;
+    }
+
+    private int reserved(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT reserved FROM product_stocks WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private int onHand(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT on_hand FROM product_stocks WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private int ordersOf(Long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,141 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.repository.NotificationBroadcastRepository;
+import kg.santechmarket.repository.NotificationBroadcastRepository.BroadcastProgressView;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Порционная доставка рассылки по списку получателей
+ * <p>
+ * Каждая порция продолжает с last_user_id, пропускает удалённых пользователей,
+ * добавляет ровно одно уведомление и одну единицу счётчика на получателя,
+ * а рассылка переходит в COMPLETED один раз.
+ */
+@SpringBootTest
+class NotificationBroadcastDeliveryTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @Autowired
+    private NotificationBroadcastService broadcastService;
+
+    @Autowired
+    private NotificationBroadcastRepository broadcastRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private Long broadcastId;
+
+    @AfterEach
+    void cleanUp() {
+        if (broadcastId != null) {
+            jdbcTemplate.update("DELETE FROM notification_broadcasts WHERE id = ?", broadcastId);
+        }
+        for (Long userId : userIds) {
+            jdbcTemplate.update("DELETE FROM notifications WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM notification_unread_counters WHERE user_id = ?", userId);
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        }
+    }
+
+    @Test
+    void chunksResumeFromLastUserAndCompleteOnce() {
+        Long first = createUser();
+        Long second = createUser();
+        // Получатель, удалённый до доставки: попадает в порцию, но уведомление не создаётся
+        Long deleted = createUser();
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", deleted);
+        Long third = createUser();
+        Long fourth = createUser();
+
+        broadcastId = broadcastService.startBroadcast(NotificationType.SYSTEM, "Рассылка по списку",
+                "Текст рассылки", List.of(fourth, deleted, first, third, second), null);
+        assertEquals(4, progress().getTotalRecipients());
+
+        BroadcastProgressView chunk = deliver();
+        assertEquals("RUNNING", chunk.getStatus());
+        assertEquals(2, chunk.getDeliveredCount());
+        assertEquals(second, lastUserId());
+        assertDelivered(List.of(first, second), List.of(third, fourth));
+
+        chunk = deliver();
+        assertEquals("RUNNING", chunk.getStatus());
+        assertEquals(3, chunk.getDeliveredCount());
+        assertEquals(third, lastUserId());
+        assertDelivered(List.of(first, second, third), List.of(fourth));
+
+        // Неполная порция кандидатов: получатели закончились
+        chunk = deliver();
+        assertEquals("COMPLETED", chunk.getStatus());
+        assertEquals(4, chunk.getDeliveredCount());
+        assertNotNull(jdbcTemplate.queryForObject(
+                "SELECT completed_at FROM notification_broadcasts WHERE id = ?", Object.class, broadcastId));
+
+        // Завершённая рассылка больше не доставляется и не трогает счётчики
+        assertTrue(broadcastRepository.deliverChunk(broadcastId, CHUNK_SIZE).isEmpty());
+        assertDelivered(List.of(first, second, third, fourth), List.of());
+    }
+
+    private BroadcastProgressView deliver() {
+        Optional<BroadcastProgressView> chunk = broadcastRepository.deliverChunk(broadcastId, CHUNK_SIZE);
+        assertTrue(chunk.isPresent());
+        return chunk.get();
+    }
+
+    private BroadcastProgressView progress() {
+        return broadcastRepository.findProgress(broadcastId).orElseThrow();
+    }
+
+    private Long lastUserId() {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_user_id FROM notification_broadcasts WHERE id = ?", Long.class, broadcastId);
+    }
+
+    private void assertDelivered(List<Long> delivered, List<Long> pending) {
+        for (Long userId : delivered) {
+            assertEquals(1, notifications(userId), "уведомлений у " + userId);
+            assertEquals(1, unreadCounter(userId), "счётчик у " + userId);
+        }
+        for (Long userId : pending) {
+            assertEquals(0, notifications(userId), "уведомлений у " + userId);
+            assertEquals(0, unreadCounter(userId), "счётчик у " + userId);
+        }
+    }
+
+    private int notifications(Long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM notifications WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private int unreadCounter(Long userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(unread_count), 0) FROM notification_unread_counters WHERE user_id = ?",
+                Integer.class, userId);
+    }
+
+    private Long createUser() {
+        Long userId = TestUsers.createApproved(userRepository, "chunk").getId();
+        userIds.add(userId);
+        return userId;
+    }
+}
@@ -0,0 +1,123 @@
+package kg.santechmarket.service;
+
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.repository.UserRepository;
+import kg.santechmarket.support.TestUsers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Публикация рассылок всем пользователям и сдвиг водяного знака
+ * <p>
+ * Рассылка, опубликованная до «прочитать всё», но зафиксированная после него,
+ * должна остаться непрочитанной: ID рассылок выдаются в порядке фиксации.
+ */
+@SpringBootTest
+class NotificationBroadcastPublishOrderTest {
+
+    @Autowired
+    private NotificationBroadcastService broadcastService;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+
+    @BeforeEach
+    void createUser() {
+        userId = TestUsers.createApproved(userRepository, "broadcast").getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM notification_broadcasts WHERE title LIKE ?", "publish-order " + userId + "%");
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+    }
+
+    @Test
+    void uncommittedBroadcastStaysUnreadAfterMarkAllAsRead() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Первая публикация получает ID и держит транзакцию открытой
+            Future<Long> first = executor.submit(() -> transactionTemplate.execute(status -> {
+                Long id = publish("first");
+                published.countDown();
+                await(release);
+                return id;
+            }));
+            assertTrue(published.await(10, TimeUnit.SECONDS));
+
+            // Вторая публикация должна ждать фиксации первой, а не обгонять её
+            Future<Long> second = executor.submit(() -> transactionTemplate.execute(status -> publish("second")));
+            awaitBlockedPublication();
+            assertFalse(second.isDone());
+
+            notificationService.markAllAsRead(userId);
+
+            release.countDown();
+            Long firstId = first.get(10, TimeUnit.SECONDS);
+            Long secondId = second.get(10, TimeUnit.SECONDS);
+
+            assertTrue(firstId < secondId);
+            assertEquals(2, broadcastService.countUnread(userId));
+
+            notificationService.markAllAsRead(userId);
+            assertEquals(0, broadcastService.countUnread(userId));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private Long publish(String title) {
+        return broadcastService.startBroadcast(NotificationType.SYSTEM,
+                "publish-order " + userId + " " + title, "Текст рассылки", null, null);
+    }
+
+    private void awaitBlockedPublication() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_locks WHERE locktype = 'advisory' AND NOT granted", Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Вторая публикация не ждёт блокировку публикации");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
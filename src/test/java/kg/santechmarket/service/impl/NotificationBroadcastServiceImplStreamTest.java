@@ -0,0 +1,66 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.enums.NotificationType;
+import kg.santechmarket.event.UserStreamEvent;
+import kg.santechmarket.repository.NotificationBroadcastRepository;
+import kg.santechmarket.repository.NotificationBroadcastRepository.BroadcastProgressView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationBroadcastServiceImplStreamTest {
+
+    @Mock
+    private NotificationBroadcastRepository broadcastRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private NotificationBroadcastServiceImpl broadcastService;
+
+    @BeforeEach
+    void setUp() {
+        broadcastService = new NotificationBroadcastServiceImpl(broadcastRepository, eventPublisher, 100);
+    }
+
+    @Test
+    void broadcastToAllIsPushedToStreams() {
+        when(broadcastRepository.publishToAll("SYSTEM", "Акция", "Скидки", null)).thenReturn(5L);
+
+        broadcastService.startBroadcast(NotificationType.SYSTEM, "Акция", "Скидки", null, null);
+
+        verify(eventPublisher).publishEvent(UserStreamEvent.broadcast(5L));
+    }
+
+    @Test
+    void deliveredChunkIsPushedToStreams() {
+        BroadcastProgressView progress = mock(BroadcastProgressView.class);
+        when(progress.getStatus()).thenReturn("RUNNING");
+        when(broadcastRepository.deliverChunk(7L, 100)).thenReturn(Optional.of(progress));
+
+        broadcastService.deliverNextChunk(7L);
+
+        verify(eventPublisher).publishEvent(UserStreamEvent.broadcast(7L));
+    }
+
+    @Test
+    void finishedBroadcastSendsNothing() {
+        when(broadcastRepository.deliverChunk(any(), any(Integer.class))).thenReturn(Optional.empty());
+
+        broadcastService.deliverNextChunk(7L);
+
+        verifyNoInteractions(eventPublisher);
+    }
+}
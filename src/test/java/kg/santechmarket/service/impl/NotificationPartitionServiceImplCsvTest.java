@@ -0,0 +1,31 @@
+package kg.santechmarket.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationPartitionServiceImplCsvTest {
+
+    @Test
+    void plainValuesAreWrittenAsIs() {
+        assertThat(NotificationPartitionServiceImpl.csv("Заказ подтверждён")).isEqualTo("Заказ подтверждён");
+        assertThat(NotificationPartitionServiceImpl.csv("")).isEmpty();
+    }
+
+    @Test
+    void nullIsWrittenAsEmptyField() {
+        assertThat(NotificationPartitionServiceImpl.csv(null)).isEmpty();
+    }
+
+    @Test
+    void separatorsAndLineBreaksAreQuoted() {
+        assertThat(NotificationPartitionServiceImpl.csv("a,b")).isEqualTo("\"a,b\"");
+        assertThat(NotificationPartitionServiceImpl.csv("line\nbreak")).isEqualTo("\"line\nbreak\"");
+        assertThat(NotificationPartitionServiceImpl.csv("line\r\nbreak")).isEqualTo("\"line\r\nbreak\"");
+    }
+
+    @Test
+    void quotesAreDoubled() {
+        assertThat(NotificationPartitionServiceImpl.csv("ООО \"Сантех\"")).isEqualTo("\"ООО \"\"Сантех\"\"\"");
+    }
+}
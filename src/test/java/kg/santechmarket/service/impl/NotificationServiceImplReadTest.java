@@ -0,0 +1,73 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceImplReadTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @InjectMocks
+    private NotificationServiceImpl notificationService;
+
+    @Test
+    void markAsReadWithCreatedAtTargetsOnePartition() {
+        when(notificationRepository.markAsReadInPartition(5L, 1L, CREATED_AT)).thenReturn(1L);
+
+        notificationService.markAsRead(5L, 1L, CREATED_AT);
+
+        verify(notificationRepository, never()).markAsRead(anyLong(), anyLong());
+    }
+
+    @Test
+    void markAsReadOfAlreadyReadNotificationIsNoOp() {
+        when(notificationRepository.markAsRead(5L, 1L)).thenReturn(0L);
+        when(notificationRepository.existsByIdAndUserId(5L, 1L)).thenReturn(true);
+
+        assertThatCode(() -> notificationService.markAsRead(5L, 1L, null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void markAsReadOfForeignNotificationIsRejected() {
+        when(notificationRepository.markAsReadInPartition(5L, 2L, CREATED_AT)).thenReturn(0L);
+        when(notificationRepository.existsByIdAndUserIdAndCreatedAt(5L, 2L, CREATED_AT)).thenReturn(false);
+
+        assertThatThrownBy(() -> notificationService.markAsRead(5L, 2L, CREATED_AT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Уведомление не найдено: 5");
+    }
+
+    @Test
+    void deleteWithCreatedAtTargetsOnePartition() {
+        when(notificationRepository.deleteOwnedInPartition(5L, 1L, CREATED_AT)).thenReturn(1L);
+
+        notificationService.deleteNotification(5L, 1L, CREATED_AT);
+
+        verify(notificationRepository, never()).deleteOwned(anyLong(), anyLong());
+    }
+
+    @Test
+    void deleteOfMissingNotificationIsRejected() {
+        when(notificationRepository.deleteOwned(5L, 1L)).thenReturn(0L);
+
+        assertThatThrownBy(() -> notificationService.deleteNotification(5L, 1L, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.OrderStatus;
+import kg.santechmarket.event.UserStreamEvent;
+import kg.santechmarket.repository.OrderEventRepository;
+import kg.santechmarket.repository.OrderRepository;
+import kg.santechmarket.repository.OrderStatusCounterRepository;
+import kg.santechmarket.service.InventoryService;
+import kg.santechmarket.service.NotificationService;
+import kg.santechmarket.service.NotificationService.OrderStatusChange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplCancelTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderEventRepository orderEventRepository;
+
+    @Mock
+    private OrderStatusCounterRepository orderStatusCounterRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void cancellationIsPushedToOrderStream() {
+        User user = new User();
+        user.setId(7L);
+        Order order = new Order();
+        order.setId(1L);
+        order.setOrderNumber("ORD-20251020-00000101");
+        order.setUser(user);
+        order.setStatus(OrderStatus.CONFIRMED);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        orderService.cancelOrder(1L, "Нет в наличии");
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        assertThat(events.getAllValues())
+                .filteredOn(UserStreamEvent.class::isInstance)
+                .containsExactly(UserStreamEvent.orderStatus(new OrderStatusChange(
+                        1L, "ORD-20251020-00000101", 7L, OrderStatus.CONFIRMED, OrderStatus.CANCELLED)));
+    }
+}
@@ -0,0 +1,66 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.dto.OrderResponseDTO;
+import kg.santechmarket.entity.Order;
+import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.OrderStatus;
+import kg.santechmarket.repository.OrderEventRepository;
+import kg.santechmarket.repository.OrderRepository;
+import kg.santechmarket.repository.OrderRepository.OrderHeaderView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplManagerCommentTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderEventRepository orderEventRepository;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void singleOrderReadsCommentsFromLog() {
+        User user = new User();
+        user.setId(7L);
+        Order order = new Order();
+        order.setId(1L);
+        order.setUser(user);
+        order.setStatus(OrderStatus.CONFIRMED);
+        when(orderEventRepository.findManagerComment(1L)).thenReturn("Подтвержден\nОтгрузка завтра");
+
+        OrderResponseDTO dto = orderService.toOrderResponseDTO(order);
+
+        assertThat(dto.getManagerComment()).isEqualTo("Подтвержден\nОтгрузка завтра");
+    }
+
+    @Test
+    void orderPageTakesCommentFromHeader() {
+        OrderHeaderView header = mock(OrderHeaderView.class);
+        when(header.getId()).thenReturn(1L);
+        when(header.getStatus()).thenReturn("PENDING");
+        when(header.getManagerComment()).thenReturn("Перезвонить клиенту");
+        when(orderRepository.findHeadersByUserId(any(), any()))
+                .thenReturn(new PageImpl<>(List.of(header), PageRequest.of(0, 10), 1));
+        when(orderRepository.findItemViewsByOrderIds(List.of(1L))).thenReturn(List.of());
+
+        List<OrderResponseDTO> orders = orderService.getUserOrders(7L, PageRequest.of(0, 10)).getContent();
+
+        assertThat(orders).extracting(OrderResponseDTO::getManagerComment).containsExactly("Перезвонить клиенту");
+    }
+}
@@ -0,0 +1,55 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.enums.OrderStatus;
+import kg.santechmarket.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplPageSortTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void defaultSortIsAccepted() {
+        when(orderRepository.findHeadersByUserId(eq(1L), any())).thenReturn(Page.empty());
+        when(orderRepository.findHeadersByStatus(eq("PENDING"), any())).thenReturn(Page.empty());
+
+        orderService.getUserOrders(1L, PageRequest.of(2, 10));
+        orderService.getUserOrders(1L, PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "createdAt")));
+        orderService.getOrdersByStatus(OrderStatus.PENDING,
+                PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt", "id")));
+
+        verify(orderRepository, times(2)).findHeadersByUserId(1L, PageRequest.of(2, 10));
+        verify(orderRepository).findHeadersByStatus("PENDING", PageRequest.of(0, 20));
+    }
+
+    @Test
+    void otherSortIsRejected() {
+        assertThatThrownBy(() -> orderService.getUserOrders(1L, PageRequest.of(0, 10, Sort.by("createdAt"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderService.getOrdersByStatus(OrderStatus.PENDING,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "totalAmount"))))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(orderRepository);
+    }
+}
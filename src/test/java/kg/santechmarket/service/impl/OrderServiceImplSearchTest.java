@@ -0,0 +1,143 @@
+package kg.santechmarket.service.impl;
+
+import kg.santechmarket.dto.KeysetPageDTO;
+import kg.santechmarket.dto.OrderSummaryDTO;
+import kg.santechmarket.repository.OrderRepository;
+import kg.santechmarket.repository.OrderRepository.OrderSummaryView;
+import kg.santechmarket.util.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplSearchTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    @Test
+    void orderNumberPrefixUsesRangeScan() {
+        orderService.searchOrders(" ord-2025 ", null, 20);
+
+        verify(orderRepository).searchByOrderNumberRange("ORD-2025", "ORD-2025\u007f",
+                KeysetCursor.START.createdAt(), KeysetCursor.START.id(), 21);
+    }
+
+    @Test
+    void formattedPhoneSearchesByDigits() {
+        orderService.searchOrders("+996 (555) 12-34", null, 20);
+
+        verify(orderRepository).searchByCustomerPhone(eq("%9965551234%"), eq(KeysetCursor.START.createdAt()),
+                eq(KeysetCursor.START.id()), anyInt());
+    }
+
+    @Test
+    void longDigitStringIsPhone() {
+        orderService.searchOrders("555123456", null, 20);
+
+        verify(orderRepository).searchByCustomerPhone(eq("%555123456%"), eq(KeysetCursor.START.createdAt()),
+                eq(KeysetCursor.START.id()), anyInt());
+    }
+
+    @Test
+    void shortDigitStringIsOrderNumberFragment() {
+        orderService.searchOrders("00000123", null, 20);
+
+        verify(orderRepository).searchByOrderNumberFragment(eq("%00000123%"), eq(KeysetCursor.START.createdAt()),
+                eq(KeysetCursor.START.id()), anyInt());
+    }
+
+    @Test
+    void textSearchesCustomerNameWithEscapedPattern() {
+        orderService.searchOrders("Иван_100%", null, 20);
+
+        verify(orderRepository).searchByCustomerName(eq("%иван\\_100\\%%"), eq(KeysetCursor.START.createdAt()),
+                eq(KeysetCursor.START.id()), anyInt());
+    }
+
+    @Test
+    void blankOrShortQueryIsRejected() {
+        assertThatThrownBy(() -> orderService.searchOrders("  ", null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderService.searchOrders("ab", null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderService.searchOrders("+7", null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void limitIsClampedAndNextCursorPointsAtLastItem() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 12, 0);
+        List<OrderSummaryView> rows = List.of(view(3L, createdAt), view(2L, createdAt), view(1L, createdAt));
+        when(orderRepository.searchByCustomerName(eq("%петров%"), eq(KeysetCursor.START.createdAt()),
+                eq(KeysetCursor.START.id()), eq(3))).thenReturn(rows);
+
+        KeysetPageDTO<OrderSummaryDTO> page = orderService.searchOrders("Петров", null, 2);
+
+        assertThat(page.getItems()).extracting(OrderSummaryDTO::getId).containsExactly(3L, 2L);
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new KeysetCursor(createdAt, 2L));
+
+        orderService.searchOrders("Петров", null, 1_000);
+        verify(orderRepository).searchByCustomerName(eq("%петров%"), eq(KeysetCursor.START.createdAt()),
+                eq(KeysetCursor.START.id()), eq(101));
+    }
+
+    private static OrderSummaryView view(Long id, LocalDateTime createdAt) {
+        return new OrderSummaryView() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getOrderNumber() {
+                return "ORD-20250110-0000000" + id;
+            }
+
+            public String getStatus() {
+                return "PENDING";
+            }
+
+            public BigDecimal getTotalAmount() {
+                return BigDecimal.TEN;
+            }
+
+            public Integer getTotalItems() {
+                return 1;
+            }
+
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+
+            public Long getUserId() {
+                return 1L;
+            }
+
+            public String getCustomerName() {
+                return "Петров";
+            }
+
+            public String getCustomerPhone() {
+                return "+996555000000";
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package kg.santechmarket.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SequenceOrderNumberGeneratorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SequenceOrderNumberGenerator generator = new SequenceOrderNumberGenerator(jdbcTemplate);
+
+    @Test
+    void numbersComeFromOneBlockAndMatchFormat() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT increment_by"), eq(Long.class))).thenReturn(100L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT nextval"), eq(Long.class))).thenReturn(101L, 201L);
+
+        String dayPrefix = "ORD-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "-";
+        assertThat(dayPrefix).matches("ORD-\\d{8}-");
+
+        assertThat(generator.nextOrderNumber()).isEqualTo(dayPrefix + "00000101");
+        for (int i = 0; i < 98; i++) {
+            generator.nextOrderNumber();
+        }
+        assertThat(generator.nextOrderNumber()).isEqualTo(dayPrefix + "00000200");
+        assertThat(generator.nextOrderNumber()).isEqualTo(dayPrefix + "00000201");
+
+        verify(jdbcTemplate, times(1)).queryForObject(startsWith("SELECT increment_by"), eq(Long.class));
+        verify(jdbcTemplate, times(2)).queryForObject(startsWith("SELECT nextval"), eq(Long.class));
+    }
+
+    @Test
+    void numberWrapsWithinEightDigits() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT increment_by"), eq(Long.class))).thenReturn(1L);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT nextval"), eq(Long.class))).thenReturn(100_000_005L);
+
+        assertThat(generator.nextOrderNumber()).endsWith("-00000005");
+    }
+}
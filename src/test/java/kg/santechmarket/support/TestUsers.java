@@ -0,0 +1,48 @@
+package kg.santechmarket.support;
+
+import kg.santechmarket.entity.User;
+import kg.santechmarket.enums.UserStatus;
+import kg.santechmarket.repository.UserRepository;
+
+import java.util.UUID;
+
+/**
+ * Пользователи для тестов с реальной БД
+ * <p>
+ * Имя пользователя уникально (префикс + случайный суффикс), поэтому тесты
+ * не конфликтуют с данными БД и между собой.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    /**
+     * Новый несохранённый пользователь
+     */
+    public static User newUser(String prefix) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setUsername(prefix + "_" + suffix);
+        user.setPassword("test");
+        user.setFullName("Test " + suffix);
+        return user;
+    }
+
+    /**
+     * Сохранённый пользователь в статусе по умолчанию (PENDING)
+     */
+    public static User create(UserRepository userRepository, String prefix) {
+        return userRepository.save(newUser(prefix));
+    }
+
+    /**
+     * Сохранённый активный одобренный пользователь (получатель рассылок всем)
+     */
+    public static User createApproved(UserRepository userRepository, String prefix) {
+        User user = newUser(prefix);
+        user.setStatus(UserStatus.APPROVED);
+        user.setIsActive(true);
+        return userRepository.save(user);
+    }
+}
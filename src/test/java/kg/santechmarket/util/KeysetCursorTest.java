@@ -0,0 +1,49 @@
+package kg.santechmarket.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodedCursorDecodesToSamePosition() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_000_000);
+
+        String cursor = KeysetCursor.encode(createdAt, 42L);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(cursor)).isEqualTo(new KeysetCursor(createdAt, 42L));
+    }
+
+    @Test
+    void emptyCursorStartsFromFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isEqualTo(KeysetCursor.START);
+        assertThat(KeysetCursor.decode("")).isEqualTo(KeysetCursor.START);
+        assertThat(KeysetCursor.decode("   ")).isEqualTo(KeysetCursor.START);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertRejected("not base64!");
+        assertRejected(encodeRaw("2025-03-14T15:09:26"));
+        assertRejected(encodeRaw("yesterday|42"));
+        assertRejected(encodeRaw("2025-03-14T15:09:26|abc"));
+        assertRejected(encodeRaw("|"));
+    }
+
+    private static void assertRejected(String cursor) {
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Некорректный курсор страницы");
+    }
+
+    private static String encodeRaw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,47 @@
+package kg.santechmarket.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SortedMergeTest {
+
+    private static final List<List<Integer>> SOURCES = List.of(
+            List.of(9, 6, 3),
+            List.of(),
+            List.of(8, 5, 2),
+            List.of(7, 4, 1));
+
+    @Test
+    void mergesSourcesInCommonOrder() {
+        assertThat(SortedMerge.merge(SOURCES, Comparator.<Integer>reverseOrder(), 0, 20))
+                .containsExactly(9, 8, 7, 6, 5, 4, 3, 2, 1);
+    }
+
+    @Test
+    void returnsRequestedWindow() {
+        assertThat(SortedMerge.merge(SOURCES, Comparator.<Integer>reverseOrder(), 3, 4))
+                .containsExactly(6, 5, 4, 3);
+        assertThat(SortedMerge.merge(SOURCES, Comparator.<Integer>reverseOrder(), 7, 4))
+                .containsExactly(2, 1);
+        assertThat(SortedMerge.merge(SOURCES, Comparator.<Integer>reverseOrder(), 9, 4))
+                .isEmpty();
+    }
+
+    @Test
+    void keepsEqualElementsFromAllSources() {
+        List<List<Integer>> sources = List.of(List.of(1, 2, 2), List.of(2, 3));
+
+        assertThat(SortedMerge.merge(sources, Comparator.<Integer>naturalOrder(), 0, 10))
+                .containsExactly(1, 2, 2, 2, 3);
+    }
+
+    @Test
+    void emptySourcesGiveEmptyPage() {
+        assertThat(SortedMerge.merge(List.<List<Integer>>of(), Comparator.<Integer>naturalOrder(), 0, 10))
+                .isEmpty();
+    }
+}